@@ -16,42 +16,11 @@ if errorlevel 1 (
 echo Creating target directory...
 if not exist target\classes mkdir target\classes
 
-echo Compiling Question.java...
-javac -d target/classes src/main/java/com/quizgenerator/model/Question.java
+echo Compiling sources...
+dir /s /b src\main\java\*.java > target\sources.txt
+javac -d target/classes @target/sources.txt
 if errorlevel 1 (
-    echo ERROR: Failed to compile Question.java
-    pause
-    exit /b 1
-)
-
-echo Compiling QuizSession.java...
-javac -d target/classes -cp target/classes src/main/java/com/quizgenerator/model/QuizSession.java
-if errorlevel 1 (
-    echo ERROR: Failed to compile QuizSession.java
-    pause
-    exit /b 1
-)
-
-echo Compiling QuestionService.java...
-javac -d target/classes -cp target/classes src/main/java/com/quizgenerator/service/QuestionService.java
-if errorlevel 1 (
-    echo ERROR: Failed to compile QuestionService.java
-    pause
-    exit /b 1
-)
-
-echo Compiling QuizService.java...
-javac -d target/classes -cp target/classes src/main/java/com/quizgenerator/service/QuizService.java
-if errorlevel 1 (
-    echo ERROR: Failed to compile QuizService.java
-    pause
-    exit /b 1
-)
-
-echo Compiling ConsoleQuiz.java...
-javac -d target/classes -cp target/classes src/main/java/com/quizgenerator/ConsoleQuiz.java
-if errorlevel 1 (
-    echo ERROR: Failed to compile ConsoleQuiz.java
+    echo ERROR: Compilation failed
     pause
     exit /b 1
 )
@@ -61,6 +30,6 @@ echo ✅ Compilation successful!
 echo.
 echo Starting Quiz Generator Console Edition...
 echo.
-java -cp target/classes com.quizgenerator.ConsoleQuiz
+java -cp target/classes com.quizgenerator.ConsoleQuiz %*
 
 pause
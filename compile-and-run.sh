@@ -22,38 +22,11 @@ fi
 echo "Creating target directory..."
 mkdir -p target/classes
 
-echo "Compiling Question.java..."
-javac -d target/classes src/main/java/com/quizgenerator/model/Question.java
+echo "Compiling sources..."
+find src/main/java -name "*.java" > target/sources.txt
+javac -d target/classes @target/sources.txt
 if [ $? -ne 0 ]; then
-    echo "ERROR: Failed to compile Question.java"
-    exit 1
-fi
-
-echo "Compiling QuizSession.java..."
-javac -d target/classes -cp target/classes src/main/java/com/quizgenerator/model/QuizSession.java
-if [ $? -ne 0 ]; then
-    echo "ERROR: Failed to compile QuizSession.java"
-    exit 1
-fi
-
-echo "Compiling QuestionService.java..."
-javac -d target/classes -cp target/classes src/main/java/com/quizgenerator/service/QuestionService.java
-if [ $? -ne 0 ]; then
-    echo "ERROR: Failed to compile QuestionService.java"
-    exit 1
-fi
-
-echo "Compiling QuizService.java..."
-javac -d target/classes -cp target/classes src/main/java/com/quizgenerator/service/QuizService.java
-if [ $? -ne 0 ]; then
-    echo "ERROR: Failed to compile QuizService.java"
-    exit 1
-fi
-
-echo "Compiling ConsoleQuiz.java..."
-javac -d target/classes -cp target/classes src/main/java/com/quizgenerator/ConsoleQuiz.java
-if [ $? -ne 0 ]; then
-    echo "ERROR: Failed to compile ConsoleQuiz.java"
+    echo "ERROR: Compilation failed"
     exit 1
 fi
 
@@ -62,4 +35,4 @@ echo "✅ Compilation successful!"
 echo
 echo "Starting Quiz Generator Console Edition..."
 echo
-java -cp target/classes com.quizgenerator.ConsoleQuiz
+java -cp target/classes com.quizgenerator.ConsoleQuiz "$@"
@@ -0,0 +1,46 @@
+package com.quizgenerator.benchmark;
+
+import com.quizgenerator.model.Question;
+import com.quizgenerator.service.QuestionService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds synthetic question banks of arbitrary size for benchmarks
+ */
+final class BenchmarkBanks {
+    private static final int BATCH_SIZE = 10_000;
+
+    private BenchmarkBanks() {}
+
+    /**
+     * Create a question service holding the given number of generated questions.
+     * Question texts are unique; options come from a small shared vocabulary, like
+     * numeric and yes/no answers in real banks.
+     * @param size number of questions
+     * @return question service over the generated bank
+     */
+    static QuestionService questionService(int size) {
+        QuestionService service = new QuestionService(Collections.emptyList());
+        List<Question> batch = new ArrayList<>(BATCH_SIZE);
+        for (int id = 1; id <= size; id++) {
+            int base = id % 97;
+            batch.add(new Question(
+                    id,
+                    "Synthetic question #" + id,
+                    Arrays.asList(String.valueOf(base), String.valueOf(base + 1),
+                            String.valueOf(base + 2), String.valueOf(base + 3)),
+                    id % 4,
+                    30));
+            if (batch.size() == BATCH_SIZE) {
+                service.addQuestions(batch);
+                batch.clear();
+            }
+        }
+        service.addQuestions(batch);
+        return service;
+    }
+}
@@ -0,0 +1,55 @@
+package com.quizgenerator.benchmark;
+
+import com.quizgenerator.model.Question;
+import com.quizgenerator.service.QuestionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Random question selection across bank sizes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class QuestionServiceBenchmark {
+    @Param({"25", "1000", "100000", "1000000", "10000000"})
+    public int bankSize;
+
+    @Param({"10"})
+    public int count;
+
+    private QuestionService questionService;
+
+    @Setup
+    public void setUp() {
+        questionService = BenchmarkBanks.questionService(bankSize);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public List<Question> getRandomQuestions() {
+        return questionService.getRandomQuestions(count);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public List<Question> getRandomQuestionsConcurrent() {
+        return questionService.getRandomQuestions(count);
+    }
+}
@@ -0,0 +1,54 @@
+package com.quizgenerator.benchmark;
+
+import com.quizgenerator.model.QuizSession;
+import com.quizgenerator.service.QuizService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Session creation, including registration in the session registry
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class QuizServiceBenchmark {
+    @Param({"100000"})
+    public int bankSize;
+
+    @Param({"10", "50"})
+    public int questionCount;
+
+    private QuizService quizService;
+
+    @Setup
+    public void setUp() {
+        quizService = new QuizService(BenchmarkBanks.questionService(bankSize));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public QuizSession createQuizSession() {
+        return quizService.createQuizSession(questionCount);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public QuizSession createQuizSessionConcurrent() {
+        return quizService.createQuizSession(questionCount);
+    }
+}
@@ -0,0 +1,99 @@
+package com.quizgenerator.benchmark;
+
+import com.quizgenerator.model.Question;
+import com.quizgenerator.model.QuizSession;
+import com.quizgenerator.service.QuestionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answer submission and score summaries on a single session.
+ * Each benchmark thread works on its own session.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuizSessionBenchmark {
+    @Param({"10", "500"})
+    public int questionCount;
+
+    private List<Question> questions;
+    private QuizSession answering;
+    private QuizSession halfAnswered;
+    private int sessionCounter;
+
+    @Setup
+    public void setUp() {
+        QuestionService questionService = BenchmarkBanks.questionService(Math.max(1000, questionCount));
+        questions = questionService.getRandomQuestions(questionCount, 42L);
+        answering = newSession();
+        halfAnswered = newSession();
+        for (int i = 0; i < questionCount / 2; i++) {
+            halfAnswered.submitAnswer(i % 4);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean submitAnswer() {
+        return submit();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean submitAnswerConcurrent() {
+        return submit();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int getCorrectAnswersCount() {
+        return halfAnswered.getCorrectAnswersCount();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int getCorrectAnswersCountConcurrent() {
+        return halfAnswered.getCorrectAnswersCount();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int getAccuracyPercentage() {
+        return halfAnswered.getAccuracyPercentage();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int getAccuracyPercentageConcurrent() {
+        return halfAnswered.getAccuracyPercentage();
+    }
+
+    private boolean submit() {
+        if (answering.isCompleted()) {
+            // Amortized over questionCount submissions
+            answering = newSession();
+        }
+        return answering.submitAnswer(answering.getCurrentQuestionIndex() & 3);
+    }
+
+    private QuizSession newSession() {
+        return new QuizSession("bench-" + (sessionCounter++), questions);
+    }
+}
@@ -1,32 +1,78 @@
 package com.quizgenerator;
 
+import com.quizgenerator.metrics.QuizMetrics;
+import com.quizgenerator.model.MappedQuestionBank;
 import com.quizgenerator.model.Question;
 import com.quizgenerator.model.QuizSession;
+import com.quizgenerator.service.BankValidator;
+import com.quizgenerator.service.DeadlineService;
+import com.quizgenerator.service.HierarchicalTimingWheel;
+import com.quizgenerator.service.QuestionBankLoader;
 import com.quizgenerator.service.QuestionService;
 import com.quizgenerator.service.QuizService;
 
+import javax.management.JMException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.List;
 import java.util.Scanner;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Console-based version of the Quiz Generator
+ * Console-based version of the Quiz Generator.
+ *
+ * Usage: {@code ConsoleQuiz [bank.jsonl|bank.csv|bank.qbi]}. Without an argument the
+ * bundled questions are used; with one, the bank is streamed from disk in the
+ * background, or mapped if it is a compiled bank image.
  */
 public class ConsoleQuiz {
+    private static final int MAX_CUSTOM_QUESTIONS = 100;
     private static final Scanner scanner = new Scanner(System.in);
-    private static volatile boolean timeUp = false;
+    private static DeadlineService deadlines;
 
     public static void main(String[] args) {
         System.out.println("🎯 Welcome to Quiz Generator Console Edition!");
         System.out.println("=" .repeat(50));
 
-        QuestionService questionService = new QuestionService();
+        QuestionService questionService;
+        if (args.length > 0) {
+            Path bankPath = Paths.get(args[0]);
+            if (!Files.isReadable(bankPath)) {
+                System.out.println("❌ Cannot read question bank: " + bankPath);
+                return;
+            }
+            try {
+                if (MappedQuestionBank.isImage(bankPath)) {
+                    questionService = new QuestionService(MappedQuestionBank.open(bankPath));
+                } else {
+                    questionService = new QuestionService(Collections.emptyList());
+                    if (!startBankLoad(bankPath, questionService)) {
+                        return;
+                    }
+                }
+            } catch (IOException e) {
+                System.out.println("❌ Failed to open question bank: " + e.getMessage());
+                return;
+            }
+        } else {
+            questionService = new QuestionService();
+        }
         QuizService quizService = new QuizService(questionService);
+        QuizMetrics metrics = new QuizMetrics();
+        quizService.setMetrics(metrics);
+        try {
+            metrics.register(QuizMetrics.DEFAULT_OBJECT_NAME);
+        } catch (JMException e) {
+            System.err.println("Metrics not published over JMX: " + e.getMessage());
+        }
+        deadlines = new DeadlineService(new HierarchicalTimingWheel(), metrics);
 
         if (questionService.getTotalQuestionCount() == 0) {
-            System.out.println("❌ No questions found. Please check the questions.json file.");
+            System.out.println("❌ No questions found. Please check the question bank file.");
             return;
         }
 
@@ -68,11 +114,51 @@ public class ConsoleQuiz {
         }
     }
 
+    /**
+     * Start streaming the bank and wait until enough questions for a quiz are available
+     * @return false if loading failed before any question became available
+     */
+    private static boolean startBankLoad(Path bankPath, QuestionService questionService) {
+        System.out.println("📂 Loading questions from " + bankPath + "...");
+        QuestionBankLoader loader = new QuestionBankLoader((bytesRead, totalBytes, loaded, rejected) -> {
+            if (bytesRead < totalBytes) {
+                System.out.println("   ... " + loaded + " questions loaded ("
+                        + (bytesRead * 100 / Math.max(1, totalBytes)) + "%)");
+            }
+        });
+        CompletableFuture<QuestionBankLoader.LoadResult> load = loader.loadAsync(bankPath, questionService);
+        load.whenComplete((result, error) -> {
+            if (error != null) {
+                System.out.println("❌ Failed to load question bank: " + error.getMessage());
+            } else {
+                if (result.getLinesRejected() > 0) {
+                    System.out.println("⚠️ Skipped " + result.getLinesRejected() + " malformed lines in the question bank");
+                }
+                BankValidator.Report report = new BankValidator().validate(questionService.getQuestionBank(), null);
+                if (report.getIssueCount() > 0) {
+                    System.out.println("⚠️ Question bank validation found " + report);
+                }
+            }
+        });
+
+        // Serve the first quizzes as soon as a full challenge quiz can be drawn
+        try {
+            while (!load.isDone() && questionService.getTotalQuestionCount() < 25) {
+                questionService.awaitQuestionCount(25, 100, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return !load.isCompletedExceptionally() || questionService.getTotalQuestionCount() > 0;
+    }
+
     private static void startCustomQuiz(QuizService quizService) {
-        System.out.print("Enter number of questions (1-" + quizService.getSession(null).getTotalQuestions() + "): ");
+        int maxQuestions = Math.min(MAX_CUSTOM_QUESTIONS, quizService.getTotalQuestionCount());
+        System.out.print("Enter number of questions (1-" + maxQuestions + "): ");
         int questionCount = getIntInput();
         
-        if (questionCount > 0 && questionCount <= 25) {
+        if (questionCount > 0 && questionCount <= maxQuestions) {
             startQuiz(quizService, questionCount);
         } else {
             System.out.println("❌ Invalid number of questions. Please try again.");
@@ -102,40 +188,39 @@ public class ConsoleQuiz {
             System.out.println(currentQuestion.getQuestion());
             System.out.println();
 
-            // Display options
-            for (int i = 0; i < currentQuestion.getOptions().size(); i++) {
-                System.out.println((i + 1) + ". " + currentQuestion.getOptions().get(i));
+            // Display options in the session's order
+            List<String> options = session.getCurrentOptions();
+            for (int i = 0; i < options.size(); i++) {
+                System.out.println((i + 1) + ". " + options.get(i));
             }
             System.out.println();
 
-            // Start timer with a new executor for each question
-            timeUp = false;
-            ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
-            executor.schedule(() -> {
-                timeUp = true;
-                System.out.println("\n⏰ Time's up!");
-            }, currentQuestion.getTimeLimit(), TimeUnit.SECONDS);
+            // Start the shared deadline timer for this question
+            int position = session.getCurrentQuestionIndex();
+            HierarchicalTimingWheel.Timeout deadline = deadlines.scheduleCurrentQuestion(session,
+                    (timedOut, timedOutPosition) -> System.out.println("\n⏰ Time's up!"));
 
             // Get user input
             System.out.print("Enter your answer (1-" + currentQuestion.getOptions().size() + "): ");
             int userAnswer = getIntInput() - 1; // Convert to 0-based index
 
-            // Cancel timer and shutdown executor
-            executor.shutdownNow();
+            // Cancel the timer; if it already fired, the question has been timed out
+            boolean timeUp = !deadline.cancel();
 
             if (timeUp) {
                 System.out.println("⏰ Time ran out! No points awarded.");
-                userAnswer = -1; // Invalid answer
+                session.timeOutQuestion(position);
             } else if (userAnswer >= 0 && userAnswer < currentQuestion.getOptions().size()) {
                 boolean isCorrect = session.submitAnswer(userAnswer);
                 if (isCorrect) {
                     System.out.println("✅ Correct! +10 points");
                 } else {
-                    System.out.println("❌ Incorrect. The correct answer was: " + 
-                        (currentQuestion.getCorrectAnswer() + 1));
+                    System.out.println("❌ Incorrect. The correct answer was: " +
+                        (session.toDisplayedOption(position, currentQuestion.getCorrectAnswer()) + 1));
                 }
             } else {
                 System.out.println("❌ Invalid answer. No points awarded.");
+                session.skipQuestion();
             }
 
             System.out.println("Current score: " + session.getScore());
@@ -153,6 +238,9 @@ public class ConsoleQuiz {
         System.out.println("Final Results:");
         System.out.println("Total Questions: " + session.getTotalQuestions());
         System.out.println("Correct Answers: " + session.getCorrectAnswersCount());
+        if (session.getSkippedQuestionsCount() > 0) {
+            System.out.println("Skipped/Timed Out: " + session.getSkippedQuestionsCount());
+        }
         System.out.println("Final Score: " + session.getScore());
         System.out.println("Accuracy: " + session.getAccuracyPercentage() + "%");
         System.out.println("Total Time: " + session.getDurationInSeconds() + " seconds");
@@ -0,0 +1,683 @@
+package com.quizgenerator.http;
+
+import com.quizgenerator.metrics.QuestionAnalytics;
+import com.quizgenerator.metrics.QuestionStats;
+import com.quizgenerator.metrics.QuizMetrics;
+import com.quizgenerator.model.MappedQuestionBank;
+import com.quizgenerator.model.Question;
+import com.quizgenerator.model.QuizSession;
+import com.quizgenerator.model.QuizTemplate;
+import com.quizgenerator.persistence.AnswerLog;
+import com.quizgenerator.persistence.Checkpointer;
+import com.quizgenerator.persistence.SessionSnapshot;
+import com.quizgenerator.service.DeadlineService;
+import com.quizgenerator.service.HierarchicalTimingWheel;
+import com.quizgenerator.service.Leaderboard;
+import com.quizgenerator.service.QuestionBankLoader;
+import com.quizgenerator.service.QuestionFilter;
+import com.quizgenerator.service.QuestionService;
+import com.quizgenerator.service.QuizService;
+import com.quizgenerator.util.Json;
+import com.quizgenerator.util.VirtualThreads;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.JMException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * JSON quiz API on the JDK's built-in HTTP server.
+ *
+ * Endpoints:
+ * <ul>
+ *   <li>{@code POST /sessions?questions=N[&category=C][&difficulty=D][&language=L]}:
+ *   create a session, optionally from questions with the given tags</li>
+ *   <li>{@code POST /sessions?questions=N&adaptive=true}: create a session whose
+ *   questions follow the taker's running ability</li>
+ *   <li>{@code POST /templates?questions=N[&category=C][&difficulty=D][&language=L]}:
+ *   draw the questions of a cohort quiz once</li>
+ *   <li>{@code POST /sessions?template=T[&shuffle=true]}: create a session sharing a
+ *   template's questions, optionally in its own random order</li>
+ *   <li>Any session creation may add {@code &shuffleOptions=true} to show each
+ *   question's options in an order of the session's own; answers are then given
+ *   as displayed positions</li>
+ *   <li>{@code GET /sessions/{id}/question}: current question (without its answer)</li>
+ *   <li>{@code POST /sessions/{id}/answers?answer=I[&position=P]}: submit an answer;
+ *   parameters may also be sent as a form body. With a position, repeating the
+ *   request returns the result recorded first instead of answering again.</li>
+ *   <li>{@code GET /sessions/{id}/results}: score summary</li>
+ * </ul>
+ *
+ * Requests run on a virtual-thread-per-request executor where available. Every
+ * response carries a Content-Length, so connections stay alive between requests.
+ * The JSON for each question is serialized once and reused for every session
+ * that is served the question.
+ *
+ * Question time limits are enforced from one shared {@link DeadlineService}:
+ * serving a session's current question starts its deadline, counted from when the
+ * session moved on to it, and answering it cancels the deadline. A question whose
+ * deadline passes is recorded as timed out.
+ */
+public class QuizHttpServer {
+    private static final Logger LOG = Logger.getLogger(QuizHttpServer.class.getName());
+    private static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_QUESTION_COUNT = 10;
+    private static final int MAX_QUESTION_COUNT = 500;
+    private static final int DEFAULT_LEADERBOARD_SIZE = 10;
+    private static final int MAX_LEADERBOARD_SIZE = 100;
+    private static final int MAX_CACHED_QUESTIONS = 1_000_000;
+    private static final int FALLBACK_THREADS = 256;
+    private static final long DEFAULT_LOG_SYNC_MILLIS = 5;
+    private static final long DEFAULT_SNAPSHOT_INTERVAL_SECONDS = 60;
+    private static final byte[] OPTIONS_CLOSE = "]}}".getBytes(StandardCharsets.UTF_8);
+
+    private final QuizService quizService;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final DeadlineService deadlines;
+    // Session id -> deadline of the question last served to it, until answered or timed out
+    private final Map<String, PendingDeadline> pendingDeadlines = new ConcurrentHashMap<>();
+    // Keyed by the question itself: ids are not guaranteed unique, bank rows are
+    private final Map<Question, byte[][]> questionJson = new ConcurrentHashMap<>();
+
+    public QuizHttpServer(QuizService quizService, int port) throws IOException {
+        this.quizService = quizService;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.executor = VirtualThreads.newThreadPerTaskExecutor(FALLBACK_THREADS, "quiz-http");
+        this.server.setExecutor(executor);
+        this.deadlines = new DeadlineService(new HierarchicalTimingWheel(), quizService.getMetrics());
+        this.server.createContext("/sessions", this::handle);
+        this.server.createContext("/leaderboard", this::handleLeaderboard);
+        this.server.createContext("/templates", this::handleTemplates);
+        this.server.createContext("/questions", this::handleQuestionStats);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        String bank = null;
+        String log = null;
+        long logSyncMillis = DEFAULT_LOG_SYNC_MILLIS;
+        String snapshot = null;
+        long snapshotSeconds = DEFAULT_SNAPSHOT_INTERVAL_SECONDS;
+        int sessionPool = 0;
+        for (String arg : args) {
+            if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(arg.substring("--port=".length()));
+            } else if (arg.startsWith("--bank=")) {
+                bank = arg.substring("--bank=".length());
+            } else if (arg.startsWith("--log=")) {
+                log = arg.substring("--log=".length());
+            } else if (arg.startsWith("--log-sync-ms=")) {
+                logSyncMillis = Long.parseLong(arg.substring("--log-sync-ms=".length()));
+            } else if (arg.startsWith("--snapshot=")) {
+                snapshot = arg.substring("--snapshot=".length());
+            } else if (arg.startsWith("--snapshot-interval-s=")) {
+                snapshotSeconds = Long.parseLong(arg.substring("--snapshot-interval-s=".length()));
+            } else if (arg.startsWith("--session-pool=")) {
+                sessionPool = Integer.parseInt(arg.substring("--session-pool=".length()));
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        QuestionService questionService;
+        if (bank != null && MappedQuestionBank.isImage(Paths.get(bank))) {
+            questionService = new QuestionService(MappedQuestionBank.open(Paths.get(bank)));
+        } else if (bank != null) {
+            questionService = new QuestionService(Collections.emptyList());
+            if (log != null || snapshot != null || sessionPool > 0) {
+                // Recovery needs the whole bank to resolve logged question ids,
+                // and pooled sessions must not be drawn from a partial bank
+                new QuestionBankLoader().load(Paths.get(bank), questionService);
+            } else {
+                new QuestionBankLoader().loadAsync(Paths.get(bank), questionService);
+            }
+        } else {
+            questionService = new QuestionService();
+        }
+
+        QuizService quizService = new QuizService(questionService);
+        QuizMetrics metrics = new QuizMetrics();
+        quizService.setMetrics(metrics);
+        quizService.setLeaderboard(new Leaderboard());
+        quizService.setAnalytics(new QuestionAnalytics(questionService.getQuestionBank()));
+        try {
+            metrics.register(QuizMetrics.DEFAULT_OBJECT_NAME);
+        } catch (JMException e) {
+            System.err.println("Metrics not published over JMX: " + e.getMessage());
+        }
+        if (log != null || snapshot != null) {
+            recover(quizService, questionService, log != null ? Paths.get(log) : null, logSyncMillis,
+                    snapshot != null ? Paths.get(snapshot) : null, snapshotSeconds);
+        }
+
+        if (sessionPool > 0) {
+            quizService.startSessionPool(DEFAULT_QUESTION_COUNT, sessionPool);
+        }
+
+        QuizHttpServer server = new QuizHttpServer(quizService, port);
+        server.start();
+        System.out.println("🌐 Quiz API listening on port " + port
+                + (VirtualThreads.isAvailable() ? " (virtual threads)" : ""));
+    }
+
+    /**
+     * Map the last snapshot for lazy recovery, rebuild the sessions changed in the log
+     * since it was taken, then keep logging and checkpointing
+     */
+    private static void recover(QuizService quizService, QuestionService questionService, Path logPath,
+                                long syncMillis, Path snapshotPath, long snapshotSeconds) throws IOException {
+        SessionSnapshot restored = null;
+        if (snapshotPath != null && Files.exists(snapshotPath)) {
+            restored = SessionSnapshot.open(snapshotPath, questionService);
+            quizService.setSessionRecovery(restored);
+            System.out.println("💾 Mapped " + restored.getSessionCount() + " sessions from " + snapshotPath);
+        }
+
+        AnswerLog answerLog = null;
+        if (logPath != null) {
+            long fromOffset = restored != null ? restored.getLogOffset() : 0;
+            Map<String, QuizSession> recovered = AnswerLog.replay(logPath, fromOffset, questionService, restored);
+            for (QuizSession session : recovered.values()) {
+                quizService.registerRecoveredSession(session);
+            }
+            answerLog = new AnswerLog(logPath, syncMillis, TimeUnit.MILLISECONDS);
+            quizService.addSessionListener(answerLog);
+            System.out.println("📝 Replayed " + recovered.size() + " sessions from " + logPath);
+        }
+
+        Checkpointer checkpointer = null;
+        if (snapshotPath != null) {
+            checkpointer = new Checkpointer(quizService.getSessionRegistry(), snapshotPath, answerLog, restored);
+            checkpointer.start(snapshotSeconds, TimeUnit.SECONDS);
+        }
+
+        AnswerLog finalLog = answerLog;
+        Checkpointer finalCheckpointer = checkpointer;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (finalCheckpointer != null) {
+                finalCheckpointer.close();
+            }
+            if (finalLog != null) {
+                try {
+                    finalLog.close();
+                } catch (IOException e) {
+                    System.err.println("Failed to close answer log: " + e.getMessage());
+                }
+            }
+        }, "quiz-persistence-shutdown"));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stop accepting requests and wait up to the given delay for exchanges to finish
+     * @param delaySeconds maximum time to wait
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        deadlines.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            String method = exchange.getRequestMethod();
+            // path[0] is empty, path[1] is "sessions"
+            if (path.length == 2) {
+                if (!"POST".equals(method)) {
+                    sendError(exchange, 405, "Use POST to create a session");
+                } else {
+                    createSession(exchange);
+                }
+                return;
+            }
+            if (path.length != 4) {
+                sendError(exchange, 404, "Not found");
+                return;
+            }
+
+            QuizSession session = quizService.getSession(path[2]);
+            if (session == null) {
+                sendError(exchange, 404, "Unknown or expired session");
+                return;
+            }
+            switch (path[3]) {
+                case "question":
+                    requireMethod(exchange, "GET");
+                    currentQuestion(exchange, session);
+                    break;
+                case "answers":
+                    requireMethod(exchange, "POST");
+                    submitAnswer(exchange, session);
+                    break;
+                case "results":
+                    requireMethod(exchange, "GET");
+                    results(exchange, session);
+                    break;
+                default:
+                    sendError(exchange, 404, "Not found");
+            }
+        } catch (BadRequestException e) {
+            sendError(exchange, e.status, e.getMessage());
+        } catch (RuntimeException e) {
+            sendInternalError(exchange, e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleLeaderboard(HttpExchange exchange) throws IOException {
+        try {
+            requireMethod(exchange, "GET");
+            Leaderboard leaderboard = quizService.getLeaderboard();
+            if (leaderboard == null) {
+                sendError(exchange, 404, "Leaderboard not enabled");
+                return;
+            }
+            Map<String, String> params = parameters(exchange);
+            int limit = intParameter(params, "limit", DEFAULT_LEADERBOARD_SIZE);
+            if (limit <= 0 || limit > MAX_LEADERBOARD_SIZE) {
+                throw new BadRequestException(400, "limit must be between 1 and " + MAX_LEADERBOARD_SIZE);
+            }
+            List<Leaderboard.Entry> entries = params.containsKey("questions")
+                    ? leaderboard.getTop(intParameter(params, "questions", 0), limit)
+                    : leaderboard.getTop(limit);
+            StringBuilder json = new StringBuilder(64 + entries.size() * 128).append("{\"entries\":[");
+            for (int i = 0; i < entries.size(); i++) {
+                Leaderboard.Entry entry = entries.get(i);
+                json.append(i > 0 ? ",{" : "{").append("\"rank\":").append(i + 1).append(",\"sessionId\":");
+                Json.appendString(json, entry.getSessionId())
+                        .append(",\"score\":").append(entry.getScore())
+                        .append(",\"totalQuestions\":").append(entry.getTotalQuestions())
+                        .append(",\"correct\":").append(entry.getCorrectAnswers())
+                        .append(",\"durationSeconds\":").append(entry.getDurationInSeconds())
+                        .append('}');
+            }
+            send(exchange, 200, json.append("]}"));
+        } catch (BadRequestException e) {
+            sendError(exchange, e.status, e.getMessage());
+        } catch (RuntimeException e) {
+            sendInternalError(exchange, e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleTemplates(HttpExchange exchange) throws IOException {
+        try {
+            requireMethod(exchange, "POST");
+            Map<String, String> params = parameters(exchange);
+            int count = questionCount(params);
+            QuestionFilter filter = filter(params);
+            QuizTemplate template = quizService.createQuizTemplate(filter, count);
+            StringBuilder json = new StringBuilder(96).append("{\"templateId\":");
+            Json.appendString(json, template.getTemplateId())
+                    .append(",\"totalQuestions\":").append(template.size())
+                    .append('}');
+            send(exchange, 201, json);
+        } catch (BadRequestException e) {
+            sendError(exchange, e.status, e.getMessage());
+        } catch (RuntimeException e) {
+            sendInternalError(exchange, e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleQuestionStats(HttpExchange exchange) throws IOException {
+        try {
+            requireMethod(exchange, "GET");
+            // path[0] is empty, path[1] is "questions", path[2] the question id
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            QuestionAnalytics analytics = quizService.getAnalytics();
+            if (path.length != 4 || !"stats".equals(path[3]) || analytics == null) {
+                sendError(exchange, 404, "Not found");
+                return;
+            }
+            QuestionStats stats;
+            try {
+                stats = analytics.getStats(Integer.parseInt(path[2]));
+            } catch (NumberFormatException e) {
+                throw new BadRequestException(400, "Question id must be an integer");
+            }
+            if (stats == null) {
+                sendError(exchange, 404, "Unknown question");
+                return;
+            }
+            StringBuilder json = new StringBuilder(256)
+                    .append("{\"questionId\":").append(stats.getQuestionId())
+                    .append(",\"served\":").append(stats.getServed())
+                    .append(",\"correct\":").append(stats.getCorrect())
+                    .append(",\"incorrect\":").append(stats.getIncorrect())
+                    .append(",\"skipped\":").append(stats.getSkipped())
+                    .append(",\"timedOut\":").append(stats.getTimedOut())
+                    .append(",\"correctRate\":").append(stats.getCorrectRate())
+                    .append(",\"timeoutRate\":").append(stats.getTimeoutRate())
+                    .append(",\"meanResponseMillis\":").append(stats.getMeanResponseMillis())
+                    .append(",\"optionPicks\":[");
+            for (int i = 0; i < stats.getTrackedOptionCount(); i++) {
+                json.append(i > 0 ? "," : "").append(stats.getOptionPicks(i));
+            }
+            send(exchange, 200, json.append("]}"));
+        } catch (BadRequestException e) {
+            sendError(exchange, e.status, e.getMessage());
+        } catch (RuntimeException e) {
+            sendInternalError(exchange, e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void createSession(HttpExchange exchange) throws IOException {
+        Map<String, String> params = parameters(exchange);
+        boolean shuffleOptions = "true".equals(params.get("shuffleOptions"));
+        QuizSession session;
+        if (params.containsKey("template")) {
+            QuizTemplate template = quizService.getQuizTemplate(params.get("template"));
+            if (template == null) {
+                throw new BadRequestException(404, "Unknown template");
+            }
+            session = quizService.createQuizSession(template, "true".equals(params.get("shuffle")),
+                    shuffleOptions);
+        } else {
+            int count = questionCount(params);
+            if ("true".equals(params.get("adaptive"))) {
+                if (params.containsKey("category") || params.containsKey("difficulty")
+                        || params.containsKey("language")) {
+                    throw new BadRequestException(400, "Adaptive sessions cannot be filtered by tags");
+                }
+                session = quizService.createAdaptiveQuizSession(count, shuffleOptions);
+            } else {
+                session = quizService.createQuizSession(filter(params), count, shuffleOptions);
+            }
+        }
+        StringBuilder json = new StringBuilder(96).append("{\"sessionId\":");
+        Json.appendString(json, session.getSessionId())
+                .append(",\"totalQuestions\":").append(session.getTotalQuestions())
+                .append('}');
+        send(exchange, 201, json);
+    }
+
+    private static int questionCount(Map<String, String> params) {
+        int count = intParameter(params, "questions", DEFAULT_QUESTION_COUNT);
+        if (count <= 0 || count > MAX_QUESTION_COUNT) {
+            throw new BadRequestException(400, "questions must be between 1 and " + MAX_QUESTION_COUNT);
+        }
+        return count;
+    }
+
+    /**
+     * Read the tag parameters, rejecting tags no question carries
+     */
+    private QuestionFilter filter(Map<String, String> params) {
+        QuestionFilter filter = new QuestionFilter(params.get("category"), params.get("difficulty"),
+                params.get("language"));
+        if (!filter.isAny() && !quizService.hasQuestions(filter)) {
+            throw new BadRequestException(404, "No questions match the requested tags");
+        }
+        return filter;
+    }
+
+    private void currentQuestion(HttpExchange exchange, QuizSession session) throws IOException {
+        // Read the position once: the session may move on while this response is built
+        int position = session.getCurrentQuestionIndex();
+        if (position >= session.getTotalQuestions() || session.isCompleted()) {
+            send(exchange, 200, new StringBuilder("{\"completed\":true,\"total\":")
+                    .append(session.getTotalQuestions()).append('}'));
+            return;
+        }
+        Question question = session.getQuestions().get(position);
+        startDeadline(session, position, question);
+        byte[] prefix = ("{\"completed\":false,\"position\":" + position
+                + ",\"total\":" + session.getTotalQuestions() + ",\"question\":")
+                .getBytes(StandardCharsets.UTF_8);
+        byte[][] parts = questionJson(question);
+        int options = parts.length - 1;
+        long length = prefix.length + parts[0].length + Math.max(0, options - 1) + OPTIONS_CLOSE.length;
+        for (int i = 1; i <= options; i++) {
+            length += parts[i].length;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(prefix);
+            out.write(parts[0]);
+            for (int displayed = 0; displayed < options; displayed++) {
+                if (displayed > 0) {
+                    out.write(',');
+                }
+                out.write(parts[1 + session.toCanonicalOption(position, displayed)]);
+            }
+            out.write(OPTIONS_CLOSE);
+        }
+    }
+
+    private void submitAnswer(HttpExchange exchange, QuizSession session) throws IOException {
+        Map<String, String> params = parameters(exchange);
+        int answer = intParameter(params, "answer", -1);
+        int current = session.getCurrentQuestionIndex();
+        int position = intParameter(params, "position", current);
+
+        if (position < 0 || position > current) {
+            throw new BadRequestException(409, "Question " + position + " is not the current question");
+        }
+        if (position >= session.getTotalQuestions() || (position == current && session.isCompleted())) {
+            throw new BadRequestException(409, "Quiz already completed");
+        }
+        if (position < current && session.getAnswerAt(position) < 0) {
+            throw new BadRequestException(409, "Question " + position + " was skipped or timed out");
+        }
+        Question question = session.getQuestions().get(position);
+        if (answer < 0 || answer >= question.getOptions().size()) {
+            throw new BadRequestException(400, "answer must be an option index of the question");
+        }
+
+        // A retried submission for an answered position gets the original result back
+        boolean correct = quizService.submitAnswer(session, position, answer);
+        cancelDeadline(session.getSessionId(), position);
+        StringBuilder json = new StringBuilder(96)
+                .append("{\"correct\":").append(correct)
+                .append(",\"score\":").append(session.getScore())
+                .append(",\"completed\":").append(session.isCompleted())
+                .append('}');
+        send(exchange, 200, json);
+    }
+
+    /**
+     * Start the deadline of a served question, unless it is already running
+     */
+    private void startDeadline(QuizSession session, int position, Question question) {
+        if (question.getTimeLimit() <= 0) {
+            return;
+        }
+        pendingDeadlines.compute(session.getSessionId(), (id, pending) -> {
+            if (pending != null) {
+                if (pending.position == position) {
+                    return pending;
+                }
+                pending.timeout.cancel();
+            }
+            HierarchicalTimingWheel.Timeout timeout = deadlines.scheduleQuestion(session, position,
+                    (timedOut, timedOutPosition) -> cancelDeadline(id, timedOutPosition));
+            return timeout != null ? new PendingDeadline(position, timeout) : null;
+        });
+    }
+
+    private void cancelDeadline(String sessionId, int position) {
+        pendingDeadlines.computeIfPresent(sessionId, (id, pending) -> {
+            if (pending.position != position) {
+                return pending;
+            }
+            pending.timeout.cancel();
+            return null;
+        });
+    }
+
+    private void results(HttpExchange exchange, QuizSession session) throws IOException {
+        StringBuilder json = new StringBuilder(192)
+                .append("{\"completed\":").append(session.isCompleted())
+                .append(",\"totalQuestions\":").append(session.getTotalQuestions())
+                .append(",\"score\":").append(session.getScore())
+                .append(",\"correct\":").append(session.getCorrectAnswersCount())
+                .append(",\"incorrect\":").append(session.getIncorrectAnswersCount())
+                .append(",\"skipped\":").append(session.getSkippedQuestionsCount())
+                .append(",\"accuracy\":").append(session.getAccuracyPercentage())
+                .append(",\"durationSeconds\":").append(session.getDurationInSeconds())
+                .append(",\"averageResponseMillis\":")
+                .append(TimeUnit.NANOSECONDS.toMillis(session.getAverageResponseNanos()));
+        Leaderboard leaderboard = quizService.getLeaderboard();
+        if (leaderboard != null && session.isCompleted()) {
+            int rank = leaderboard.getRank(session.getSessionId());
+            if (rank > 0) {
+                json.append(",\"rank\":").append(rank)
+                        .append(",\"quizSizeRank\":")
+                        .append(leaderboard.getRank(session.getTotalQuestions(), session.getSessionId()));
+            }
+        }
+        send(exchange, 200, json.append('}'));
+    }
+
+    /**
+     * Get the serialized form of a question, without its correct answer: the
+     * fields up to the opening of the options array, then each option on its own
+     * so sessions can write them in their own order
+     */
+    private byte[][] questionJson(Question question) {
+        byte[][] cached = questionJson.get(question);
+        if (cached != null) {
+            return cached;
+        }
+        StringBuilder json = new StringBuilder(256)
+                .append("{\"id\":").append(question.getId())
+                .append(",\"text\":");
+        Json.appendString(json, question.getQuestion())
+                .append(",\"timeLimit\":").append(question.getTimeLimit());
+        appendTag(json, "category", question.getCategory());
+        appendTag(json, "difficulty", question.getDifficulty());
+        appendTag(json, "language", question.getLanguage());
+        json.append(",\"options\":[");
+        List<String> options = question.getOptions();
+        byte[][] parts = new byte[1 + options.size()][];
+        parts[0] = json.toString().getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < options.size(); i++) {
+            json.setLength(0);
+            parts[1 + i] = Json.appendString(json, options.get(i)).toString().getBytes(StandardCharsets.UTF_8);
+        }
+        if (questionJson.size() < MAX_CACHED_QUESTIONS) {
+            questionJson.put(question, parts);
+        }
+        return parts;
+    }
+
+    private static void appendTag(StringBuilder json, String name, String value) {
+        if (value != null) {
+            json.append(",\"").append(name).append("\":");
+            Json.appendString(json, value);
+        }
+    }
+
+    private static void sendInternalError(HttpExchange exchange, RuntimeException e) throws IOException {
+        LOG.log(Level.SEVERE, e, () -> "Request failed: " + exchange.getRequestMethod() + " " + exchange.getRequestURI());
+        sendError(exchange, 500, "Internal error");
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) {
+        if (!method.equals(exchange.getRequestMethod())) {
+            throw new BadRequestException(405, "Use " + method);
+        }
+    }
+
+    private static Map<String, String> parameters(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        if ("POST".equals(exchange.getRequestMethod())) {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            if (body.length > 0) {
+                parseForm(new String(body, StandardCharsets.UTF_8), params);
+            }
+        }
+        return params;
+    }
+
+    private static void parseForm(String form, Map<String, String> params) {
+        if (form == null || form.isEmpty()) {
+            return;
+        }
+        for (String pair : form.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private static int intParameter(Map<String, String> params, String name, int defaultValue) {
+        String value = params.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new BadRequestException(400, name + " must be an integer");
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder json = new StringBuilder(64).append("{\"error\":");
+        Json.appendString(json, message).append('}');
+        send(exchange, status, json);
+    }
+
+    private static void send(HttpExchange exchange, int status, CharSequence json) throws IOException {
+        byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static final class PendingDeadline {
+        final int position;
+        final HierarchicalTimingWheel.Timeout timeout;
+
+        PendingDeadline(int position, HierarchicalTimingWheel.Timeout timeout) {
+            this.position = position;
+            this.timeout = timeout;
+        }
+    }
+
+    private static final class BadRequestException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        BadRequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.quizgenerator.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent log-linear latency histogram in the style of HdrHistogram.
+ *
+ * Values are bucketed by power of two, and each power of two is split into
+ * {@value #SUB_BUCKETS} linear sub-buckets, which keeps the relative error
+ * of reported percentiles around 3% across the whole range of a {@code long}.
+ * Recording is a handful of arithmetic operations, one atomic increment of the
+ * bucket and a {@link LongAdder} add for the sum; the maximum is only written
+ * when it grows. It takes no locks and allocates nothing once warmed up. The
+ * buckets are striped by thread, each stripe a separate run of memory, so
+ * threads recording similar values do not contend on the same cache lines; the
+ * total count and percentiles are summed across the stripes when read.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+    private static final int MAX_STRIPES = 16;
+
+    private final int stripeMask;
+    private final AtomicLongArray counts; // stripe * BUCKET_COUNT + bucket
+    private final LongAdder totalSum = new LongAdder();
+    private final AtomicLong maxValue = new AtomicLong();
+
+    public LatencyHistogram() {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        int stripes = Math.min(MAX_STRIPES, Integer.highestOneBit(Math.max(1, cpus - 1)) << 1);
+        stripeMask = stripes - 1;
+        counts = new AtomicLongArray(stripes * BUCKET_COUNT);
+    }
+
+    /**
+     * Record a value
+     * @param value value to record, typically nanoseconds; negative values count as 0
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.getAndIncrement(stripe() * BUCKET_COUNT + indexFor(value));
+        totalSum.add(value);
+        long max = maxValue.get();
+        while (value > max && !maxValue.compareAndSet(max, value)) {
+            max = maxValue.get();
+        }
+    }
+
+    /**
+     * Record the time elapsed since a {@link System#nanoTime()} reading
+     * @param startNanos start time from {@link System#nanoTime()}
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int i = 0, n = counts.length(); i < n; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    /**
+     * Get the mean of all recorded values
+     * @return mean value, or 0 if nothing was recorded
+     */
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) totalSum.sum() / count;
+    }
+
+    /**
+     * Get the value at a percentile, e.g. 99.9
+     * @param percentile percentile in the range 0-100
+     * @return value at or above the requested percentile, within bucket precision
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(count * Math.min(100.0, percentile) / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += bucketCount(i);
+            if (seen >= target) {
+                return Math.min(highestValueIn(i), maxValue.get());
+            }
+        }
+        return maxValue.get();
+    }
+
+    /**
+     * Clear all recorded values. Not atomic with respect to concurrent recording.
+     */
+    public void reset() {
+        for (int i = 0, n = counts.length(); i < n; i++) {
+            counts.set(i, 0);
+        }
+        totalSum.reset();
+        maxValue.set(0);
+    }
+
+    private long bucketCount(int index) {
+        long count = 0;
+        for (int i = index, n = counts.length(); i < n; i += BUCKET_COUNT) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    private int stripe() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & stripeMask;
+    }
+
+    static int indexFor(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestValueIn(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = index & (SUB_BUCKETS - 1);
+        long lowest = (SUB_BUCKETS + subBucket) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,68 @@
+package com.quizgenerator.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Point-in-time summary of a {@link LatencyHistogram} in microseconds, as
+ * published over JMX
+ */
+public class LatencySummary {
+    private final long count;
+    private final double meanMicros;
+    private final double p50Micros;
+    private final double p99Micros;
+    private final double p999Micros;
+    private final double maxMicros;
+
+    @ConstructorProperties({"count", "meanMicros", "p50Micros", "p99Micros", "p999Micros", "maxMicros"})
+    public LatencySummary(long count, double meanMicros, double p50Micros, double p99Micros, double p999Micros,
+                          double maxMicros) {
+        this.count = count;
+        this.meanMicros = meanMicros;
+        this.p50Micros = p50Micros;
+        this.p99Micros = p99Micros;
+        this.p999Micros = p999Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    /**
+     * Summarize a histogram of nanosecond values
+     * @param histogram histogram to read
+     * @return summary in microseconds
+     */
+    public static LatencySummary of(LatencyHistogram histogram) {
+        return new LatencySummary(histogram.getCount(), histogram.getMean() / 1e3,
+                histogram.getValueAtPercentile(50) / 1e3, histogram.getValueAtPercentile(99) / 1e3,
+                histogram.getValueAtPercentile(99.9) / 1e3, histogram.getMax() / 1e3);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMeanMicros() {
+        return meanMicros;
+    }
+
+    public double getP50Micros() {
+        return p50Micros;
+    }
+
+    public double getP99Micros() {
+        return p99Micros;
+    }
+
+    public double getP999Micros() {
+        return p999Micros;
+    }
+
+    public double getMaxMicros() {
+        return maxMicros;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.1fus p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                count, meanMicros, p50Micros, p99Micros, p999Micros, maxMicros);
+    }
+}
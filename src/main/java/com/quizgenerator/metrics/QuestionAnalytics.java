@@ -0,0 +1,244 @@
+package com.quizgenerator.metrics;
+
+import com.quizgenerator.model.Question;
+import com.quizgenerator.model.QuestionBank;
+import com.quizgenerator.model.QuizSession;
+import com.quizgenerator.model.SessionListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-question serve, answer, option and response time counts, fed from
+ * session events.
+ *
+ * Counters are primitive atomic arrays indexed by the question's position in
+ * the {@link QuestionBank}, in pages of {@value #PAGE_SIZE} questions that are
+ * allocated when first touched. Like a {@link java.util.concurrent.atomic.LongAdder},
+ * a page starts with a single stripe of counters and doubles its stripes, up to
+ * {@value #MAX_STRIPES}, whenever an update loses a compare-and-set race, so
+ * popular questions spread over several cache lines while a large, evenly used
+ * bank stays at one stripe. Threads pick a stripe by hashing their id.
+ *
+ * Reads sum the stripes without locking. Within one question they read the
+ * option picks before the answer outcomes and the outcomes before the serves,
+ * the reverse of the order they are written in, so a snapshot never shows
+ * more picks than answers or more answers than serves.
+ */
+public class QuestionAnalytics implements SessionListener {
+    /** Options beyond this many per question are not counted */
+    public static final int MAX_TRACKED_OPTIONS = 10;
+
+    private static final int PAGE_BITS = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int MAX_STRIPES = 16;
+
+    private static final int SERVED = 0;
+    private static final int CORRECT = 1;
+    private static final int INCORRECT = 2;
+    private static final int SKIPPED = 3;
+    private static final int TIMED_OUT = 4;
+    private static final int FIRST_OPTION = 6;
+    private static final int STRIDE = 16; // one 64-byte line of ints per question
+
+    private final QuestionBank store;
+    private volatile Page[] pages = new Page[0];
+
+    /**
+     * @param store store the sessions' questions come from
+     */
+    public QuestionAnalytics(QuestionBank store) {
+        this.store = store;
+    }
+
+    @Override
+    public void onSessionCreated(QuizSession session) {
+        if (session.getTotalQuestions() > 0) {
+            served(session.getQuestions().get(0));
+        }
+    }
+
+    @Override
+    public void onAnswerRecorded(QuizSession session, int position, int answer, boolean correct) {
+        List<Question> questions = session.getQuestions();
+        int index = store.indexOfId(questions.get(position).getId());
+        if (index >= 0) {
+            Page page = page(index);
+            int slot = (index & (PAGE_SIZE - 1)) * STRIDE;
+            if (answer >= 0) {
+                page.addResponse(index & (PAGE_SIZE - 1), session.getResponseNanos(position));
+                page.increment(slot + (correct ? CORRECT : INCORRECT));
+                if (answer < MAX_TRACKED_OPTIONS) {
+                    page.increment(slot + FIRST_OPTION + answer);
+                }
+            } else {
+                page.increment(slot + (answer == QuizSession.TIMED_OUT ? TIMED_OUT : SKIPPED));
+            }
+        }
+        if (position + 1 < questions.size()) {
+            served(questions.get(position + 1));
+        }
+    }
+
+    private void served(Question question) {
+        int index = store.indexOfId(question.getId());
+        if (index >= 0) {
+            page(index).increment((index & (PAGE_SIZE - 1)) * STRIDE + SERVED);
+        }
+    }
+
+    /**
+     * Read the statistics of one question without blocking writers
+     * @param questionId question id
+     * @return statistics, or null if the question is not in the store
+     */
+    public QuestionStats getStats(int questionId) {
+        int index = store.indexOfId(questionId);
+        if (index < 0) {
+            return null;
+        }
+        Page[] current = pages;
+        int pageNumber = index >>> PAGE_BITS;
+        Page page = pageNumber < current.length ? current[pageNumber] : null;
+        return read(index, page);
+    }
+
+    /**
+     * Read the statistics of every question served so far, in store order
+     * @return statistics of the served questions
+     */
+    public List<QuestionStats> snapshot() {
+        List<QuestionStats> stats = new ArrayList<>();
+        Page[] current = pages;
+        for (int p = 0; p < current.length; p++) {
+            Page page = current[p];
+            if (page == null) {
+                continue;
+            }
+            int end = Math.min(store.size(), (p + 1) * PAGE_SIZE);
+            for (int index = p * PAGE_SIZE; index < end; index++) {
+                QuestionStats question = read(index, page);
+                if (question.getServed() > 0) {
+                    stats.add(question);
+                }
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Read the counters of a question, re-reading the page's stripes before each
+     * group so counts written to a stripe added meanwhile are not missed
+     */
+    private QuestionStats read(int index, Page page) {
+        int slot = (index & (PAGE_SIZE - 1)) * STRIDE;
+        int options = Math.min(store.getOptionCount(index), MAX_TRACKED_OPTIONS);
+        long[] picks = new long[options];
+        Stripe[] stripes = page != null ? page.stripes : null;
+        for (int option = 0; option < options; option++) {
+            picks[option] = sum(stripes, slot + FIRST_OPTION + option);
+        }
+        long responseNanos = 0;
+        if (stripes != null) {
+            for (Stripe stripe : stripes) {
+                responseNanos += stripe.responseNanos.get(index & (PAGE_SIZE - 1));
+            }
+        }
+        stripes = page != null ? page.stripes : null;
+        long correct = sum(stripes, slot + CORRECT);
+        long incorrect = sum(stripes, slot + INCORRECT);
+        long skipped = sum(stripes, slot + SKIPPED);
+        long timedOut = sum(stripes, slot + TIMED_OUT);
+        stripes = page != null ? page.stripes : null;
+        long served = sum(stripes, slot + SERVED);
+        return new QuestionStats(store.getId(index), served, correct, incorrect, skipped, timedOut, picks,
+                responseNanos);
+    }
+
+    private static long sum(Stripe[] stripes, int slot) {
+        long total = 0;
+        if (stripes != null) {
+            for (Stripe stripe : stripes) {
+                total += stripe.counts.get(slot);
+            }
+        }
+        return total;
+    }
+
+    private Page page(int index) {
+        int pageNumber = index >>> PAGE_BITS;
+        Page[] current = pages;
+        if (pageNumber < current.length && current[pageNumber] != null) {
+            return current[pageNumber];
+        }
+        synchronized (this) {
+            current = pages;
+            if (pageNumber >= current.length) {
+                current = Arrays.copyOf(current, Math.max(pageNumber + 1, current.length * 2));
+            } else if (current[pageNumber] != null) {
+                return current[pageNumber];
+            } else {
+                current = current.clone();
+            }
+            Page page = new Page();
+            current[pageNumber] = page;
+            pages = current;
+            return page;
+        }
+    }
+
+    private static int probe() {
+        long h = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32);
+    }
+
+    private static final class Stripe {
+        final AtomicIntegerArray counts = new AtomicIntegerArray(PAGE_SIZE * STRIDE);
+        final AtomicLongArray responseNanos = new AtomicLongArray(PAGE_SIZE);
+    }
+
+    /**
+     * Counters of {@value #PAGE_SIZE} consecutive questions, striped on contention
+     */
+    private static final class Page {
+        volatile Stripe[] stripes = {new Stripe()};
+
+        void increment(int slot) {
+            Stripe[] current = stripes;
+            AtomicIntegerArray counts = current[probe() & (current.length - 1)].counts;
+            int value = counts.get(slot);
+            if (!counts.compareAndSet(slot, value, value + 1)) {
+                counts.getAndIncrement(slot);
+                expand(current);
+            }
+        }
+
+        void addResponse(int offset, long nanos) {
+            Stripe[] current = stripes;
+            AtomicLongArray sums = current[probe() & (current.length - 1)].responseNanos;
+            long value = sums.get(offset);
+            if (!sums.compareAndSet(offset, value, value + nanos)) {
+                sums.getAndAdd(offset, nanos);
+                expand(current);
+            }
+        }
+
+        private void expand(Stripe[] observed) {
+            if (observed.length >= MAX_STRIPES) {
+                return;
+            }
+            synchronized (this) {
+                if (stripes == observed) {
+                    Stripe[] expanded = Arrays.copyOf(observed, observed.length * 2);
+                    for (int i = observed.length; i < expanded.length; i++) {
+                        expanded[i] = new Stripe();
+                    }
+                    stripes = expanded;
+                }
+            }
+        }
+    }
+}
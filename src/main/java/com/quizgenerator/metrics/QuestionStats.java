@@ -0,0 +1,126 @@
+package com.quizgenerator.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Answer statistics of one question, as read by {@link QuestionAnalytics}
+ */
+public class QuestionStats {
+    private final int questionId;
+    private final long served;
+    private final long correct;
+    private final long incorrect;
+    private final long skipped;
+    private final long timedOut;
+    private final long[] optionPicks;
+    private final long responseNanos;
+
+    QuestionStats(int questionId, long served, long correct, long incorrect, long skipped, long timedOut,
+                  long[] optionPicks, long responseNanos) {
+        this.questionId = questionId;
+        this.served = served;
+        this.correct = correct;
+        this.incorrect = incorrect;
+        this.skipped = skipped;
+        this.timedOut = timedOut;
+        this.optionPicks = optionPicks;
+        this.responseNanos = responseNanos;
+    }
+
+    public int getQuestionId() {
+        return questionId;
+    }
+
+    /**
+     * Get the number of times the question was shown as a session's current question
+     * @return serve count
+     */
+    public long getServed() {
+        return served;
+    }
+
+    public long getCorrect() {
+        return correct;
+    }
+
+    public long getIncorrect() {
+        return incorrect;
+    }
+
+    /**
+     * Get the number of skips, not counting timeouts
+     * @return skip count
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public long getTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * Get the number of submitted answers
+     * @return correct plus incorrect answers
+     */
+    public long getAnswered() {
+        return correct + incorrect;
+    }
+
+    /**
+     * Get how often each option was picked
+     * @param option 0-based option index
+     * @return pick count, 0 for options beyond those tracked
+     */
+    public long getOptionPicks(int option) {
+        return option >= 0 && option < optionPicks.length ? optionPicks[option] : 0;
+    }
+
+    /**
+     * Get the number of options with pick counts
+     * @return option count, capped at {@link QuestionAnalytics#MAX_TRACKED_OPTIONS}
+     */
+    public int getTrackedOptionCount() {
+        return optionPicks.length;
+    }
+
+    /**
+     * Get the share of submitted answers that were correct
+     * @return rate between 0 and 1, 0 if never answered
+     */
+    public double getCorrectRate() {
+        long answered = getAnswered();
+        return answered == 0 ? 0 : (double) correct / answered;
+    }
+
+    /**
+     * Get the share of serves that ended in a timeout
+     * @return rate between 0 and 1, 0 if never served
+     */
+    public double getTimeoutRate() {
+        return served == 0 ? 0 : (double) timedOut / served;
+    }
+
+    /**
+     * Get the mean time from serving the question to a submitted answer
+     * @return mean response time in milliseconds, 0 if never answered
+     */
+    public double getMeanResponseMillis() {
+        long answered = getAnswered();
+        return answered == 0 ? 0 : responseNanos / 1e6 / answered;
+    }
+
+    @Override
+    public String toString() {
+        return "QuestionStats{" +
+                "questionId=" + questionId +
+                ", served=" + served +
+                ", correct=" + correct +
+                ", incorrect=" + incorrect +
+                ", skipped=" + skipped +
+                ", timedOut=" + timedOut +
+                ", optionPicks=" + Arrays.toString(optionPicks) +
+                ", meanResponseMillis=" + getMeanResponseMillis() +
+                '}';
+    }
+}
@@ -0,0 +1,197 @@
+package com.quizgenerator.metrics;
+
+import com.quizgenerator.model.QuizSession;
+import com.quizgenerator.model.SessionListener;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and counters for the quiz services.
+ *
+ * Counters are {@link LongAdder}s fed from session events, so registering the
+ * metrics as a {@link SessionListener} is enough to count sessions, answers and
+ * timeouts. Latencies are recorded by the services that own the timed operations.
+ * Recording never locks or allocates. Call {@link #register(String)} to publish
+ * the metrics on the platform MBean server.
+ */
+public class QuizMetrics implements QuizMetricsMXBean, SessionListener {
+    public static final String DEFAULT_OBJECT_NAME = "com.quizgenerator:type=QuizMetrics";
+
+    private final LatencyHistogram createSessionLatency = new LatencyHistogram();
+    private final LatencyHistogram createSessionsLatency = new LatencyHistogram();
+    private final LatencyHistogram randomQuestionsLatency = new LatencyHistogram();
+    private final LatencyHistogram submitAnswerLatency = new LatencyHistogram();
+    private final LatencyHistogram timerLatency = new LatencyHistogram();
+
+    private final LongAdder sessionsCreated = new LongAdder();
+    private final LongAdder sessionsActive = new LongAdder();
+    private final LongAdder sessionsCompleted = new LongAdder();
+    private final LongAdder answersSubmitted = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    private ObjectName objectName;
+
+    /**
+     * Publish these metrics on the platform MBean server
+     * @param name JMX object name, e.g. {@link #DEFAULT_OBJECT_NAME}
+     * @throws JMException if the name is invalid or already registered
+     */
+    public synchronized void register(String name) throws JMException {
+        ObjectName objectName = new ObjectName(name);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        this.objectName = objectName;
+    }
+
+    /**
+     * Remove these metrics from the platform MBean server, if registered
+     * @throws JMException if unregistering fails
+     */
+    public synchronized void unregister() throws JMException {
+        if (objectName != null) {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            objectName = null;
+        }
+    }
+
+    public void recordCreateSession(long startNanos) {
+        createSessionLatency.recordSince(startNanos);
+    }
+
+    /**
+     * Record the creation of a batch of sessions
+     * @param startNanos {@link System#nanoTime()} at which the batch was started
+     */
+    public void recordCreateSessions(long startNanos) {
+        createSessionsLatency.recordSince(startNanos);
+    }
+
+    public void recordRandomQuestions(long startNanos) {
+        randomQuestionsLatency.recordSince(startNanos);
+    }
+
+    public void recordSubmitAnswer(long startNanos) {
+        submitAnswerLatency.recordSince(startNanos);
+    }
+
+    /**
+     * Record a handled timeout
+     * @param deadlineNanos {@link System#nanoTime()} at which the question was due to time out
+     */
+    public void recordTimerExpiry(long deadlineNanos) {
+        timerLatency.recordSince(deadlineNanos);
+    }
+
+    /**
+     * Count a session restored from persisted state as active
+     * @param session restored session
+     */
+    public void onSessionRecovered(QuizSession session) {
+        if (!session.isCompleted()) {
+            sessionsActive.increment();
+        }
+    }
+
+    /**
+     * Stop counting a session that left the registry before it completed, e.g.
+     * evicted for idleness or by the size cap
+     * @param session removed session
+     */
+    public void onSessionRemoved(QuizSession session) {
+        if (!session.isCompleted() && session.retire()) {
+            sessionsActive.decrement();
+        }
+    }
+
+    @Override
+    public void onSessionCreated(QuizSession session) {
+        sessionsCreated.increment();
+        sessionsActive.increment();
+    }
+
+    @Override
+    public void onAnswerRecorded(QuizSession session, int position, int answer, boolean correct) {
+        if (answer >= 0) {
+            answersSubmitted.increment();
+        } else if (answer == QuizSession.TIMED_OUT) {
+            timeouts.increment();
+        }
+    }
+
+    @Override
+    public void onSessionCompleted(QuizSession session) {
+        sessionsCompleted.increment();
+        if (session.retire()) {
+            sessionsActive.decrement();
+        }
+    }
+
+    @Override
+    public long getSessionsCreated() {
+        return sessionsCreated.sum();
+    }
+
+    /**
+     * Sessions created or recovered that have neither completed nor been evicted
+     * or removed from the registry
+     */
+    @Override
+    public long getSessionsActive() {
+        return sessionsActive.sum();
+    }
+
+    @Override
+    public long getSessionsCompleted() {
+        return sessionsCompleted.sum();
+    }
+
+    @Override
+    public long getAnswersSubmitted() {
+        return answersSubmitted.sum();
+    }
+
+    @Override
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    @Override
+    public LatencySummary getCreateSessionLatency() {
+        return LatencySummary.of(createSessionLatency);
+    }
+
+    @Override
+    public LatencySummary getCreateSessionsLatency() {
+        return LatencySummary.of(createSessionsLatency);
+    }
+
+    @Override
+    public LatencySummary getRandomQuestionsLatency() {
+        return LatencySummary.of(randomQuestionsLatency);
+    }
+
+    @Override
+    public LatencySummary getSubmitAnswerLatency() {
+        return LatencySummary.of(submitAnswerLatency);
+    }
+
+    @Override
+    public LatencySummary getTimerLatency() {
+        return LatencySummary.of(timerLatency);
+    }
+
+    @Override
+    public void resetLatencies() {
+        createSessionLatency.reset();
+        createSessionsLatency.reset();
+        randomQuestionsLatency.reset();
+        submitAnswerLatency.reset();
+        timerLatency.reset();
+    }
+}
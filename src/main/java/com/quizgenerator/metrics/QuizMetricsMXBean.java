@@ -0,0 +1,39 @@
+package com.quizgenerator.metrics;
+
+/**
+ * JMX view of {@link QuizMetrics}, readable with jconsole or any JMX client
+ */
+public interface QuizMetricsMXBean {
+    long getSessionsCreated();
+
+    long getSessionsActive();
+
+    long getSessionsCompleted();
+
+    long getAnswersSubmitted();
+
+    long getTimeouts();
+
+    LatencySummary getCreateSessionLatency();
+
+    /**
+     * Time to create a whole batch of sessions with {@code createQuizSessions}
+     * @return batch creation summary
+     */
+    LatencySummary getCreateSessionsLatency();
+
+    LatencySummary getRandomQuestionsLatency();
+
+    LatencySummary getSubmitAnswerLatency();
+
+    /**
+     * Time from a question's deadline until its timeout was handled
+     * @return timer lateness summary
+     */
+    LatencySummary getTimerLatency();
+
+    /**
+     * Clear the latency histograms; counters keep running
+     */
+    void resetLatencies();
+}
@@ -0,0 +1,161 @@
+package com.quizgenerator.model;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Read-only {@link Question} view over one row of a bank
+ */
+final class BankQuestion extends Question {
+    private final QuestionBank bank;
+    private final int index;
+
+    BankQuestion(QuestionBank bank, int index) {
+        this.bank = bank;
+        this.index = index;
+    }
+
+    @Override
+    public int getId() {
+        return bank.getId(index);
+    }
+
+    @Override
+    public String getQuestion() {
+        return bank.getQuestionText(index);
+    }
+
+    @Override
+    public List<String> getOptions() {
+        return new OptionList(bank, index);
+    }
+
+    @Override
+    public int getCorrectAnswer() {
+        return bank.getCorrectAnswer(index);
+    }
+
+    @Override
+    public int getTimeLimit() {
+        return bank.getTimeLimit(index);
+    }
+
+    @Override
+    public String getCategory() {
+        return bank.getCategory(index);
+    }
+
+    @Override
+    public String getDifficulty() {
+        return bank.getDifficulty(index);
+    }
+
+    @Override
+    public String getLanguage() {
+        return bank.getLanguage(index);
+    }
+
+    @Override
+    public boolean isCorrect(int selectedAnswer) {
+        return selectedAnswer == bank.getCorrectAnswer(index);
+    }
+
+    @Override
+    public void setId(int id) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setQuestion(String question) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setOptions(List<String> options) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setCorrectAnswer(int correctAnswer) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setTimeLimit(int timeLimit) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setCategory(String category) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setDifficulty(String difficulty) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setLanguage(String language) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BankQuestion)) {
+            return false;
+        }
+        BankQuestion other = (BankQuestion) o;
+        return bank == other.bank && index == other.index;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(bank) * 31 + index;
+    }
+
+    @Override
+    public String toString() {
+        return "Question{" +
+                "id=" + getId() +
+                ", question='" + getQuestion() + '\'' +
+                ", options=" + getOptions() +
+                ", correctAnswer=" + getCorrectAnswer() +
+                ", timeLimit=" + getTimeLimit() +
+                ", category=" + getCategory() +
+                ", difficulty=" + getDifficulty() +
+                ", language=" + getLanguage() +
+                '}';
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Bank questions are read-only");
+    }
+
+    /**
+     * Options of a stored question, decoded on access
+     */
+    private static final class OptionList extends AbstractList<String> implements RandomAccess {
+        private final QuestionBank bank;
+        private final int index;
+
+        OptionList(QuestionBank bank, int index) {
+            this.bank = bank;
+            this.index = index;
+        }
+
+        @Override
+        public String get(int option) {
+            return bank.getOption(index, option);
+        }
+
+        @Override
+        public int size() {
+            return bank.getOptionCount(index);
+        }
+    }
+}
@@ -0,0 +1,609 @@
+package com.quizgenerator.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Read-only question bank served straight from a memory-mapped binary image.
+ *
+ * Layout, all integers big-endian:
+ * <ul>
+ *   <li>a {@value #HEADER_SIZE}-byte header: magic, format version, counts, the
+ *   offset and length of every section, a CRC32C of everything after the header
+ *   and a CRC32C of the header itself</li>
+ *   <li>string heap: every distinct text once, as a varint byte length and UTF-8</li>
+ *   <li>index: one fixed-width {@value #RECORD_SIZE}-byte record per question with
+ *   its id, correct answer, time limit, first option and option count, and heap
+ *   offsets of its text and tags ({@code -1} when a tag is not set)</li>
+ *   <li>option table: the heap offset of every option, in question order</li>
+ *   <li>id table: open addressing from question id to index + 1</li>
+ *   <li>tag table: per tag type and value, the sorted indices of its questions</li>
+ * </ul>
+ *
+ * Opening an image maps it and checks the header, so startup costs the same for
+ * ten questions as for ten million; questions are decoded field by field when
+ * read, like {@link QuestionStore}. The mapping is read-only and backed by the
+ * page cache, so processes on the same host that open the same image share its
+ * pages. The body checksum is only checked by {@link #verify()}, which reads the
+ * whole file.
+ */
+public class MappedQuestionBank implements QuestionBank {
+    private static final int MAGIC = 0x5142494D; // "QBIM"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 128;
+    private static final int HEADER_CHECKED_BYTES = 96;
+    private static final int RECORD_SIZE = 32;
+    private static final int TAG_ENTRY_SIZE = 16;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    // Record field offsets
+    private static final int ID = 0;
+    private static final int TEXT = 4;
+    private static final int FIRST_OPTION = 8;
+    private static final int OPTION_COUNT = 12;
+    private static final int CORRECT_ANSWER = 14;
+    private static final int TIME_LIMIT = 16;
+    private static final int CATEGORY = 20;
+    private static final int DIFFICULTY = 24;
+    private static final int LANGUAGE = 28;
+
+    /**
+     * Tag types whose values are indexed in the image
+     */
+    public enum TagType {
+        CATEGORY, DIFFICULTY, LANGUAGE
+    }
+
+    private static final int TAG_TYPES = TagType.values().length;
+
+    private final Path path;
+    private final int size;
+    private final int idTableSlots;
+    private final long fileLength;
+    private final int bodyChecksum;
+    private final ByteBuffer heap;
+    private final ByteBuffer index;
+    private final ByteBuffer options;
+    private final ByteBuffer idTable;
+    private final ByteBuffer tags;
+    private final int tagEntries;
+
+    private MappedQuestionBank(Path path, FileChannel channel) throws IOException {
+        this.path = path;
+        long length = channel.size();
+        if (length < HEADER_SIZE) {
+            throw new IOException("Not a question bank image: " + path);
+        }
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("Not a question bank image: " + path);
+        }
+        if (header.getInt(4) != VERSION) {
+            throw new IOException("Unsupported question bank image version " + header.getInt(4) + ": " + path);
+        }
+        if (header.getInt(HEADER_CHECKED_BYTES) != checksum(header, 0, HEADER_CHECKED_BYTES)) {
+            throw new IOException("Corrupt question bank image header: " + path);
+        }
+        this.size = header.getInt(8);
+        int optionTotal = header.getInt(12);
+        this.idTableSlots = header.getInt(16);
+        this.tagEntries = header.getInt(20);
+        this.fileLength = header.getLong(80);
+        this.bodyChecksum = (int) header.getLong(88);
+        if (fileLength != length || Integer.bitCount(idTableSlots) != 1) {
+            throw new IOException("Truncated question bank image: " + path);
+        }
+        this.heap = map(channel, header.getLong(24), header.getLong(32));
+        this.index = map(channel, header.getLong(40), (long) size * RECORD_SIZE);
+        this.options = map(channel, header.getLong(48), (long) optionTotal * Integer.BYTES);
+        this.idTable = map(channel, header.getLong(56), (long) idTableSlots * Integer.BYTES);
+        this.tags = map(channel, header.getLong(64), header.getLong(72));
+    }
+
+    private MappedByteBuffer map(FileChannel channel, long offset, long length) throws IOException {
+        if (offset < HEADER_SIZE || length < 0 || length > Integer.MAX_VALUE || offset + length > fileLength) {
+            throw new IOException("Corrupt question bank image layout: " + path);
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+    }
+
+    /**
+     * Map a bank image. The mapping stays valid after the file is closed.
+     * @param path image file
+     * @return the mapped bank
+     * @throws IOException if the file cannot be read, is not an image or has an unsupported version
+     */
+    public static MappedQuestionBank open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new MappedQuestionBank(path, channel);
+        }
+    }
+
+    /**
+     * Check whether a file starts like a bank image
+     * @param path file to check
+     * @return true if the file carries the image magic number
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isImage(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // keep reading until the magic number is complete or the file ends
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Read the whole image and compare it with the checksum recorded when it was written
+     * @throws IOException if the image cannot be read or its contents do not match
+     */
+    public void verify() throws IOException {
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+            long position = HEADER_SIZE;
+            while (position < fileLength) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                buffer.flip();
+                crc.update(buffer);
+                position += read;
+            }
+            if (position != fileLength || (int) crc.getValue() != bodyChecksum) {
+                throw new IOException("Question bank image checksum mismatch: " + path);
+            }
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Question get(int index) {
+        checkIndex(index);
+        return new BankQuestion(this, index);
+    }
+
+    @Override
+    public int indexOfId(int id) {
+        int mask = idTableSlots - 1;
+        for (int slot = mixId(id) & mask; ; slot = (slot + 1) & mask) {
+            int entry = idTable.getInt(slot * Integer.BYTES);
+            if (entry == 0) {
+                return -1;
+            }
+            if (index.getInt((entry - 1) * RECORD_SIZE + ID) == id) {
+                return entry - 1;
+            }
+        }
+    }
+
+    @Override
+    public int getId(int index) {
+        return field(index, ID);
+    }
+
+    @Override
+    public int getCorrectAnswer(int index) {
+        checkIndex(index);
+        return this.index.getShort(index * RECORD_SIZE + CORRECT_ANSWER);
+    }
+
+    @Override
+    public int getTimeLimit(int index) {
+        return field(index, TIME_LIMIT);
+    }
+
+    @Override
+    public String getQuestionText(int index) {
+        return string(field(index, TEXT));
+    }
+
+    @Override
+    public int getOptionCount(int index) {
+        checkIndex(index);
+        return this.index.getShort(index * RECORD_SIZE + OPTION_COUNT) & 0xFFFF;
+    }
+
+    @Override
+    public String getOption(int index, int option) {
+        int count = getOptionCount(index);
+        if (option < 0 || option >= count) {
+            throw new IndexOutOfBoundsException("Option " + option + " of question at " + index);
+        }
+        int first = this.index.getInt(index * RECORD_SIZE + FIRST_OPTION);
+        return string(options.getInt((first + option) * Integer.BYTES));
+    }
+
+    @Override
+    public String getCategory(int index) {
+        return string(field(index, CATEGORY));
+    }
+
+    @Override
+    public String getDifficulty(int index) {
+        return string(field(index, DIFFICULTY));
+    }
+
+    @Override
+    public String getLanguage(int index) {
+        return string(field(index, LANGUAGE));
+    }
+
+    /**
+     * Get the values of a tag type present in the image, as written
+     * @param type tag type
+     * @return distinct tag values
+     */
+    public List<String> getTagValues(TagType type) {
+        List<String> values = new ArrayList<>();
+        for (int entry = 0; entry < tagEntries; entry++) {
+            if (tags.getInt(entry * TAG_ENTRY_SIZE) == type.ordinal()) {
+                values.add(string(tags.getInt(entry * TAG_ENTRY_SIZE + 4)));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Get the questions carrying a tag value, without reading their records
+     * @param type tag type
+     * @param value tag value, exactly as returned by {@link #getTagValues(TagType)}
+     * @return increasing question indices, empty if no question has the value
+     */
+    public int[] getTaggedIndices(TagType type, String value) {
+        for (int entry = 0; entry < tagEntries; entry++) {
+            int p = entry * TAG_ENTRY_SIZE;
+            if (tags.getInt(p) == type.ordinal() && value.equals(string(tags.getInt(p + 4)))) {
+                int start = tagEntries * TAG_ENTRY_SIZE + tags.getInt(p + 8) * Integer.BYTES;
+                int[] indices = new int[tags.getInt(p + 12)];
+                for (int i = 0; i < indices.length; i++) {
+                    indices[i] = tags.getInt(start + i * Integer.BYTES);
+                }
+                return indices;
+            }
+        }
+        return new int[0];
+    }
+
+    private int field(int index, int offset) {
+        checkIndex(index);
+        return this.index.getInt(index * RECORD_SIZE + offset);
+    }
+
+    private String string(int offset) {
+        if (offset < 0) {
+            return null;
+        }
+        int length = 0;
+        int shift = 0;
+        int p = offset;
+        byte b;
+        do {
+            b = heap.get(p++);
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = heap.get(p + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Question index " + index + " out of bounds for " + size);
+        }
+    }
+
+    private static int mixId(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int checksum(ByteBuffer buffer, int from, int to) {
+        CRC32C crc = new CRC32C();
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(from).limit(to);
+        crc.update(slice);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Write a bank as an image. The file is written next to the target and moved
+     * into place once complete, so readers never see a partial image.
+     * @param source questions to write, in order
+     * @param path image file, replaced if it exists
+     * @throws IOException if the image cannot be written
+     */
+    public static void write(QuestionBank source, Path path) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            new Writer(channel, source).write();
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Streams the sections of an image through one buffer, then fills in the header
+     */
+    private static final class Writer {
+        private final FileChannel channel;
+        private final QuestionBank source;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+        private final Map<String, Integer> heapOffsets;
+        private final CRC32C crc = new CRC32C();
+        private long position = HEADER_SIZE;
+        private long heapLength;
+
+        Writer(FileChannel channel, QuestionBank source) {
+            this.channel = channel;
+            this.source = source;
+            this.heapOffsets = new HashMap<>(Math.max(16, source.size() * 2));
+        }
+
+        void write() throws IOException {
+            int size = source.size();
+            if ((long) size * RECORD_SIZE > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Bank too large for one image: " + size + " questions");
+            }
+            // The heap goes first, so every text is decoded once and the other
+            // sections are written from the heap offsets remembered here
+            long heapOffset = position;
+            int[] textRefs = new int[size];
+            int[] tagRefs = new int[size * TAG_TYPES];
+            IndexList optionRefs = new IndexList();
+            for (int i = 0; i < size; i++) {
+                textRefs[i] = intern(source.getQuestionText(i));
+                int options = source.getOptionCount(i);
+                if (options > 0xFFFF) {
+                    throw new IllegalArgumentException("Question " + source.getId(i) + " has too many options");
+                }
+                if (optionRefs.size > Integer.MAX_VALUE / Integer.BYTES - options) {
+                    throw new IllegalArgumentException("Bank too large for one image: too many options");
+                }
+                for (int option = 0; option < options; option++) {
+                    optionRefs.add(intern(source.getOption(i, option)));
+                }
+                tagRefs[i * TAG_TYPES] = intern(source.getCategory(i));
+                tagRefs[i * TAG_TYPES + 1] = intern(source.getDifficulty(i));
+                tagRefs[i * TAG_TYPES + 2] = intern(source.getLanguage(i));
+            }
+            heapOffsets.clear();
+            align();
+
+            long indexOffset = position;
+            int firstOption = 0;
+            for (int i = 0; i < size; i++) {
+                int options = source.getOptionCount(i);
+                int correct = source.getCorrectAnswer(i);
+                if (correct < Short.MIN_VALUE || correct > Short.MAX_VALUE) {
+                    throw new IllegalArgumentException("Question " + source.getId(i) + " has an unstorable answer index");
+                }
+                reserve(RECORD_SIZE);
+                buffer.putInt(source.getId(i))
+                        .putInt(textRefs[i])
+                        .putInt(firstOption)
+                        .putShort((short) options)
+                        .putShort((short) correct)
+                        .putInt(source.getTimeLimit(i))
+                        .putInt(tagRefs[i * TAG_TYPES])
+                        .putInt(tagRefs[i * TAG_TYPES + 1])
+                        .putInt(tagRefs[i * TAG_TYPES + 2]);
+                position += RECORD_SIZE;
+                firstOption += options;
+            }
+
+            long optionOffset = position;
+            for (int i = 0; i < optionRefs.size; i++) {
+                putInt(optionRefs.values[i]);
+            }
+
+            long idTableOffset = position;
+            int slots = Integer.highestOneBit(Math.max(2, size * 2 - 1)) << 1;
+            for (int entry : idTable(slots)) {
+                putInt(entry);
+            }
+
+            long tagOffset = position;
+            int tagEntries = writeTags(tagRefs);
+            long end = position;
+            flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(0, MAGIC)
+                    .putInt(4, VERSION)
+                    .putInt(8, size)
+                    .putInt(12, optionRefs.size)
+                    .putInt(16, slots)
+                    .putInt(20, tagEntries)
+                    .putLong(24, heapOffset)
+                    .putLong(32, heapLength)
+                    .putLong(40, indexOffset)
+                    .putLong(48, optionOffset)
+                    .putLong(56, idTableOffset)
+                    .putLong(64, tagOffset)
+                    .putLong(72, end - tagOffset)
+                    .putLong(80, end)
+                    .putLong(88, crc.getValue() & 0xFFFFFFFFL);
+            header.putInt(HEADER_CHECKED_BYTES, checksum(header, 0, HEADER_CHECKED_BYTES));
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+
+        /**
+         * Append a text to the heap unless it is already there
+         * @return heap offset of the text, or -1 for null
+         */
+        private int intern(String text) throws IOException {
+            if (text == null) {
+                return -1;
+            }
+            Integer known = heapOffsets.get(text);
+            if (known != null) {
+                return known;
+            }
+            if (heapLength > Integer.MAX_VALUE - 5L - text.length() * 3L) {
+                throw new IllegalArgumentException("Bank text too large for one image");
+            }
+            int ref = (int) heapLength;
+            heapOffsets.put(text, ref);
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            int length = bytes.length;
+            reserve(5);
+            int start = buffer.position();
+            while ((length & ~0x7F) != 0) {
+                buffer.put((byte) ((length & 0x7F) | 0x80));
+                length >>>= 7;
+            }
+            buffer.put((byte) length);
+            int header = buffer.position() - start;
+            position += header;
+            heapLength += header;
+            for (int offset = 0; offset < bytes.length; ) {
+                reserve(1);
+                int chunk = Math.min(bytes.length - offset, buffer.remaining());
+                buffer.put(bytes, offset, chunk);
+                offset += chunk;
+                position += chunk;
+            }
+            heapLength += bytes.length;
+            return ref;
+        }
+
+        private int[] idTable(int slots) {
+            int[] table = new int[slots];
+            int mask = slots - 1;
+            int size = source.size();
+            for (int i = 0; i < size; i++) {
+                int id = source.getId(i);
+                int slot = mixId(id) & mask;
+                boolean duplicate = false;
+                while (table[slot] != 0) {
+                    if (source.getId(table[slot] - 1) == id) {
+                        duplicate = true; // keep the first question with this id
+                        break;
+                    }
+                    slot = (slot + 1) & mask;
+                }
+                if (!duplicate) {
+                    table[slot] = i + 1;
+                }
+            }
+            return table;
+        }
+
+        /**
+         * Write the tag table: fixed-width entries of (type, value, first posting,
+         * posting count), then the postings of every entry in turn
+         */
+        private int writeTags(int[] tagRefs) throws IOException {
+            List<Map<Integer, IndexList>> byType = new ArrayList<>();
+            for (TagType type : TagType.values()) {
+                byType.add(new LinkedHashMap<>());
+            }
+            for (int i = 0; i < tagRefs.length; i++) {
+                if (tagRefs[i] >= 0) {
+                    byType.get(i % TAG_TYPES).computeIfAbsent(tagRefs[i], ref -> new IndexList()).add(i / TAG_TYPES);
+                }
+            }
+            int entries = 0;
+            int postings = 0;
+            for (TagType type : TagType.values()) {
+                for (Map.Entry<Integer, IndexList> entry : byType.get(type.ordinal()).entrySet()) {
+                    putInt(type.ordinal());
+                    putInt(entry.getKey());
+                    putInt(postings);
+                    putInt(entry.getValue().size);
+                    postings += entry.getValue().size;
+                    entries++;
+                }
+            }
+            for (Map<Integer, IndexList> values : byType) {
+                for (IndexList list : values.values()) {
+                    for (int i = 0; i < list.size; i++) {
+                        putInt(list.values[i]);
+                    }
+                }
+            }
+            return entries;
+        }
+
+        private void putInt(int value) throws IOException {
+            reserve(Integer.BYTES);
+            buffer.putInt(value);
+            position += Integer.BYTES;
+        }
+
+        /**
+         * Pad to an 8-byte boundary so the fixed-width sections start aligned
+         */
+        private void align() throws IOException {
+            while ((position & 7) != 0) {
+                reserve(1);
+                buffer.put((byte) 0);
+                position++;
+            }
+        }
+
+        private void reserve(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            long offset = position - buffer.remaining();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                offset += channel.write(buffer, offset);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Growable list of increasing question indices
+     */
+    private static final class IndexList {
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.quizgenerator.model;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Option orders encoded as Lehmer codes: the permutation of {@code n} options
+ * is a number below {@code n!} whose factorial-base digits say, position by
+ * position, which of the options not yet placed comes next. Up to
+ * {@value #MAX_OPTIONS} options fit in 16 bits, so a session keeps one
+ * {@code char} per question. Code 0 is the canonical order.
+ *
+ * Decoding walks the digits with a bit mask of placed options and allocates
+ * nothing; at most {@value #MAX_OPTIONS} steps per lookup.
+ */
+final class OptionPermutation {
+    /** Questions with more options are shown in canonical order */
+    static final int MAX_OPTIONS = 8;
+
+    private static final int[] FACTORIALS = {1, 1, 2, 6, 24, 120, 720, 5040, 40320};
+
+    private OptionPermutation() {
+    }
+
+    /**
+     * Draw a uniformly random order
+     * @param optionCount number of options of the question
+     * @return Lehmer code, 0 if the question has too many options to shuffle
+     */
+    static char random(int optionCount) {
+        if (optionCount < 2 || optionCount > MAX_OPTIONS) {
+            return 0;
+        }
+        return (char) ThreadLocalRandom.current().nextInt(FACTORIALS[optionCount]);
+    }
+
+    /**
+     * Map a displayed position to the canonical option index
+     * @param code Lehmer code
+     * @param optionCount number of options
+     * @param displayed position the option is shown at
+     * @return canonical option index
+     */
+    static int toCanonical(int code, int optionCount, int displayed) {
+        if (code == 0 || optionCount > MAX_OPTIONS || displayed < 0 || displayed >= optionCount) {
+            return displayed;
+        }
+        int placed = 0;
+        int option = -1;
+        for (int position = 0; position <= displayed; position++) {
+            int remaining = optionCount - position;
+            int digit = code / FACTORIALS[remaining - 1] % remaining;
+            option = nthUnplaced(placed, digit);
+            placed |= 1 << option;
+        }
+        return option;
+    }
+
+    /**
+     * Map a canonical option index to the position it is displayed at
+     * @param code Lehmer code
+     * @param optionCount number of options
+     * @param canonical canonical option index
+     * @return displayed position
+     */
+    static int toDisplayed(int code, int optionCount, int canonical) {
+        if (code == 0 || optionCount > MAX_OPTIONS || canonical < 0 || canonical >= optionCount) {
+            return canonical;
+        }
+        int placed = 0;
+        for (int position = 0; position < optionCount; position++) {
+            int remaining = optionCount - position;
+            int digit = code / FACTORIALS[remaining - 1] % remaining;
+            int option = nthUnplaced(placed, digit);
+            if (option == canonical) {
+                return position;
+            }
+            placed |= 1 << option;
+        }
+        return canonical;
+    }
+
+    /**
+     * Get a question's options in display order, as a view over the original list
+     */
+    static List<String> view(List<String> options, int code) {
+        return code == 0 ? options : new Permuted(options, code);
+    }
+
+    private static int nthUnplaced(int placed, int n) {
+        int free = ~placed;
+        for (int i = 0; i < n; i++) {
+            free &= free - 1;
+        }
+        return Integer.numberOfTrailingZeros(free);
+    }
+
+    private static final class Permuted extends AbstractList<String> implements RandomAccess {
+        private final List<String> options;
+        private final int code;
+
+        Permuted(List<String> options, int code) {
+            this.options = options;
+            this.code = code;
+        }
+
+        @Override
+        public String get(int position) {
+            int size = options.size();
+            if (position < 0 || position >= size) {
+                throw new IndexOutOfBoundsException("Option " + position + " of " + size);
+            }
+            return options.get(toCanonical(code, size, position));
+        }
+
+        @Override
+        public int size() {
+            return options.size();
+        }
+    }
+}
@@ -3,7 +3,8 @@ package com.quizgenerator.model;
 import java.util.List;
 
 /**
- * Represents a quiz question with multiple choice options
+ * Represents a quiz question with multiple choice options.
+ * Category, difficulty and language tags are optional and null when not set.
  */
 public class Question {
     private int id;
@@ -11,6 +12,9 @@ public class Question {
     private List<String> options;
     private int correctAnswer;
     private int timeLimit;
+    private String category;
+    private String difficulty;
+    private String language;
 
     // Default constructor for JSON deserialization
     public Question() {}
@@ -23,6 +27,14 @@ public class Question {
         this.timeLimit = timeLimit;
     }
 
+    public Question(int id, String question, List<String> options, int correctAnswer, int timeLimit,
+                    String category, String difficulty, String language) {
+        this(id, question, options, correctAnswer, timeLimit);
+        this.category = category;
+        this.difficulty = difficulty;
+        this.language = language;
+    }
+
     // Getters and Setters
     public int getId() {
         return id;
@@ -64,6 +76,30 @@ public class Question {
         this.timeLimit = timeLimit;
     }
 
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(String difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public void setLanguage(String language) {
+        this.language = language;
+    }
+
     /**
      * Check if the given answer is correct
      * @param selectedAnswer the selected answer index (0-based)
@@ -81,6 +117,9 @@ public class Question {
                 ", options=" + options +
                 ", correctAnswer=" + correctAnswer +
                 ", timeLimit=" + timeLimit +
+                ", category=" + category +
+                ", difficulty=" + difficulty +
+                ", language=" + language +
                 '}';
     }
 }
@@ -0,0 +1,50 @@
+package com.quizgenerator.model;
+
+/**
+ * Read access to a bank of questions by position, 0 to {@link #size()} - 1.
+ * Positions are stable: a bank may grow at the end, but never reorders.
+ */
+public interface QuestionBank {
+    /**
+     * Get the number of questions
+     * @return question count
+     */
+    int size();
+
+    /**
+     * Get a read-only view of the question at the given index
+     * @param index position in the bank
+     * @return question view
+     */
+    Question get(int index);
+
+    /**
+     * Find a question by id. When several questions share an id, the first one wins.
+     * @param id question id
+     * @return index of the question, or -1 if there is none
+     */
+    int indexOfId(int id);
+
+    int getId(int index);
+
+    int getCorrectAnswer(int index);
+
+    int getTimeLimit(int index);
+
+    String getQuestionText(int index);
+
+    int getOptionCount(int index);
+
+    String getOption(int index, int option);
+
+    /**
+     * Get the category tag of a question
+     * @param index position in the bank
+     * @return category, or null if not set
+     */
+    String getCategory(int index);
+
+    String getDifficulty(int index);
+
+    String getLanguage(int index);
+}
@@ -0,0 +1,22 @@
+package com.quizgenerator.model;
+
+/**
+ * Picks the questions of an adaptive {@link QuizSession} one at a time. Each
+ * session has its own selector, called under the session's monitor.
+ */
+public interface QuestionSelector {
+    /**
+     * Pick the first question
+     * @return question, or null if none is available
+     */
+    Question first();
+
+    /**
+     * Take the outcome of the last question into account and pick the next one
+     * @param answered question that was just answered, skipped or timed out
+     * @param answer selected option index, {@link QuizSession#SKIPPED} or {@link QuizSession#TIMED_OUT}
+     * @param correct whether the answer was correct
+     * @return next question, or null if none is available
+     */
+    Question next(Question answered, int answer, boolean correct);
+}
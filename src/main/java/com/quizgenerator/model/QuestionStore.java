@@ -0,0 +1,349 @@
+package com.quizgenerator.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Compact, columnar storage for a question bank.
+ *
+ * Instead of one {@link Question} object (plus an options list and a String per
+ * option) per entry, every field lives in a primitive column indexed by the
+ * question's position in the store:
+ * <ul>
+ *   <li>{@code ids}, {@code correctAnswers}, {@code timeLimits}: one int per question</li>
+ *   <li>{@code textRefs}: reference into the string pool for the question text</li>
+ *   <li>{@code optionStarts}/{@code optionRefs}: offset table into a flat array of
+ *   option references</li>
+ *   <li>{@code categoryRefs}, {@code difficultyRefs}, {@code languageRefs}: pooled tags,
+ *   {@code -1} when a tag is not set</li>
+ * </ul>
+ * An open-addressing table maps question ids back to indices.
+ * All text is kept once as UTF-8 in a deduplicated {@link StringPool}, so common
+ * answers such as "5" or "1945" are shared by every question that uses them.
+ *
+ * The store is append-only. Writers are serialized; readers never lock and see
+ * every question added before the latest publish, through an immutable
+ * {@link Columns} snapshot. {@link #get(int)} returns a lightweight read-only
+ * {@link Question} view that decodes fields on access.
+ */
+public class QuestionStore implements QuestionBank {
+    private static final int DEFAULT_CAPACITY = 64;
+
+    // Writer-side state, guarded by "this"
+    private int[] ids;
+    private int[] correctAnswers;
+    private int[] timeLimits;
+    private int[] textRefs;
+    private int[] optionStarts; // optionStarts[i]..optionStarts[i + 1] are question i's options
+    private int[] optionRefs;
+    private int[] categoryRefs;
+    private int[] difficultyRefs;
+    private int[] languageRefs;
+    private int optionCount;
+    private int count;
+    private int[] idTable; // open addressing: question index + 1 per slot, 0 when empty
+    private final StringPool pool;
+
+    // Reader-side state
+    private volatile Columns columns;
+
+    public QuestionStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a store sized for the expected number of questions
+     * @param expectedQuestions initial capacity
+     */
+    public QuestionStore(int expectedQuestions) {
+        int capacity = Math.max(1, expectedQuestions);
+        this.ids = new int[capacity];
+        this.correctAnswers = new int[capacity];
+        this.timeLimits = new int[capacity];
+        this.textRefs = new int[capacity];
+        this.optionStarts = new int[capacity + 1];
+        this.optionRefs = new int[capacity * 4];
+        this.categoryRefs = new int[capacity];
+        this.difficultyRefs = new int[capacity];
+        this.languageRefs = new int[capacity];
+        this.idTable = new int[tableSizeFor(capacity)];
+        this.pool = new StringPool(capacity);
+        publish();
+    }
+
+    /**
+     * Append a question
+     * @param question question to copy into the store
+     * @return index of the stored question
+     */
+    public synchronized int add(Question question) {
+        int index = append(question);
+        publish();
+        return index;
+    }
+
+    /**
+     * Append a batch of questions, publishing them to readers once
+     * @param questions questions to copy into the store
+     */
+    public synchronized void addAll(Collection<Question> questions) {
+        for (Question question : questions) {
+            append(question);
+        }
+        publish();
+    }
+
+    /**
+     * Get the number of stored questions
+     * @return question count
+     */
+    @Override
+    public int size() {
+        return columns.size;
+    }
+
+    /**
+     * Get a read-only view of the question at the given index
+     * @param index position in the store
+     * @return question view
+     */
+    @Override
+    public Question get(int index) {
+        Columns c = columns;
+        c.checkIndex(index);
+        return new BankQuestion(this, index);
+    }
+
+    /**
+     * Find a question by id. When several questions share an id, the first one added wins.
+     * @param id question id
+     * @return index of the question, or -1 if there is none
+     */
+    @Override
+    public int indexOfId(int id) {
+        Columns c = columns;
+        int[] table = c.idTable;
+        int mask = table.length - 1;
+        for (int slot = mixId(id) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int index = table[slot] - 1;
+            if (index < c.size && c.ids[index] == id) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int getId(int index) {
+        Columns c = columns;
+        c.checkIndex(index);
+        return c.ids[index];
+    }
+
+    @Override
+    public int getCorrectAnswer(int index) {
+        Columns c = columns;
+        c.checkIndex(index);
+        return c.correctAnswers[index];
+    }
+
+    @Override
+    public int getTimeLimit(int index) {
+        Columns c = columns;
+        c.checkIndex(index);
+        return c.timeLimits[index];
+    }
+
+    @Override
+    public String getQuestionText(int index) {
+        Columns c = columns;
+        c.checkIndex(index);
+        return c.strings.get(c.textRefs[index]);
+    }
+
+    @Override
+    public int getOptionCount(int index) {
+        Columns c = columns;
+        c.checkIndex(index);
+        return c.optionStarts[index + 1] - c.optionStarts[index];
+    }
+
+    @Override
+    public String getOption(int index, int option) {
+        Columns c = columns;
+        c.checkIndex(index);
+        int start = c.optionStarts[index];
+        if (option < 0 || start + option >= c.optionStarts[index + 1]) {
+            throw new IndexOutOfBoundsException("Option " + option + " of question at " + index);
+        }
+        return c.strings.get(c.optionRefs[start + option]);
+    }
+
+    /**
+     * Get the category tag of a question
+     * @param index position in the store
+     * @return category, or null if not set
+     */
+    @Override
+    public String getCategory(int index) {
+        Columns c = columns;
+        c.checkIndex(index);
+        return c.tag(c.categoryRefs[index]);
+    }
+
+    @Override
+    public String getDifficulty(int index) {
+        Columns c = columns;
+        c.checkIndex(index);
+        return c.tag(c.difficultyRefs[index]);
+    }
+
+    @Override
+    public String getLanguage(int index) {
+        Columns c = columns;
+        c.checkIndex(index);
+        return c.tag(c.languageRefs[index]);
+    }
+
+    /**
+     * Get the number of distinct strings held in the pool
+     * @return distinct string count
+     */
+    public synchronized int getDistinctStringCount() {
+        return pool.size();
+    }
+
+    /**
+     * Get the number of UTF-8 bytes held in the pool
+     * @return pooled text size in bytes
+     */
+    public synchronized int getStringBytes() {
+        return pool.heapBytes();
+    }
+
+    private int append(Question question) {
+        List<String> options = question.getOptions();
+        ensureCapacity(options.size());
+        int index = count;
+        ids[index] = question.getId();
+        correctAnswers[index] = question.getCorrectAnswer();
+        timeLimits[index] = question.getTimeLimit();
+        textRefs[index] = pool.intern(question.getQuestion());
+        for (String option : options) {
+            optionRefs[optionCount++] = pool.intern(option);
+        }
+        categoryRefs[index] = internTag(question.getCategory());
+        difficultyRefs[index] = internTag(question.getDifficulty());
+        languageRefs[index] = internTag(question.getLanguage());
+        optionStarts[index + 1] = optionCount;
+        count++;
+        indexId(index);
+        return index;
+    }
+
+    private int internTag(String tag) {
+        return tag == null ? -1 : pool.intern(tag);
+    }
+
+    private void indexId(int index) {
+        if (count * 2 > idTable.length) {
+            int[] table = new int[idTable.length * 2];
+            for (int i = 0; i < index; i++) {
+                insertId(table, i);
+            }
+            idTable = table;
+        }
+        insertId(idTable, index);
+    }
+
+    private void insertId(int[] table, int index) {
+        int mask = table.length - 1;
+        int slot = mixId(ids[index]) & mask;
+        while (table[slot] != 0) {
+            if (ids[table[slot] - 1] == ids[index]) {
+                return; // keep the first question with this id
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = index + 1;
+    }
+
+    private static int mixId(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        return Integer.highestOneBit(Math.max(2, capacity * 2 - 1)) << 1;
+    }
+
+    private void ensureCapacity(int extraOptions) {
+        if (count == ids.length) {
+            int newCapacity = ids.length + (ids.length >> 1) + 1;
+            ids = Arrays.copyOf(ids, newCapacity);
+            correctAnswers = Arrays.copyOf(correctAnswers, newCapacity);
+            timeLimits = Arrays.copyOf(timeLimits, newCapacity);
+            textRefs = Arrays.copyOf(textRefs, newCapacity);
+            optionStarts = Arrays.copyOf(optionStarts, newCapacity + 1);
+            categoryRefs = Arrays.copyOf(categoryRefs, newCapacity);
+            difficultyRefs = Arrays.copyOf(difficultyRefs, newCapacity);
+            languageRefs = Arrays.copyOf(languageRefs, newCapacity);
+        }
+        if (optionCount + extraOptions > optionRefs.length) {
+            optionRefs = Arrays.copyOf(optionRefs,
+                    Math.max(optionRefs.length + (optionRefs.length >> 1), optionCount + extraOptions));
+        }
+    }
+
+    private void publish() {
+        columns = new Columns(count, ids, correctAnswers, timeLimits, textRefs, optionStarts, optionRefs,
+                categoryRefs, difficultyRefs, languageRefs, idTable, pool.snapshot());
+    }
+
+    /**
+     * Immutable snapshot of the column arrays handed to readers. Writers only
+     * append past {@code size}, so a snapshot never changes underneath a reader.
+     */
+    private static final class Columns {
+        final int size;
+        final int[] ids;
+        final int[] correctAnswers;
+        final int[] timeLimits;
+        final int[] textRefs;
+        final int[] optionStarts;
+        final int[] optionRefs;
+        final int[] categoryRefs;
+        final int[] difficultyRefs;
+        final int[] languageRefs;
+        final int[] idTable;
+        final StringPool.Snapshot strings;
+
+        Columns(int size, int[] ids, int[] correctAnswers, int[] timeLimits, int[] textRefs,
+                int[] optionStarts, int[] optionRefs, int[] categoryRefs, int[] difficultyRefs,
+                int[] languageRefs, int[] idTable, StringPool.Snapshot strings) {
+            this.size = size;
+            this.ids = ids;
+            this.correctAnswers = correctAnswers;
+            this.timeLimits = timeLimits;
+            this.textRefs = textRefs;
+            this.optionStarts = optionStarts;
+            this.optionRefs = optionRefs;
+            this.categoryRefs = categoryRefs;
+            this.difficultyRefs = difficultyRefs;
+            this.languageRefs = languageRefs;
+            this.idTable = idTable;
+            this.strings = strings;
+        }
+
+        String tag(int ref) {
+            return ref < 0 ? null : strings.get(ref);
+        }
+
+        void checkIndex(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Question index " + index + " out of bounds for " + size);
+            }
+        }
+    }
+}
@@ -1,30 +1,150 @@
 package com.quizgenerator.model;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
- * Represents a quiz session with scoring and progress tracking
+ * Represents a quiz session with scoring and progress tracking.
+ *
+ * Correct and skipped counts are kept as running counters updated by
+ * {@link #submitAnswer(int, int)}, {@link #skipQuestion()} and
+ * {@link #timeOutQuestion(int)}, so every summary getter is O(1).
+ *
+ * Answers are stored by question position in a {@code byte[]} sized when the
+ * session is created, and correctness is read back from the question. Recording
+ * an answer therefore allocates nothing and never boxes.
+ *
+ * Sessions advance without locks. A position is claimed by a compare-and-set of
+ * its answer slot from {@link #NO_ANSWER}, so when the taker's answer races a
+ * retry of itself or a deadline timer, exactly one is recorded and the others get
+ * the recorded result back. The claimant then publishes the position, score and
+ * counters together as one packed {@code long} state word, so readers always see
+ * them consistent. Listeners are notified only after that publication, so
+ * anything a listener persists, such as a log record, is already visible to a
+ * concurrent checkpoint. The claimant of the next position waits for the previous
+ * notification to finish before notifying, which keeps listener events of a
+ * session in order.
+ *
+ * A session created from a {@link QuizTemplate} shares the template's questions
+ * and keeps at most a {@code short[]} order of its own.
+ *
+ * With {@link #shuffleOptions()} every question shows its options in an order
+ * of the session's own, kept as one Lehmer code per question in a {@code char[]}.
+ * The shared questions and their option lists are never copied: answers are
+ * given by displayed position and mapped back to the canonical option index,
+ * which is what the session records and reports to its listener.
+ *
+ * Timings are kept as the nanoseconds from serving the first question to
+ * recording each position, in one {@code long[]} by position, eight bytes per
+ * question. A question is served the moment the previous one is recorded, so
+ * serving stamps and response times are differences of neighbouring offsets and
+ * every lookup is O(1). Timings are immune to wall-clock changes and cost
+ * recording no allocation. Durations come from the same monotonic clock; the {@link Date} start and end
+ * times are kept for display and persistence. Timings are not persisted, so a
+ * recovered session reports the replay's timings for the questions recorded before
+ * the restart.
+ *
+ * An adaptive session is created with a {@link QuestionSelector} instead of a
+ * question list: only its first question is known up front, and each answer
+ * asks the selector for the next one before the session moves on.
  */
 public class QuizSession {
+    /** Largest number of questions a session can have */
+    public static final int MAX_QUESTIONS = (1 << 21) - 1;
+    /** Answer code for a question that has not been reached yet */
+    public static final int NO_ANSWER = -1;
+    /** Answer code for a question that was skipped */
+    public static final int SKIPPED = -2;
+    /** Answer code for a question whose time limit passed before it was answered */
+    public static final int TIMED_OUT = -3;
+
+    private static final Logger LOG = Logger.getLogger(QuizSession.class.getName());
+    private static final int POINTS_PER_CORRECT = 10;
+    private static final int TURN_SPINS = 64;
+    private static final long FIELD_MASK = MAX_QUESTIONS;
+    private static final int CORRECT_SHIFT = 21;
+    private static final int SKIPPED_SHIFT = 42;
+    private static final long COMPLETED = 1L << 63;
+    private static final VarHandle ANSWERS = MethodHandles.arrayElementVarHandle(byte[].class);
+    private static final VarHandle RECORDED = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle RETIRED;
+
+    static {
+        try {
+            RETIRED = MethodHandles.lookup().findVarHandle(QuizSession.class, "retired", boolean.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private String sessionId;
-    private List<Question> questions;
-    private List<Question> answeredQuestions;
-    private Map<Integer, Integer> userAnswers; // questionId -> selectedAnswer
-    private int currentQuestionIndex;
-    private int score;
-    private boolean isCompleted;
-    private Date startTime;
-    private Date endTime;
+    private final List<Question> questions;
+    private final int totalQuestions;
+    private final QuestionSelector selector;
+    private final byte[] answers; // position -> selected option, or a negative answer code
+    private volatile char[] optionOrders; // position -> Lehmer code of the displayed order, null if not shuffled
+    private volatile long state; // completed bit | skipped | correct | position, 21 bits each
+    private volatile int timedOutCount;
+    private final long[] recordedNanos; // position -> nanoseconds from firstServedNanos to recording + 1, 0 before
+    private volatile long firstServedNanos; // nanoTime the first question became current
+    private volatile Date startTime;
+    private volatile Date endTime;
+    private volatile long startNanos;
+    private volatile long endNanos;
+    private volatile SessionListener listener;
+    private volatile int notifiedPositions; // positions whose listener events have been delivered
+    private volatile Thread notifier; // thread delivering the events of position notifiedPositions
+    private volatile boolean retired; // no longer counted as active, see retire()
 
     public QuizSession(String sessionId, List<Question> questions) {
+        this(sessionId, new ArrayList<>(questions), questions.size(), null);
+    }
+
+    /**
+     * Create a session over a shared template without copying its questions
+     * @param sessionId session id
+     * @param template questions of the quiz
+     * @param order permutation from {@link QuizTemplate#randomOrder()}, or null for template order
+     */
+    public QuizSession(String sessionId, QuizTemplate template, short[] order) {
+        this(sessionId, template.view(order), template.size(), null);
+    }
+
+    /**
+     * Create an adaptive session whose questions are picked one at a time
+     * @param sessionId session id
+     * @param totalQuestions number of questions the session will have
+     * @param selector picks each question; must not run out before the last one
+     */
+    public QuizSession(String sessionId, int totalQuestions, QuestionSelector selector) {
+        this(sessionId, new ArrayList<>(totalQuestions), totalQuestions, selector);
+        if (totalQuestions > 0) {
+            questions.add(nextQuestion(selector.first()));
+        }
+    }
+
+    private QuizSession(String sessionId, List<Question> questions, int totalQuestions, QuestionSelector selector) {
+        if (totalQuestions > MAX_QUESTIONS) {
+            throw new IllegalArgumentException("A session can have at most " + MAX_QUESTIONS + " questions");
+        }
         this.sessionId = sessionId;
-        this.questions = new ArrayList<>(questions);
-        this.answeredQuestions = new ArrayList<>();
-        this.userAnswers = new HashMap<>();
-        this.currentQuestionIndex = 0;
-        this.score = 0;
-        this.isCompleted = false;
+        this.questions = questions;
+        this.totalQuestions = totalQuestions;
+        this.selector = selector;
+        this.answers = new byte[totalQuestions];
+        Arrays.fill(answers, (byte) NO_ANSWER);
+        this.recordedNanos = new long[totalQuestions];
         this.startTime = new Date();
+        startClock(System.nanoTime());
+    }
+
+    private void startClock(long now) {
+        startNanos = now;
+        firstServedNanos = now;
     }
 
     // Getters and Setters
@@ -36,59 +156,236 @@ public class QuizSession {
         this.sessionId = sessionId;
     }
 
+    /**
+     * Get the session's questions. For an adaptive session these are the
+     * questions served so far.
+     * @return questions by position
+     */
     public List<Question> getQuestions() {
         return questions;
     }
 
-    public void setQuestions(List<Question> questions) {
-        this.questions = questions;
+    /**
+     * Check whether the questions are picked as the session goes
+     * @return true if the session was created with a {@link QuestionSelector}
+     */
+    public boolean isAdaptive() {
+        return selector != null;
     }
 
-    public List<Question> getAnsweredQuestions() {
-        return answeredQuestions;
+    public QuestionSelector getSelector() {
+        return selector;
     }
 
-    public void setAnsweredQuestions(List<Question> answeredQuestions) {
-        this.answeredQuestions = answeredQuestions;
+    /**
+     * Give every question its own random option order. Questions with more than
+     * eight options keep their canonical order. Must be called before the session
+     * is shared with other threads.
+     * @throws IllegalStateException if an answer was already recorded
+     */
+    public void shuffleOptions() {
+        if (state != 0) {
+            throw new IllegalStateException("Options must be shuffled before the first answer");
+        }
+        if (optionOrders != null) {
+            return;
+        }
+        char[] orders = new char[totalQuestions];
+        for (int position = 0; position < questions.size(); position++) {
+            orders[position] = OptionPermutation.random(questions.get(position).getOptions().size());
+        }
+        optionOrders = orders;
+    }
+
+    public boolean isOptionsShuffled() {
+        return optionOrders != null;
+    }
+
+    /**
+     * Get the option order this session shows for a question, e.g. to persist it
+     * @param position question position (0-based)
+     * @return Lehmer code of the displayed order, 0 for the canonical order
+     */
+    public int getOptionOrder(int position) {
+        return orderAt(position);
     }
 
+    /**
+     * Give a rebuilt session the option orders it showed before a restart. Must be
+     * called before any answer is replayed.
+     * @param orders Lehmer code per position, as returned by {@link #getOptionOrder(int)}
+     * @throws IllegalStateException if an answer was already recorded
+     */
+    public void restoreOptionOrders(char[] orders) {
+        if (state != 0) {
+            throw new IllegalStateException("Option orders must be restored before the first answer");
+        }
+        if (orders.length != totalQuestions) {
+            throw new IllegalArgumentException("Expected " + totalQuestions + " option orders, got " + orders.length);
+        }
+        optionOrders = orders.clone();
+    }
+
+    /**
+     * Get the options of a question in the order this session shows them
+     * @param position question position (0-based)
+     * @return read-only view over the question's options
+     */
+    public List<String> getOptionsAt(int position) {
+        return OptionPermutation.view(questions.get(position).getOptions(), orderAt(position));
+    }
+
+    /**
+     * Get the options of the current question in the order this session shows them
+     * @return options, or null if quiz is completed
+     */
+    public List<String> getCurrentOptions() {
+        int position = getCurrentQuestionIndex();
+        return position < questions.size() ? getOptionsAt(position) : null;
+    }
+
+    /**
+     * Map an option as displayed by this session to its index in the question
+     * @param position question position (0-based)
+     * @param displayed displayed option position
+     * @return canonical option index
+     */
+    public int toCanonicalOption(int position, int displayed) {
+        int code = orderAt(position);
+        return code == 0 ? displayed
+                : OptionPermutation.toCanonical(code, questions.get(position).getOptions().size(), displayed);
+    }
+
+    /**
+     * Map an option index of a question to where this session displays it,
+     * e.g. to show the correct answer
+     * @param position question position (0-based)
+     * @param canonical canonical option index
+     * @return displayed option position
+     */
+    public int toDisplayedOption(int position, int canonical) {
+        int code = orderAt(position);
+        return code == 0 ? canonical
+                : OptionPermutation.toDisplayed(code, questions.get(position).getOptions().size(), canonical);
+    }
+
+    private int orderAt(int position) {
+        char[] orders = optionOrders;
+        return orders != null ? orders[position] : 0;
+    }
+
+    /**
+     * Get the questions that were answered (not skipped), in order.
+     * Builds a new list on every call.
+     * @return answered questions
+     */
+    public List<Question> getAnsweredQuestions() {
+        long current = state;
+        List<Question> answered = new ArrayList<>(position(current) - skipped(current));
+        for (int position = 0; position < position(current); position++) {
+            if (answers[position] >= 0) {
+                answered.add(questions.get(position));
+            }
+        }
+        return answered;
+    }
+
+    /**
+     * Get the submitted answers keyed by question id. Builds a new map on every
+     * call; prefer {@link #getAnswerAt(int)} on hot paths.
+     * @return questionId to selected answer index
+     */
     public Map<Integer, Integer> getUserAnswers() {
+        Map<Integer, Integer> userAnswers = new HashMap<>();
+        int current = getCurrentQuestionIndex();
+        for (int position = 0; position < current; position++) {
+            if (answers[position] >= 0) {
+                userAnswers.put(questions.get(position).getId(), (int) answers[position]);
+            }
+        }
         return userAnswers;
     }
 
-    public void setUserAnswers(Map<Integer, Integer> userAnswers) {
-        this.userAnswers = userAnswers;
+    /**
+     * Get the answer recorded at a question position
+     * @param position question position (0-based)
+     * @return selected option index, {@link #NO_ANSWER}, {@link #SKIPPED} or {@link #TIMED_OUT}
+     */
+    public int getAnswerAt(int position) {
+        return (byte) ANSWERS.getVolatile(answers, position);
+    }
+
+    /**
+     * Check whether the answer at a question position was correct
+     * @param position question position (0-based)
+     * @return true if answered correctly
+     */
+    public boolean isCorrectAt(int position) {
+        return isCorrect(position, getAnswerAt(position));
     }
 
-    public int getCurrentQuestionIndex() {
-        return currentQuestionIndex;
+    private boolean isCorrect(int position, int answer) {
+        return answer >= 0 && questions.get(position).isCorrect(answer);
     }
 
-    public void setCurrentQuestionIndex(int currentQuestionIndex) {
-        this.currentQuestionIndex = currentQuestionIndex;
+    /**
+     * Get the answer recorded for a question id
+     * @param questionId question id
+     * @return selected option index, {@link #NO_ANSWER}, {@link #SKIPPED} or {@link #TIMED_OUT}
+     */
+    public int getAnswerForQuestion(int questionId) {
+        int position = getPositionOfQuestion(questionId);
+        return position < 0 ? NO_ANSWER : answers[position];
     }
 
-    public int getScore() {
-        return score;
+    /**
+     * Find the position of a question in this session
+     * @param questionId question id
+     * @return position (0-based), or -1 if the question is not part of the session
+     */
+    public int getPositionOfQuestion(int questionId) {
+        for (int position = 0; position < questions.size(); position++) {
+            if (questions.get(position).getId() == questionId) {
+                return position;
+            }
+        }
+        return -1;
     }
 
-    public void setScore(int score) {
-        this.score = score;
+    public int getCurrentQuestionIndex() {
+        return position(state);
+    }
+
+    public int getScore() {
+        return correct(state) * POINTS_PER_CORRECT;
     }
 
     public boolean isCompleted() {
-        return isCompleted;
+        return (state & COMPLETED) != 0;
     }
 
-    public void setCompleted(boolean completed) {
-        isCompleted = completed;
+    /**
+     * Mark the session as no longer active. A session can both complete and be
+     * removed from its registry, in either order, and counters of active sessions
+     * use this to drop it exactly once.
+     * @return true for the first call only
+     */
+    public boolean retire() {
+        return !retired && RETIRED.compareAndSet(this, false, true);
     }
 
     public Date getStartTime() {
         return startTime;
     }
 
+    /**
+     * Set the wall-clock start time, e.g. of a recovered session, moving the
+     * monotonic start so durations match it
+     * @param startTime start time
+     */
     public void setStartTime(Date startTime) {
+        startNanos = System.nanoTime()
+                - TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - startTime.getTime());
         this.startTime = startTime;
     }
 
@@ -96,52 +393,304 @@ public class QuizSession {
         return endTime;
     }
 
+    /**
+     * Set the wall-clock end time, e.g. of a recovered session, moving the
+     * monotonic end so durations match it. Set the start time first.
+     * @param endTime end time
+     */
     public void setEndTime(Date endTime) {
+        endNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(endTime.getTime() - startTime.getTime());
         this.endTime = endTime;
     }
 
+    public SessionListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Set the listener notified when this session advances
+     * @param listener listener, or null for none
+     */
+    public void setListener(SessionListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Get when a question became the current one
+     * @param position question position (0-based)
+     * @return {@link System#nanoTime()} stamp, or 0 if the session has not reached it
+     */
+    public long getServedNanos(int position) {
+        long current = state;
+        int reached = (int) (current & FIELD_MASK);
+        if (position > reached || position == reached && (current & COMPLETED) != 0) {
+            return 0;
+        }
+        return firstServedNanos + recordedOffset(position - 1);
+    }
+
+    /**
+     * Get the time between serving a question and recording its answer, skip or
+     * timeout. Listeners may call this for the position they are notified about.
+     * @param position question position (0-based)
+     * @return response time in nanoseconds, or -1 if the question is not recorded yet
+     */
+    public long getResponseNanos(int position) {
+        long stored = (long) RECORDED.getAcquire(recordedNanos, position);
+        return stored == 0 ? -1 : stored - 1 - recordedOffset(position - 1);
+    }
+
+    /**
+     * Get the summed response time of all recorded questions
+     * @return total response time in nanoseconds
+     */
+    public long getTotalResponseNanos() {
+        return recordedOffset(getCurrentQuestionIndex() - 1);
+    }
+
+    /** Nanoseconds from serving the first question to recording a position known to be recorded, 0 before it */
+    private long recordedOffset(int position) {
+        return position < 0 ? 0 : recordedNanos[position] - 1;
+    }
+
+    /**
+     * Get the mean response time over all recorded questions
+     * @return mean response time in nanoseconds, 0 before the first answer
+     */
+    public long getAverageResponseNanos() {
+        int recorded = getCurrentQuestionIndex();
+        return recorded == 0 ? 0 : getTotalResponseNanos() / recorded;
+    }
+
+    /**
+     * Restart the start time and first question's clock of a session that was built
+     * ahead of time, before it is shared with other threads
+     * @throws IllegalStateException if a question has already been answered
+     */
+    public void restartClock() {
+        if (state != 0) {
+            throw new IllegalStateException("Session " + sessionId + " has already started");
+        }
+        startTime = new Date();
+        startClock(System.nanoTime());
+    }
+
     /**
      * Get the current question
      * @return current question or null if quiz is completed
      */
     public Question getCurrentQuestion() {
-        if (currentQuestionIndex >= questions.size()) {
+        int position = getCurrentQuestionIndex();
+        if (position >= questions.size()) {
             return null;
         }
-        return questions.get(currentQuestionIndex);
+        return questions.get(position);
     }
 
     /**
      * Submit an answer for the current question
-     * @param selectedAnswer the selected answer index (0-based)
+     * @param selectedAnswer the selected answer index (0-based), as displayed by this session
      * @return true if answer is correct, false otherwise
      */
     public boolean submitAnswer(int selectedAnswer) {
-        Question currentQuestion = getCurrentQuestion();
-        if (currentQuestion == null) {
+        long current = state;
+        int position = position(current);
+        if ((current & COMPLETED) != 0 || position >= totalQuestions) {
+            checkAnswer(selectedAnswer);
             return false;
         }
+        return submitAnswer(position, selectedAnswer);
+    }
 
-        // Store the answer
-        userAnswers.put(currentQuestion.getId(), selectedAnswer);
-        answeredQuestions.add(currentQuestion);
+    /**
+     * Submit an answer for the question at a position. Submissions are idempotent:
+     * once the position has been answered, skipped or timed out, submitting to it
+     * again, e.g. when a client retries, records nothing and returns the result
+     * recorded first.
+     * @param position position of the question being answered (0-based)
+     * @param selectedAnswer the selected answer index (0-based), as displayed by this session
+     * @return true if the answer recorded at the position is correct
+     * @throws IllegalStateException if the session has not reached the position yet,
+     * or ended before it
+     */
+    public boolean submitAnswer(int position, int selectedAnswer) {
+        checkAnswer(selectedAnswer);
+        if (position < 0 || position >= totalQuestions) {
+            throw new IllegalArgumentException("Question position out of range: " + position);
+        }
+        long current = state;
+        if (position >= position(current)) {
+            if (position > position(current)) {
+                throw new IllegalStateException("Question " + position + " has not been reached yet");
+            }
+            if ((current & COMPLETED) != 0) {
+                throw new IllegalStateException("Session " + sessionId + " ended before question " + position);
+            }
+        }
+        int answer = toCanonicalOption(position, selectedAnswer);
+        int recorded = claim(position, answer);
+        if (recorded != NO_ANSWER) {
+            return isCorrect(position, recorded);
+        }
+        boolean isCorrect = questions.get(position).isCorrect(answer);
+        advance(position, answer, isCorrect);
+        return isCorrect;
+    }
 
-        // Check if answer is correct
-        boolean isCorrect = currentQuestion.isCorrect(selectedAnswer);
-        if (isCorrect) {
-            score += 10; // Award 10 points for correct answer
+    private static void checkAnswer(int selectedAnswer) {
+        if (selectedAnswer < 0 || selectedAnswer > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Answer index out of range: " + selectedAnswer);
         }
+    }
 
-        // Move to next question
-        currentQuestionIndex++;
+    /**
+     * Skip the current question without answering.
+     * Skipped questions score no points and count against accuracy.
+     * @return true if a question was skipped, false if the quiz is already completed
+     * or the current question was recorded concurrently
+     */
+    public boolean skipQuestion() {
+        long current = state;
+        int position = position(current);
+        if ((current & COMPLETED) != 0 || position >= totalQuestions || claim(position, SKIPPED) != NO_ANSWER) {
+            return false;
+        }
+        advance(position, SKIPPED, false);
+        return true;
+    }
 
-        // Check if quiz is completed
-        if (currentQuestionIndex >= questions.size()) {
-            isCompleted = true;
+    /**
+     * Mark a question as timed out if it has been reached and not yet recorded.
+     * Timed-out questions count as skipped.
+     * @param position position of the question whose time limit passed
+     * @return true if the question was timed out, false if it was already answered
+     */
+    public boolean timeOutQuestion(int position) {
+        long current = state;
+        if (position < 0 || position > position(current) || position >= totalQuestions
+                || (current & COMPLETED) != 0 || claim(position, TIMED_OUT) != NO_ANSWER) {
+            return false;
+        }
+        timedOutCount++; // only the claimant of a position writes, one at a time
+        advance(position, TIMED_OUT, false);
+        return true;
+    }
+
+    /**
+     * Claim a position for an answer code
+     * @return {@link #NO_ANSWER} if this call claimed it, otherwise the code recorded first
+     */
+    private int claim(int position, int answer) {
+        if (ANSWERS.compareAndSet(answers, position, (byte) NO_ANSWER, (byte) answer)) {
+            return NO_ANSWER;
+        }
+        // A claimed slot never changes again
+        return getAnswerAt(position);
+    }
+
+    /**
+     * Finish recording a claimed position and move on. Only the claimant of the
+     * current position gets here, and the next position cannot be claimed until
+     * the new state is published, so the writes below never race.
+     *
+     * The state is published before listeners run and whatever the selector
+     * throws, since a claimed position that is never published would stall the
+     * session for good. An adaptive session whose selector fails ends at this
+     * position, and the failure is rethrown once the session has moved on;
+     * listener failures are logged and do not reach the caller.
+     */
+    private void advance(int position, int answer, boolean correct) {
+        long now = System.nanoTime();
+        boolean last = position + 1 >= totalQuestions;
+        RECORDED.setRelease(recordedNanos, position, now - firstServedNanos + 1);
+
+        // Pick an adaptive session's next question before readers can see the new position
+        RuntimeException selectorFailure = null;
+        if (selector != null && !last) {
+            try {
+                Question next = nextQuestion(selector.next(questions.get(position), answer, correct));
+                questions.add(next);
+                char[] orders = optionOrders;
+                if (orders != null) {
+                    orders[position + 1] = OptionPermutation.random(next.getOptions().size());
+                }
+            } catch (RuntimeException e) {
+                selectorFailure = e;
+                last = true;
+            }
+        }
+        if (last) {
+            endNanos = now;
             endTime = new Date();
         }
 
-        return isCorrect;
+        long next = state + 1;
+        if (correct) {
+            next += 1L << CORRECT_SHIFT;
+        } else if (answer < 0) {
+            next += 1L << SKIPPED_SHIFT;
+        }
+        state = last ? next | COMPLETED : next;
+
+        awaitTurn(position);
+        notifier = Thread.currentThread();
+        try {
+            SessionListener current = listener;
+            if (current != null) {
+                try {
+                    current.onAnswerRecorded(this, position, answer, correct);
+                } catch (RuntimeException e) {
+                    listenerFailed(e);
+                }
+                if (last) {
+                    try {
+                        current.onSessionCompleted(this);
+                    } catch (RuntimeException e) {
+                        listenerFailed(e);
+                    }
+                }
+            }
+        } finally {
+            notifier = null;
+            if (notifiedPositions <= position) {
+                notifiedPositions = position + 1;
+            }
+        }
+        if (selectorFailure != null) {
+            throw selectorFailure;
+        }
+    }
+
+    /**
+     * Wait until the events of every earlier position have been delivered. The
+     * previous claimant published before notifying, so it may still be at it; that
+     * takes no longer than its listeners do, but that thread may be descheduled,
+     * so after a short spin the wait yields the processor to it. A listener that
+     * records the next answer itself is let through, since waiting for its own
+     * caller would hang.
+     */
+    private void awaitTurn(int position) {
+        for (int spins = 0; notifiedPositions < position; spins++) {
+            if (notifier == Thread.currentThread()) {
+                return;
+            }
+            if (spins < TURN_SPINS) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+
+    private void listenerFailed(RuntimeException e) {
+        LOG.log(Level.WARNING, e, () -> "Session listener failed for " + sessionId);
+    }
+
+    private static Question nextQuestion(Question question) {
+        if (question == null) {
+            throw new IllegalStateException("Question selector ran out of questions");
+        }
+        return question;
     }
 
     /**
@@ -149,7 +698,7 @@ public class QuizSession {
      * @return total questions count
      */
     public int getTotalQuestions() {
-        return questions.size();
+        return totalQuestions;
     }
 
     /**
@@ -157,7 +706,8 @@ public class QuizSession {
      * @return answered questions count
      */
     public int getAnsweredQuestionsCount() {
-        return answeredQuestions.size();
+        long current = state;
+        return position(current) - skipped(current);
     }
 
     /**
@@ -165,19 +715,28 @@ public class QuizSession {
      * @return progress as percentage (0-100)
      */
     public int getProgressPercentage() {
-        if (questions.isEmpty()) {
+        if (totalQuestions == 0) {
             return 0;
         }
-        return (answeredQuestions.size() * 100) / questions.size();
+        return (getCurrentQuestionIndex() * 100) / totalQuestions;
     }
 
     /**
      * Get the quiz duration in seconds
-     * @return duration in seconds
+     * @return duration in whole seconds
      */
     public long getDurationInSeconds() {
-        Date end = endTime != null ? endTime : new Date();
-        return (end.getTime() - startTime.getTime()) / 1000;
+        return TimeUnit.NANOSECONDS.toSeconds(getDurationNanos());
+    }
+
+    /**
+     * Get the time from the start of the quiz to its end, or to now if it is not
+     * completed, on the monotonic clock
+     * @return duration in nanoseconds
+     */
+    public long getDurationNanos() {
+        long end = endTime != null ? endNanos : System.nanoTime();
+        return end - startNanos;
     }
 
     /**
@@ -185,25 +744,57 @@ public class QuizSession {
      * @return number of correct answers
      */
     public int getCorrectAnswersCount() {
-        return (int) userAnswers.entrySet().stream()
-                .filter(entry -> {
-                    Question question = questions.stream()
-                            .filter(q -> q.getId() == entry.getKey())
-                            .findFirst()
-                            .orElse(null);
-                    return question != null && question.isCorrect(entry.getValue());
-                })
-                .count();
+        return correct(state);
+    }
+
+    /**
+     * Get the incorrect answers count
+     * @return number of incorrect answers
+     */
+    public int getIncorrectAnswersCount() {
+        long current = state;
+        return position(current) - correct(current) - skipped(current);
     }
 
     /**
-     * Get the accuracy percentage
+     * Get the number of skipped or timed-out questions
+     * @return number of skipped questions
+     */
+    public int getSkippedQuestionsCount() {
+        return skipped(state);
+    }
+
+    /**
+     * Get the number of questions whose time limit passed before an answer
+     * @return number of timed-out questions
+     */
+    public int getTimedOutCount() {
+        return timedOutCount;
+    }
+
+    /**
+     * Get the accuracy percentage over all questions attempted so far,
+     * counting skipped questions as misses
      * @return accuracy as percentage (0-100)
      */
     public int getAccuracyPercentage() {
-        if (answeredQuestions.isEmpty()) {
+        long current = state;
+        int attempted = position(current);
+        if (attempted == 0) {
             return 0;
         }
-        return (getCorrectAnswersCount() * 100) / answeredQuestions.size();
+        return (correct(current) * 100) / attempted;
+    }
+
+    private static int position(long state) {
+        return (int) (state & FIELD_MASK);
+    }
+
+    private static int correct(long state) {
+        return (int) ((state >>> CORRECT_SHIFT) & FIELD_MASK);
+    }
+
+    private static int skipped(long state) {
+        return (int) ((state >>> SKIPPED_SHIFT) & FIELD_MASK);
     }
 }
@@ -0,0 +1,120 @@
+package com.quizgenerator.model;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Immutable question sequence shared by every session of a cohort, e.g. all
+ * students sitting the same exam.
+ *
+ * The questions are copied into an array once, when the template is built.
+ * Sessions created from the template hold a reference to it and, when question
+ * order is randomized per taker, a {@code short[]} permutation of positions, so
+ * a session costs a few bytes per question instead of a copy of the list.
+ */
+public final class QuizTemplate {
+    /** Largest template that can be shuffled: positions are stored as unsigned 16-bit values */
+    public static final int MAX_SHUFFLED_QUESTIONS = 1 << 16;
+
+    private final String templateId;
+    private final Question[] questions;
+    private final List<Question> inOrder;
+
+    /**
+     * @param templateId template id
+     * @param questions questions in template order; the list is copied
+     */
+    public QuizTemplate(String templateId, List<Question> questions) {
+        this.templateId = templateId;
+        this.questions = questions.toArray(new Question[0]);
+        this.inOrder = new Ordered(this, null);
+    }
+
+    public String getTemplateId() {
+        return templateId;
+    }
+
+    /**
+     * Get the number of questions
+     * @return question count
+     */
+    public int size() {
+        return questions.length;
+    }
+
+    /**
+     * Get the questions in template order
+     * @return read-only list shared by all callers
+     */
+    public List<Question> getQuestions() {
+        return inOrder;
+    }
+
+    /**
+     * Draw a random question order for one session
+     * @return permutation of the template positions
+     * @throws IllegalStateException if the template is too large to shuffle
+     */
+    public short[] randomOrder() {
+        if (questions.length > MAX_SHUFFLED_QUESTIONS) {
+            throw new IllegalStateException("Template too large to shuffle: " + questions.length + " questions");
+        }
+        short[] order = new short[questions.length];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < order.length; i++) {
+            int j = random.nextInt(i + 1);
+            order[i] = order[j];
+            order[j] = (short) i;
+        }
+        return order;
+    }
+
+    /**
+     * Get the questions in a session's order
+     * @param order permutation from {@link #randomOrder()}, or null for template order
+     * @return read-only list backed by the template and the permutation
+     */
+    List<Question> view(short[] order) {
+        if (order == null) {
+            return inOrder;
+        }
+        if (order.length != questions.length) {
+            throw new IllegalArgumentException("Order has " + order.length + " positions, template has "
+                    + questions.length + " questions");
+        }
+        return new Ordered(this, order);
+    }
+
+    @Override
+    public String toString() {
+        return "QuizTemplate{" +
+                "templateId='" + templateId + '\'' +
+                ", questions=" + questions.length +
+                '}';
+    }
+
+    /**
+     * Read-only view of the template's questions, optionally permuted
+     */
+    private static final class Ordered extends AbstractList<Question> implements RandomAccess {
+        private final QuizTemplate template;
+        private final short[] order;
+
+        Ordered(QuizTemplate template, short[] order) {
+            this.template = template;
+            this.order = order;
+        }
+
+        @Override
+        public Question get(int position) {
+            return template.questions[order == null ? position : order[position] & 0xFFFF];
+        }
+
+        @Override
+        public int size() {
+            return template.questions.length;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.quizgenerator.model;
+
+/**
+ * Receives quiz session lifecycle events.
+ *
+ * Answer and completion events are delivered synchronously on the thread that
+ * advanced the session, so implementations must be fast and must not block;
+ * anything slow should be handed off to another thread.
+ */
+public interface SessionListener {
+    /**
+     * Called once after a session has been created and registered
+     * @param session the new session
+     */
+    default void onSessionCreated(QuizSession session) {}
+
+    /**
+     * Called after a question has been answered, skipped or timed out. The session
+     * has already moved past the position, and events of one session arrive in
+     * position order.
+     * @param session the session
+     * @param position position of the question (0-based)
+     * @param answer selected option, or {@link QuizSession#SKIPPED} / {@link QuizSession#TIMED_OUT}
+     * @param correct whether the answer was correct
+     */
+    default void onAnswerRecorded(QuizSession session, int position, int answer, boolean correct) {}
+
+    /**
+     * Called after the last question of a session has been recorded
+     * @param session the completed session
+     */
+    default void onSessionCompleted(QuizSession session) {}
+}
@@ -0,0 +1,155 @@
+package com.quizgenerator.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Append-only pool of deduplicated strings stored as UTF-8 in a single byte heap.
+ *
+ * Each distinct string is stored once and referenced by an int. Lookups during
+ * interning use an open-addressing table over the pooled bytes, so no
+ * {@code String} objects are retained by the pool.
+ *
+ * Not thread-safe for writers; {@link QuestionStore} serializes writes and
+ * publishes them to readers through immutable {@link Snapshot}s.
+ */
+class StringPool {
+    private static final int EMPTY = -1;
+
+    private byte[] heap;
+    private int heapSize;
+    private int[] offsets; // start of string i; offsets[count] is the end of the heap
+    private int[] hashes;
+    private int count;
+    private int[] table;   // string index per slot, or EMPTY
+
+    StringPool(int expectedStrings) {
+        int capacity = Math.max(16, expectedStrings);
+        this.heap = new byte[capacity * 16];
+        this.offsets = new int[capacity + 1];
+        this.hashes = new int[capacity];
+        this.table = new int[tableSizeFor(capacity)];
+        Arrays.fill(table, EMPTY);
+    }
+
+    /**
+     * Add a string to the pool, reusing an existing entry when present
+     * @param value string to intern
+     * @return reference to the pooled string
+     */
+    int intern(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(bytes);
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != EMPTY) {
+            int candidate = table[slot];
+            if (hashes[candidate] == hash && equalsAt(candidate, bytes)) {
+                return candidate;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, heap, heapSize, bytes.length);
+        heapSize += bytes.length;
+        int ref = count;
+        hashes[ref] = hash;
+        offsets[ref + 1] = heapSize;
+        table[slot] = ref;
+        count++;
+        if (count * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return ref;
+    }
+
+    /**
+     * Capture the strings interned so far for lock-free readers
+     * @return read-only view of the pool
+     */
+    Snapshot snapshot() {
+        return new Snapshot(heap, offsets);
+    }
+
+    /**
+     * Get the number of distinct strings in the pool
+     * @return distinct string count
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * Get the number of UTF-8 bytes held by the pool
+     * @return heap size in bytes
+     */
+    int heapBytes() {
+        return heapSize;
+    }
+
+    private boolean equalsAt(int ref, byte[] bytes) {
+        int start = offsets[ref];
+        int length = offsets[ref + 1] - start;
+        return length == bytes.length
+                && Arrays.equals(heap, start, start + length, bytes, 0, length);
+    }
+
+    private void ensureCapacity(int extraBytes) {
+        if (heapSize + extraBytes > heap.length) {
+            heap = Arrays.copyOf(heap, Math.max(heap.length + (heap.length >> 1), heapSize + extraBytes));
+        }
+        if (count + 1 >= hashes.length) {
+            int newCapacity = hashes.length + (hashes.length >> 1);
+            hashes = Arrays.copyOf(hashes, newCapacity);
+            offsets = Arrays.copyOf(offsets, newCapacity + 1);
+        }
+    }
+
+    private void rehash(int newSize) {
+        int[] newTable = new int[newSize];
+        Arrays.fill(newTable, EMPTY);
+        int mask = newSize - 1;
+        for (int ref = 0; ref < count; ref++) {
+            int slot = hashes[ref] & mask;
+            while (newTable[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            newTable[slot] = ref;
+        }
+        table = newTable;
+    }
+
+    private static int hash(byte[] bytes) {
+        int h = Arrays.hashCode(bytes);
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        return Integer.highestOneBit(Math.max(2, capacity * 2 - 1)) << 1;
+    }
+
+    /**
+     * Read-only view of the pool. The arrays are only appended to by the writer,
+     * so a snapshot stays valid for every reference interned before it was taken.
+     */
+    static final class Snapshot {
+        private final byte[] heap;
+        private final int[] offsets;
+
+        Snapshot(byte[] heap, int[] offsets) {
+            this.heap = heap;
+            this.offsets = offsets;
+        }
+
+        /**
+         * Decode a pooled string
+         * @param ref reference returned by {@link StringPool#intern(String)}
+         * @return the string value
+         */
+        String get(int ref) {
+            int start = offsets[ref];
+            return new String(heap, start, offsets[ref + 1] - start, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,473 @@
+package com.quizgenerator.persistence;
+
+import com.quizgenerator.model.Question;
+import com.quizgenerator.model.QuizSession;
+import com.quizgenerator.model.SessionListener;
+import com.quizgenerator.service.QuestionService;
+import com.quizgenerator.service.SessionRecovery;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead log of session events, used to rebuild sessions after
+ * a crash.
+ *
+ * Register the log as a {@link SessionListener}; every session created, answer
+ * recorded and session completed becomes one record. The listener methods only
+ * enqueue a small event object, so the answering thread never waits for I/O.
+ * A single writer thread drains the queue, encodes everything that has piled up
+ * into one buffer, writes it through a {@link FileChannel} and then calls
+ * {@link FileChannel#force(boolean)} at most once per durability window, so all
+ * events that arrived in the window share one fsync (group commit). With a window
+ * of zero every batch is forced before the next one is written.
+ *
+ * Record layout: {@code [int length][byte type][long timestampMillis]
+ * [short idLength][sessionId UTF-8][payload][int crc32]}, where the CRC covers
+ * the bytes between the length and the checksum. A created record's payload holds
+ * the question ids and, per question, the {@code char} option order the session
+ * shows; records written before option orders were logged end after the ids. A torn or corrupt tail left by
+ * a crash is dropped when the log is reopened or replayed.
+ */
+public class AnswerLog implements SessionListener, AutoCloseable {
+    static final byte TYPE_CREATED = 1;
+    static final byte TYPE_ANSWER = 2;
+    static final byte TYPE_COMPLETED = 3;
+
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+    private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+
+    private final Path path;
+    private final Clock clock;
+    private final FileChannel channel;
+    private final long durabilityWindowNanos;
+    private final Queue<Event> queue = new ConcurrentLinkedQueue<>();
+    private final Thread writer;
+    private volatile boolean writerIdle;
+    private volatile boolean closed;
+    private volatile IOException failure;
+    private volatile long writtenOffset;
+    private volatile long durableOffset;
+
+    // Writer thread only
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * Open a log for appending, creating it if needed and dropping any corrupt tail
+     * @param path log file
+     * @param durabilityWindow longest time an event may stay written but not forced to disk
+     * @param unit unit of the durability window
+     * @throws IOException if the file cannot be opened
+     */
+    public AnswerLog(Path path, long durabilityWindow, TimeUnit unit) throws IOException {
+        this(path, durabilityWindow, unit, Clock.systemUTC());
+    }
+
+    /**
+     * Open a log that stamps its records from the given clock, e.g. a manual one in tests
+     * @param path log file
+     * @param durabilityWindow longest time an event may stay written but not forced to disk
+     * @param unit unit of the durability window
+     * @param clock wall clock for record timestamps
+     * @throws IOException if the file cannot be opened
+     */
+    AnswerLog(Path path, long durabilityWindow, TimeUnit unit, Clock clock) throws IOException {
+        if (durabilityWindow < 0) {
+            throw new IllegalArgumentException("Durability window must not be negative");
+        }
+        this.path = path;
+        this.clock = clock;
+        this.durabilityWindowNanos = unit.toNanos(durabilityWindow);
+        long validLength = Files.exists(path) ? scan(path, 0, body -> { }) : 0;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        if (channel.size() > validLength) {
+            channel.truncate(validLength);
+        }
+        channel.position(validLength);
+        this.writtenOffset = validLength;
+        this.durableOffset = validLength;
+
+        this.writer = new Thread(this::runWriter, "answer-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Get the length of the log written so far. Every event in this prefix had
+     * already been applied to its session when it was enqueued.
+     * @return written length in bytes
+     */
+    public long getWrittenOffset() {
+        return writtenOffset;
+    }
+
+    /**
+     * Get the length of the log prefix known to be forced to disk
+     * @return durable length in bytes
+     */
+    public long getDurableOffset() {
+        return durableOffset;
+    }
+
+    @Override
+    public void onSessionCreated(QuizSession session) {
+        if (session.isAdaptive()) {
+            // Only the first question is known; adaptive sessions are not logged
+            return;
+        }
+        List<Question> questions = session.getQuestions();
+        int[] questionIds = new int[questions.size()];
+        char[] optionOrders = new char[questionIds.length];
+        for (int i = 0; i < questionIds.length; i++) {
+            questionIds[i] = questions.get(i).getId();
+            optionOrders[i] = (char) session.getOptionOrder(i);
+        }
+        enqueue(new Event(TYPE_CREATED, clock.millis(), session.getSessionId(), 0, 0, questionIds, optionOrders));
+    }
+
+    @Override
+    public void onAnswerRecorded(QuizSession session, int position, int answer, boolean correct) {
+        if (session.isAdaptive()) {
+            return;
+        }
+        enqueue(new Event(TYPE_ANSWER, clock.millis(), session.getSessionId(), position, answer, null, null));
+    }
+
+    @Override
+    public void onSessionCompleted(QuizSession session) {
+        if (session.isAdaptive()) {
+            return;
+        }
+        enqueue(new Event(TYPE_COMPLETED, clock.millis(), session.getSessionId(), 0, 0, null, null));
+    }
+
+    /**
+     * Write and force every event enqueued so far, then close the file.
+     * Events enqueued after this call are ignored.
+     * @throws IOException if the writer failed at any point
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(writer);
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        channel.close();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Rebuild sessions from a log. Sessions whose questions are no longer in the bank
+     * are left out, and records after the first corrupt one are ignored.
+     * @param path log file; a missing file yields no sessions
+     * @param questionService bank the sessions' questions are looked up in
+     * @return rebuilt sessions by id, in creation order, without listeners attached
+     * @throws IOException if the log cannot be read
+     */
+    public static Map<String, QuizSession> replay(Path path, QuestionService questionService) throws IOException {
+        return replay(path, 0, questionService, null);
+    }
+
+    /**
+     * Rebuild the sessions touched by the part of a log after a checkpoint.
+     * Sessions the records refer to are taken from the checkpoint when it has them,
+     * and records already reflected in a session are skipped.
+     * @param path log file; a missing file yields no sessions
+     * @param fromOffset log offset the checkpoint was taken at
+     * @param questionService bank the sessions' questions are looked up in
+     * @param checkpoint source of sessions created before the offset, may be null
+     * @return sessions touched after the offset, by id, without listeners attached
+     * @throws IOException if the log cannot be read
+     */
+    public static Map<String, QuizSession> replay(Path path, long fromOffset, QuestionService questionService,
+                                                  SessionRecovery checkpoint) throws IOException {
+        Map<String, QuizSession> sessions = new LinkedHashMap<>();
+        if (!Files.exists(path)) {
+            return sessions;
+        }
+        scan(path, fromOffset, body -> {
+            byte type = body.get();
+            long timestamp = body.getLong();
+            byte[] id = new byte[body.getShort() & 0xFFFF];
+            body.get(id);
+            String sessionId = new String(id, StandardCharsets.UTF_8);
+
+            QuizSession session = sessions.get(sessionId);
+            if (session == null && checkpoint != null) {
+                session = checkpoint.recover(sessionId);
+                if (session != null) {
+                    sessions.put(sessionId, session);
+                }
+            }
+
+            if (type == TYPE_CREATED) {
+                if (session != null) {
+                    return;
+                }
+                int count = body.getInt();
+                List<Question> questions = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    Question question = questionService.getQuestionById(body.getInt());
+                    if (question == null) {
+                        return;
+                    }
+                    questions.add(question);
+                }
+                QuizSession created = new QuizSession(sessionId, questions);
+                if (body.remaining() >= count * Character.BYTES) {
+                    char[] optionOrders = new char[count];
+                    body.asCharBuffer().get(optionOrders);
+                    created.restoreOptionOrders(optionOrders);
+                }
+                created.setStartTime(new Date(timestamp));
+                sessions.put(sessionId, created);
+                return;
+            }
+
+            if (session == null) {
+                return;
+            }
+            if (type == TYPE_ANSWER) {
+                applyAnswer(session, body.getInt(), body.getInt());
+            } else if (type == TYPE_COMPLETED && session.isCompleted()) {
+                session.setEndTime(new Date(timestamp));
+            }
+        });
+        return sessions;
+    }
+
+    /**
+     * Re-apply a logged answer. Answers are logged in the order the session recorded
+     * them, so anything not aimed at the current position is a duplicate and ignored.
+     * Logged answers are canonical option indices and are submitted where the
+     * session displays them.
+     */
+    static void applyAnswer(QuizSession session, int position, int answer) {
+        if (position != session.getCurrentQuestionIndex()) {
+            return;
+        }
+        if (answer >= 0) {
+            session.submitAnswer(position, session.toDisplayedOption(position, answer));
+        } else if (answer == QuizSession.TIMED_OUT) {
+            session.timeOutQuestion(position);
+        } else {
+            session.skipQuestion();
+        }
+    }
+
+    /**
+     * Call the handler with the body of every intact record from an offset on, in order
+     * @return length of the intact prefix of the file
+     */
+    static long scan(Path path, long fromOffset, RecordHandler handler) throws IOException {
+        long validLength = fromOffset;
+        CRC32 checksum = new CRC32();
+        try (SeekableByteChannel source = Files.newByteChannel(path);
+             InputStream file = Channels.newInputStream(source.position(fromOffset));
+             DataInputStream in = new DataInputStream(new BufferedInputStream(file, WRITE_BUFFER_SIZE))) {
+            while (true) {
+                int length;
+                byte[] body;
+                int storedCrc;
+                try {
+                    length = in.readInt();
+                    if (length <= 0 || length > MAX_RECORD_SIZE) {
+                        break;
+                    }
+                    body = new byte[length];
+                    in.readFully(body);
+                    storedCrc = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                checksum.reset();
+                checksum.update(body, 0, length);
+                if ((int) checksum.getValue() != storedCrc) {
+                    break;
+                }
+                try {
+                    handler.onRecord(ByteBuffer.wrap(body));
+                } catch (RuntimeException e) {
+                    break;
+                }
+                validLength += Integer.BYTES + length + Integer.BYTES;
+            }
+        }
+        return validLength;
+    }
+
+    private void enqueue(Event event) {
+        if (closed || failure != null) {
+            return;
+        }
+        queue.offer(event);
+        if (writerIdle) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void runWriter() {
+        long lastForce = System.nanoTime();
+        boolean dirty = false;
+        try {
+            while (true) {
+                Event event = queue.poll();
+                if (event != null) {
+                    do {
+                        append(event);
+                    } while ((event = queue.poll()) != null);
+                    writeBuffer();
+                    dirty = true;
+                }
+
+                long now = System.nanoTime();
+                if (dirty && now - lastForce >= durabilityWindowNanos) {
+                    force();
+                    lastForce = now;
+                    dirty = false;
+                }
+
+                if (queue.isEmpty()) {
+                    if (closed) {
+                        break;
+                    }
+                    writerIdle = true;
+                    if (queue.isEmpty() && !closed) {
+                        if (dirty) {
+                            LockSupport.parkNanos(this, durabilityWindowNanos - (now - lastForce));
+                        } else {
+                            LockSupport.park(this);
+                        }
+                    }
+                    writerIdle = false;
+                }
+            }
+            if (dirty) {
+                force();
+            }
+        } catch (IOException e) {
+            failure = e;
+            queue.clear();
+        }
+    }
+
+    private void append(Event event) throws IOException {
+        byte[] id = event.sessionId.getBytes(StandardCharsets.UTF_8);
+        int payload = event.type == TYPE_CREATED
+                ? Integer.BYTES * (1 + event.questionIds.length) + Character.BYTES * event.optionOrders.length
+                : event.type == TYPE_ANSWER ? Integer.BYTES * 2 : 0;
+        int length = 1 + Long.BYTES + Short.BYTES + id.length + payload;
+        int recordSize = Integer.BYTES + length + Integer.BYTES;
+        if (buffer.remaining() < recordSize) {
+            writeBuffer();
+            if (buffer.capacity() < recordSize) {
+                buffer = ByteBuffer.allocateDirect(recordSize);
+            }
+        }
+
+        buffer.putInt(length);
+        int bodyStart = buffer.position();
+        buffer.put(event.type)
+                .putLong(event.timestamp)
+                .putShort((short) id.length)
+                .put(id);
+        if (event.type == TYPE_CREATED) {
+            buffer.putInt(event.questionIds.length);
+            for (int questionId : event.questionIds) {
+                buffer.putInt(questionId);
+            }
+            for (char optionOrder : event.optionOrders) {
+                buffer.putChar(optionOrder);
+            }
+        } else if (event.type == TYPE_ANSWER) {
+            buffer.putInt(event.position).putInt(event.answer);
+        }
+
+        ByteBuffer body = buffer.duplicate();
+        body.position(bodyStart).limit(bodyStart + length);
+        crc.reset();
+        crc.update(body);
+        buffer.putInt((int) crc.getValue());
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        writtenOffset = channel.position();
+    }
+
+    private void force() throws IOException {
+        channel.force(false);
+        durableOffset = channel.position();
+    }
+
+    /**
+     * Receives the body of each intact record found by {@link #scan(Path, long, RecordHandler)}
+     */
+    interface RecordHandler {
+        void onRecord(ByteBuffer body);
+    }
+
+    private static final class Event {
+        final byte type;
+        final long timestamp;
+        final String sessionId;
+        final int position;
+        final int answer;
+        final int[] questionIds;
+        final char[] optionOrders;
+
+        Event(byte type, long timestamp, String sessionId, int position, int answer, int[] questionIds,
+              char[] optionOrders) {
+            this.type = type;
+            this.timestamp = timestamp;
+            this.sessionId = sessionId;
+            this.position = position;
+            this.answer = answer;
+            this.questionIds = questionIds;
+            this.optionOrders = optionOrders;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.quizgenerator.persistence;
+
+import com.quizgenerator.service.SessionRegistry;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes a {@link SessionSnapshot} of the live sessions at a fixed interval on a
+ * background thread.
+ *
+ * Each checkpoint records the {@link AnswerLog}'s written offset before it starts
+ * copying sessions, so every log record before that offset is reflected in the
+ * snapshot, and recovery only has to replay the log from there.
+ */
+public class Checkpointer implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(Checkpointer.class.getName());
+
+    private final SessionRegistry registry;
+    private final Path path;
+    private final AnswerLog log;
+    private final SessionSnapshot previous;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * @param registry live sessions
+     * @param path snapshot file
+     * @param log answer log the snapshot is taken against, may be null
+     * @param previous snapshot restored at startup whose unrecovered sessions must be kept, may be null
+     */
+    public Checkpointer(SessionRegistry registry, Path path, AnswerLog log, SessionSnapshot previous) {
+        this.registry = registry;
+        this.path = path;
+        this.log = log;
+        this.previous = previous;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "session-checkpointer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start writing checkpoints periodically
+     * @param interval time between checkpoints
+     * @param unit unit of the interval
+     */
+    public void start(long interval, TimeUnit unit) {
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint();
+            } catch (IOException | RuntimeException e) {
+                LOG.log(Level.WARNING, "Session checkpoint failed", e);
+            }
+        }, interval, interval, unit);
+    }
+
+    /**
+     * Write a checkpoint now on the calling thread
+     * @return number of sessions written
+     * @throws IOException if the snapshot cannot be written
+     */
+    public synchronized int checkpoint() throws IOException {
+        long logOffset = log != null ? log.getWrittenOffset() : 0;
+        return SessionSnapshot.write(path, registry, logOffset, previous);
+    }
+
+    /**
+     * Stop the periodic checkpoints, waiting for one in progress to finish
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
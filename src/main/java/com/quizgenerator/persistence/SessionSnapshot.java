@@ -0,0 +1,509 @@
+package com.quizgenerator.persistence;
+
+import com.quizgenerator.model.Question;
+import com.quizgenerator.model.QuizSession;
+import com.quizgenerator.service.QuestionService;
+import com.quizgenerator.service.SessionRecovery;
+import com.quizgenerator.service.SessionRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Binary checkpoint of session state, written and read through memory-mapped files.
+ *
+ * Layout: a fixed header, one record per session and an open-addressing hash table
+ * from session id to record offset. A record holds the session id, start and end
+ * times, current position, score, question ids, one answer byte per question and
+ * the {@code char} option order the session shows for each question. Version 1
+ * files, written before option orders were kept, are still read.
+ * The file is mapped in fixed-size regions and no record or table entry crosses a
+ * region boundary, so files larger than one mapping need no special handling.
+ *
+ * Writing walks the {@link SessionRegistry} one segment at a time and copies each
+ * session under its own monitor, so neither the registry nor other sessions are
+ * stopped. The file is written next to the target and moved into place once forced.
+ *
+ * Opening a snapshot only maps the header. Sessions are rebuilt one at a time when
+ * first requested through {@link #recover(String)}, each at most once, so a restart
+ * costs the same whether the snapshot holds a thousand sessions or a million.
+ */
+public class SessionSnapshot implements SessionRecovery, AutoCloseable {
+    private static final int MAGIC = 0x51534E50; // "QSNP"
+    private static final int VERSION = 2;
+    private static final int VERSION_WITHOUT_OPTION_ORDERS = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int REGION_SIZE = 1 << 26;
+    private static final long OFFSET_MASK = (1L << 40) - 1;
+    private static final int SCRATCH_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final QuestionService questionService;
+    private final int version;
+    private final long logOffset;
+    private final long createdMillis;
+    private final int sessionCount;
+    private final int tableSlots;
+    private final long tableOffset;
+    private final AtomicReferenceArray<MappedByteBuffer> regions;
+    private final AtomicLongArray claimed; // one bit per table slot, set once the session was recovered
+
+    private SessionSnapshot(Path path, FileChannel channel, QuestionService questionService) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        this.questionService = questionService;
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            throw new IOException("Not a session snapshot: " + path);
+        }
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+        this.version = header.getInt(4);
+        if (header.getInt(0) != MAGIC || (version != VERSION && version != VERSION_WITHOUT_OPTION_ORDERS)) {
+            throw new IOException("Not a session snapshot or unsupported version: " + path);
+        }
+        this.logOffset = header.getLong(8);
+        this.createdMillis = header.getLong(16);
+        this.sessionCount = header.getInt(24);
+        this.tableSlots = header.getInt(28);
+        this.tableOffset = header.getLong(32);
+        if (Integer.bitCount(tableSlots) != 1 || tableOffset + (long) tableSlots * Long.BYTES > size) {
+            throw new IOException("Truncated session snapshot: " + path);
+        }
+        this.regions = new AtomicReferenceArray<>((int) ((size + REGION_SIZE - 1) / REGION_SIZE));
+        this.claimed = new AtomicLongArray((tableSlots + 63) / 64);
+    }
+
+    /**
+     * Map a snapshot for lazy recovery
+     * @param path snapshot file
+     * @param questionService bank the sessions' questions are looked up in
+     * @return the opened snapshot
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public static SessionSnapshot open(Path path, QuestionService questionService) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new SessionSnapshot(path, channel, questionService);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Write a snapshot of every live session in the registry, plus the sessions of
+     * a previous snapshot that have not been recovered yet
+     * @param path snapshot file, replaced atomically
+     * @param registry live sessions
+     * @param logOffset answer log offset up to which every event is reflected in the sessions
+     * @param previous snapshot still being recovered from, may be null
+     * @return number of sessions written
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static int write(Path path, SessionRegistry registry, long logOffset, SessionSnapshot previous)
+            throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        int count;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            count = new Writer(channel).write(registry, logOffset, previous);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Get the answer log offset the snapshot was taken at; log records from this
+     * offset on may not be reflected in it
+     * @return log offset in bytes
+     */
+    public long getLogOffset() {
+        return logOffset;
+    }
+
+    public long getCreatedMillis() {
+        return createdMillis;
+    }
+
+    public int getSessionCount() {
+        return sessionCount;
+    }
+
+    /**
+     * Rebuild a session from the snapshot. Each session is handed out once; later
+     * calls for the same id return null, so a session that was recovered and then
+     * expired or removed is not brought back.
+     * @param sessionId session ID
+     * @return the rebuilt session, or null
+     */
+    @Override
+    public QuizSession recover(String sessionId) {
+        byte[] id = sessionId.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(id);
+        int mask = tableSlots - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            long entry = readLong(tableOffset + (long) slot * Long.BYTES);
+            if (entry == 0) {
+                return null;
+            }
+            long offset = (entry & OFFSET_MASK) - 1;
+            if ((int) (entry >>> 40) == (hash >>> 8) && idMatches(offset, id)) {
+                return claim(slot) ? readSession(offset, sessionId) : null;
+            }
+        }
+    }
+
+    /**
+     * Release the file. Mapped regions are freed once unreachable.
+     * @throws IOException if the channel cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private boolean claim(int slot) {
+        long bit = 1L << slot;
+        int word = slot >>> 6;
+        while (true) {
+            long current = claimed.get(word);
+            if ((current & bit) != 0) {
+                return false;
+            }
+            if (claimed.compareAndSet(word, current, current | bit)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean isClaimed(int slot) {
+        return (claimed.get(slot >>> 6) & (1L << slot)) != 0;
+    }
+
+    private QuizSession readSession(long offset, String sessionId) {
+        ByteBuffer region = region(offset);
+        int p = (int) (offset % REGION_SIZE);
+        p += Short.BYTES + (region.getShort(p) & 0xFFFF);
+        long startMillis = region.getLong(p);
+        long endMillis = region.getLong(p + 8);
+        int current = region.getInt(p + 16);
+        int count = region.getInt(p + 24);
+        p += 28;
+
+        List<Question> questions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Question question = questionService.getQuestionById(region.getInt(p + i * Integer.BYTES));
+            if (question == null) {
+                return null;
+            }
+            questions.add(question);
+        }
+        p += count * Integer.BYTES;
+
+        QuizSession session = new QuizSession(sessionId, questions);
+        if (version != VERSION_WITHOUT_OPTION_ORDERS) {
+            char[] optionOrders = new char[count];
+            for (int i = 0; i < count; i++) {
+                optionOrders[i] = region.getChar(p + count + i * Character.BYTES);
+            }
+            session.restoreOptionOrders(optionOrders);
+        }
+        for (int position = 0; position < current; position++) {
+            AnswerLog.applyAnswer(session, position, region.get(p + position));
+        }
+        session.setStartTime(new Date(startMillis));
+        if (endMillis >= 0) {
+            session.setEndTime(new Date(endMillis));
+        }
+        return session;
+    }
+
+    private boolean idMatches(long offset, byte[] id) {
+        ByteBuffer region = region(offset);
+        int p = (int) (offset % REGION_SIZE);
+        if ((region.getShort(p) & 0xFFFF) != id.length) {
+            return false;
+        }
+        p += Short.BYTES;
+        for (int i = 0; i < id.length; i++) {
+            if (region.get(p + i) != id[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int recordLength(long offset) {
+        ByteBuffer region = region(offset);
+        int p = (int) (offset % REGION_SIZE);
+        int idLength = region.getShort(p) & 0xFFFF;
+        int count = region.getInt(p + Short.BYTES + idLength + 24);
+        int length = recordLength(idLength, count);
+        return version == VERSION_WITHOUT_OPTION_ORDERS ? length - count * Character.BYTES : length;
+    }
+
+    private long readLong(long offset) {
+        return region(offset).getLong((int) (offset % REGION_SIZE));
+    }
+
+    private ByteBuffer region(long offset) {
+        int index = (int) (offset / REGION_SIZE);
+        MappedByteBuffer region = regions.get(index);
+        if (region == null) {
+            long start = (long) index * REGION_SIZE;
+            try {
+                region = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(REGION_SIZE, channel.size() - start));
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot map session snapshot " + path, e);
+            }
+            regions.compareAndSet(index, null, region);
+        }
+        return region;
+    }
+
+    static int recordLength(int idLength, int questionCount) {
+        return Short.BYTES + idLength + 28 + questionCount * (Integer.BYTES + 1 + Character.BYTES);
+    }
+
+    static int hash(byte[] id) {
+        int h = Arrays.hashCode(id) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Appends records region by region and builds the id table
+     */
+    private static final class Writer {
+        private final FileChannel channel;
+        private final List<MappedByteBuffer> regions = new ArrayList<>();
+        private MappedByteBuffer region;
+        private ByteBuffer scratch = ByteBuffer.allocate(SCRATCH_SIZE);
+        private long[] entries = new long[1024]; // hash fragment and offset + 1 of every record
+        private int count;
+        private int copied;
+
+        Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        int write(SessionRegistry registry, long logOffset, SessionSnapshot previous) throws IOException {
+            region = map(0);
+            region.position(HEADER_SIZE);
+            // Copy the previous snapshot first: a session recovered after its copy was
+            // taken is still found in the registry, or its changes are in the log
+            if (previous != null) {
+                copyUnclaimed(previous);
+            }
+            copied = count;
+            try {
+                registry.forEach(this::writeSession);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            // Table entries are 8 bytes and regions a multiple of 8, so aligning the
+            // table start keeps every entry inside one region
+            long tableOffset = (end() + 7) & ~7L;
+            int slots = Integer.highestOneBit(Math.max(2, count * 2 - 1)) << 1;
+            long[] table = buildTable(slots);
+            reserve((int) (tableOffset - end()));
+            region.position(region.position() + (int) (tableOffset - end()));
+            for (long entry : table) {
+                reserve(Long.BYTES);
+                region.putLong(entry);
+            }
+            long fileEnd = end();
+
+            ByteBuffer header = regions.get(0);
+            header.putInt(0, MAGIC)
+                    .putInt(4, VERSION)
+                    .putLong(8, logOffset)
+                    .putLong(16, System.currentTimeMillis())
+                    .putInt(24, count)
+                    .putInt(28, slots)
+                    .putLong(32, tableOffset)
+                    .putLong(40, fileEnd);
+            for (MappedByteBuffer mapped : regions) {
+                mapped.force();
+            }
+            regions.clear();
+            region = null;
+            try {
+                channel.truncate(fileEnd);
+            } catch (IOException e) {
+                // Some platforms refuse to shrink a file that is still mapped; the
+                // unused tail is harmless because the header records the real end
+            }
+            return count;
+        }
+
+        private void writeSession(QuizSession session) {
+            if (session.isAdaptive()) {
+                // Its remaining questions depend on state that is not persisted
+                return;
+            }
+            byte[] id = session.getSessionId().getBytes(StandardCharsets.UTF_8);
+            ByteBuffer record;
+            int current;
+            // Sessions advance without locks: copy optimistically and retry if the
+            // session moved on meanwhile. Answers before the current position are final.
+            do {
+                current = session.getCurrentQuestionIndex();
+                List<Question> questions = session.getQuestions();
+                Date end = session.getEndTime();
+                int length = recordLength(id.length, questions.size());
+                record = scratch(length);
+                record.putShort((short) id.length).put(id)
+                        .putLong(session.getStartTime().getTime())
+                        .putLong(end != null && session.isCompleted() ? end.getTime() : -1)
+                        .putInt(current)
+                        .putInt(session.getScore())
+                        .putInt(questions.size());
+                for (Question question : questions) {
+                    record.putInt(question.getId());
+                }
+                for (int position = 0; position < questions.size(); position++) {
+                    record.put((byte) (position < current ? session.getAnswerAt(position) : QuizSession.NO_ANSWER));
+                }
+                for (int position = 0; position < questions.size(); position++) {
+                    record.putChar((char) session.getOptionOrder(position));
+                }
+            } while (current != session.getCurrentQuestionIndex());
+            record.flip();
+            try {
+                append(record, hash(id));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void copyUnclaimed(SessionSnapshot previous) throws IOException {
+            int mask = previous.tableSlots - 1;
+            for (int slot = 0; slot <= mask; slot++) {
+                long entry = previous.readLong(previous.tableOffset + (long) slot * Long.BYTES);
+                if (entry == 0 || previous.isClaimed(slot)) {
+                    continue;
+                }
+                long offset = (entry & OFFSET_MASK) - 1;
+                int length = previous.recordLength(offset);
+                ByteBuffer source = previous.region(offset).duplicate();
+                int p = (int) (offset % REGION_SIZE);
+                source.limit(p + length).position(p);
+                byte[] id = new byte[source.getShort(p) & 0xFFFF];
+                source.duplicate().position(p + Short.BYTES).get(id);
+                if (previous.version == VERSION_WITHOUT_OPTION_ORDERS) {
+                    // Upgrade the record: its sessions show every question in canonical order
+                    int count = source.getInt(p + Short.BYTES + id.length + 24);
+                    ByteBuffer upgraded = scratch(length + count * Character.BYTES);
+                    upgraded.put(source);
+                    upgraded.put(new byte[count * Character.BYTES]).flip();
+                    source = upgraded;
+                }
+                append(source, hash(id));
+            }
+        }
+
+        private void append(ByteBuffer record, int hash) throws IOException {
+            reserve(record.remaining());
+            long offset = end();
+            region.put(record);
+            if (count == entries.length) {
+                entries = Arrays.copyOf(entries, count * 2);
+            }
+            entries[count++] = ((long) (hash >>> 8) << 40) | (offset + 1);
+        }
+
+        /**
+         * Build the id table. A session copied from a previous snapshot may also have
+         * been recovered and written from the registry meanwhile; the registry copy
+         * is newer and wins.
+         */
+        private long[] buildTable(int slots) {
+            long[] table = new long[slots];
+            int mask = slots - 1;
+            int unique = 0;
+            for (int n = 0; n < count; n++) {
+                long entry = entries[(n + copied) % count];
+                long offset = (entry & OFFSET_MASK) - 1;
+                int slot = hashOf(offset) & mask;
+                boolean duplicate = false;
+                while (table[slot] != 0) {
+                    if (table[slot] >>> 40 == entry >>> 40 && sameId((table[slot] & OFFSET_MASK) - 1, offset)) {
+                        duplicate = true;
+                        break;
+                    }
+                    slot = (slot + 1) & mask;
+                }
+                if (!duplicate) {
+                    table[slot] = entry;
+                    unique++;
+                }
+            }
+            count = unique;
+            return table;
+        }
+
+        private int hashOf(long offset) {
+            return hash(idAt(offset));
+        }
+
+        private boolean sameId(long a, long b) {
+            return Arrays.equals(idAt(a), idAt(b));
+        }
+
+        private byte[] idAt(long offset) {
+            ByteBuffer mapped = regions.get((int) (offset / REGION_SIZE));
+            int p = (int) (offset % REGION_SIZE);
+            byte[] id = new byte[mapped.getShort(p) & 0xFFFF];
+            mapped.duplicate().position(p + Short.BYTES).get(id);
+            return id;
+        }
+
+        private ByteBuffer scratch(int length) {
+            if (length > REGION_SIZE) {
+                throw new IllegalStateException("Session too large for a snapshot record: " + length + " bytes");
+            }
+            if (scratch.capacity() < length) {
+                scratch = ByteBuffer.allocate(length);
+            }
+            scratch.clear();
+            return scratch;
+        }
+
+        private void reserve(int bytes) throws IOException {
+            if (region.remaining() < bytes) {
+                region = map((long) regions.size() * REGION_SIZE);
+            }
+        }
+
+        private long end() {
+            return (long) (regions.size() - 1) * REGION_SIZE + region.position();
+        }
+
+        private MappedByteBuffer map(long start) throws IOException {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, start, REGION_SIZE);
+            regions.add(mapped);
+            return mapped;
+        }
+    }
+}
@@ -0,0 +1,476 @@
+package com.quizgenerator.service;
+
+import com.quizgenerator.model.Question;
+import com.quizgenerator.model.QuestionBank;
+import com.quizgenerator.model.QuestionSelector;
+import com.quizgenerator.model.QuizSession;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Picks questions to match each taker's running ability, Elo style.
+ *
+ * Abilities and difficulties share a logit scale on which a taker of ability
+ * {@code t} answers a question of difficulty {@code b} correctly with
+ * probability {@code 1 / (1 + e^(b - t))}. A question starts at -1, 0 or +1
+ * from its "easy", "medium" or "hard" tag, and after every answer both the
+ * taker's ability and the question's difficulty move by the surprise of the
+ * outcome. Abilities are kept per session; difficulties are shared by all
+ * sessions of the engine. Skips do not move either.
+ *
+ * Questions are grouped into {@value #BANDS} difficulty bands. Each band keeps
+ * its questions' weights in a Fenwick tree, so drawing a question in proportion
+ * to its weight and changing a weight are both O(log N). A weight shrinks each
+ * time its question is served, which spreads exposure over the bank. A draw
+ * first picks a band by its total weight times a Gaussian of its distance from
+ * the difficulty the taker should get right {@link #getTargetSuccessRate()} of
+ * the time, then a question within the band; questions the session has already
+ * had are redrawn. A question whose difficulty leaves its band is moved to the
+ * new band, leaving a zero-weight slot behind that is reclaimed when the band
+ * is compacted.
+ *
+ * Bands lock independently and a move holds one band lock at a time, so
+ * concurrent sessions only contend when they draw from the same band.
+ * Questions added to the bank are picked up by the next {@link #newSelector()}.
+ */
+public class AdaptiveSelectionEngine {
+    public static final double DEFAULT_TARGET_SUCCESS_RATE = 0.5;
+
+    private static final int BANDS = 64;
+    private static final double MIN_RATING = -4;
+    private static final double MAX_RATING = 4;
+    private static final double BAND_WIDTH = (MAX_RATING - MIN_RATING) / BANDS;
+    private static final double KERNEL_SIGMA = 0.5;
+    private static final double KERNEL_FLOOR = 1e-4;
+    private static final double ABILITY_K = 1.0;
+    private static final double DIFFICULTY_K = 0.05;
+    private static final double EXPOSURE_PENALTY = 0.05;
+    private static final int MAX_REDRAWS = 16;
+    private static final int MIN_COMPACTION = 1024;
+
+    private static final int PAGE_BITS = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int SLOT_BITS = 26;
+    private static final int MAX_SLOTS = (1 << SLOT_BITS) - 1;
+    /** Location of a question that is being moved between bands */
+    private static final int MOVING = -1;
+
+    private static final double[] KERNEL = new double[BANDS];
+
+    static {
+        for (int distance = 0; distance < BANDS; distance++) {
+            double x = distance * BAND_WIDTH / KERNEL_SIGMA;
+            KERNEL[distance] = Math.exp(-0.5 * x * x) + KERNEL_FLOOR;
+        }
+    }
+
+    private final QuestionBank store;
+    private final double targetOffset;
+    private final double targetSuccessRate;
+    private final Band[] bands = new Band[BANDS];
+    private volatile Page[] pages = new Page[0];
+    private volatile int indexed;
+
+    public AdaptiveSelectionEngine(QuestionBank store) {
+        this(store, DEFAULT_TARGET_SUCCESS_RATE);
+    }
+
+    /**
+     * @param store bank to draw questions from
+     * @param targetSuccessRate chance of a correct answer the engine aims for, between 0 and 1 exclusive
+     */
+    public AdaptiveSelectionEngine(QuestionBank store, double targetSuccessRate) {
+        if (!(targetSuccessRate > 0 && targetSuccessRate < 1)) {
+            throw new IllegalArgumentException("Target success rate must be between 0 and 1: " + targetSuccessRate);
+        }
+        this.store = store;
+        this.targetSuccessRate = targetSuccessRate;
+        this.targetOffset = Math.log(targetSuccessRate / (1 - targetSuccessRate));
+        for (int band = 0; band < BANDS; band++) {
+            bands[band] = new Band(band);
+        }
+        indexNewQuestions();
+    }
+
+    /**
+     * Create the selector of a new session, with a neutral ability estimate
+     * @return selector to pass to {@link QuizSession#QuizSession(String, int, QuestionSelector)}
+     */
+    public QuestionSelector newSelector() {
+        if (indexed < store.size()) {
+            indexNewQuestions();
+        }
+        return new Selector();
+    }
+
+    public double getTargetSuccessRate() {
+        return targetSuccessRate;
+    }
+
+    /**
+     * Get the number of questions the engine draws from
+     * @return question count
+     */
+    public int getQuestionCount() {
+        return indexed;
+    }
+
+    /**
+     * Get the current difficulty estimate of a question
+     * @param questionId question id
+     * @return difficulty on the logit scale, or NaN if the engine does not know the question
+     */
+    public double getDifficulty(int questionId) {
+        int index = store.indexOfId(questionId);
+        if (index < 0 || index >= indexed) {
+            return Double.NaN;
+        }
+        return Float.intBitsToFloat(page(index).ratings.get(index & (PAGE_SIZE - 1)));
+    }
+
+    private synchronized void indexNewQuestions() {
+        int size = store.size();
+        int from = indexed;
+        if (from >= size) {
+            return;
+        }
+        int pageCount = (size + PAGE_SIZE - 1) >>> PAGE_BITS;
+        Page[] current = pages;
+        if (pageCount > current.length) {
+            current = Arrays.copyOf(current, pageCount);
+            for (int p = pages.length; p < pageCount; p++) {
+                current[p] = new Page();
+            }
+            pages = current;
+        }
+        for (int index = from; index < size; index++) {
+            float rating = initialRating(store.getDifficulty(index));
+            int band = bandOf(rating);
+            Page page = current[index >>> PAGE_BITS];
+            int offset = index & (PAGE_SIZE - 1);
+            page.ratings.set(offset, Float.floatToIntBits(rating));
+            bands[band].add(index, 1.0);
+        }
+        indexed = size;
+    }
+
+    private static float initialRating(String difficulty) {
+        if ("easy".equalsIgnoreCase(difficulty)) {
+            return -1;
+        }
+        if ("hard".equalsIgnoreCase(difficulty)) {
+            return 1;
+        }
+        return 0;
+    }
+
+    private static int bandOf(double rating) {
+        int band = (int) Math.floor((rating - MIN_RATING) / BAND_WIDTH);
+        return Math.max(0, Math.min(BANDS - 1, band));
+    }
+
+    private static int location(int band, int slot) {
+        return band << SLOT_BITS | slot;
+    }
+
+    private Page page(int index) {
+        return pages[index >>> PAGE_BITS];
+    }
+
+    private static double weight(int exposures) {
+        return 1.0 / (1 + exposures * EXPOSURE_PENALTY);
+    }
+
+    private static double sigmoid(double x) {
+        return 1 / (1 + Math.exp(-x));
+    }
+
+    /**
+     * Draw a question whose difficulty suits the ability, excluding those already used
+     * @return store index, or -1 if every question has been used
+     */
+    private int draw(double ability, Set<Integer> used) {
+        int target = bandOf(ability - targetOffset);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int attempt = 0; attempt < MAX_REDRAWS; attempt++) {
+            int band = pickBand(target, random.nextDouble());
+            if (band < 0) {
+                break;
+            }
+            int index = bands[band].sample(random.nextDouble());
+            if (index >= 0 && used.add(index)) {
+                return index;
+            }
+        }
+        // The session has had most of what is near its level; take the closest unused question
+        for (int distance = 0; distance < BANDS; distance++) {
+            for (int band : new int[]{target - distance, target + distance}) {
+                if (band >= 0 && band < BANDS && (distance > 0 || band == target)) {
+                    int index = bands[band].firstUnused(used);
+                    if (index >= 0) {
+                        used.add(index);
+                        return index;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    private int pickBand(int target, double u) {
+        double[] mass = new double[BANDS];
+        double sum = 0;
+        for (int band = 0; band < BANDS; band++) {
+            sum += KERNEL[Math.abs(band - target)] * bands[band].total;
+            mass[band] = sum;
+        }
+        if (!(sum > 0)) {
+            return -1;
+        }
+        double point = u * sum;
+        for (int band = 0; band < BANDS; band++) {
+            if (point < mass[band]) {
+                return band;
+            }
+        }
+        return BANDS - 1;
+    }
+
+    private void served(int index) {
+        Page page = page(index);
+        int offset = index & (PAGE_SIZE - 1);
+        int exposures = page.exposures.incrementAndGet(offset);
+        int location = page.locations.get(offset);
+        if (location != MOVING) {
+            bands[location >>> SLOT_BITS].set(location & MAX_SLOTS, index, weight(exposures));
+        }
+    }
+
+    /**
+     * Move a question's difficulty against the surprise of an answer, and its
+     * band with it
+     * @param surprise outcome (1 or 0) minus the predicted chance of a correct answer
+     */
+    private void rate(int index, double surprise) {
+        Page page = page(index);
+        int offset = index & (PAGE_SIZE - 1);
+        float updated;
+        while (true) {
+            int bits = page.ratings.get(offset);
+            double rating = Float.intBitsToFloat(bits);
+            updated = (float) Math.max(MIN_RATING, Math.min(MAX_RATING, rating - DIFFICULTY_K * surprise));
+            if (page.ratings.compareAndSet(offset, bits, Float.floatToIntBits(updated))) {
+                break;
+            }
+        }
+        int band = bandOf(updated);
+        int location = page.locations.get(offset);
+        // Whoever claims the location moves the question; a concurrent update
+        // that loses the claim leaves the move to the next answer
+        if (location == MOVING || location >>> SLOT_BITS == band
+                || !page.locations.compareAndSet(offset, location, MOVING)) {
+            return;
+        }
+        bands[location >>> SLOT_BITS].remove(location & MAX_SLOTS, index);
+        bands[band].add(index, weight(page.exposures.get(offset)));
+    }
+
+    /**
+     * Rating, band location and exposure count of {@value #PAGE_SIZE} consecutive questions
+     */
+    private static final class Page {
+        final AtomicIntegerArray ratings = new AtomicIntegerArray(PAGE_SIZE);
+        final AtomicIntegerArray locations = new AtomicIntegerArray(PAGE_SIZE);
+        final AtomicIntegerArray exposures = new AtomicIntegerArray(PAGE_SIZE);
+    }
+
+    /**
+     * Questions of one difficulty band with their weights in a Fenwick tree.
+     * Removed questions keep a zero-weight slot until the band is compacted.
+     */
+    private final class Band {
+        private final int number;
+        private int[] members = new int[16];
+        private double[] weights = new double[16];
+        private double[] tree = new double[17];
+        private int size;
+        private int dead;
+        volatile double total;
+
+        Band(int number) {
+            this.number = number;
+        }
+
+        /**
+         * Add a question and record its new location. The location is set before
+         * the lock is released, so a compaction never finds a member whose
+         * location still says it is moving.
+         */
+        synchronized void add(int index, double weight) {
+            if (size == members.length) {
+                if (size >= MAX_SLOTS) {
+                    throw new IllegalStateException("Too many questions in difficulty band " + number);
+                }
+                int capacity = (int) Math.min(MAX_SLOTS, size * 2L);
+                members = Arrays.copyOf(members, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+                tree = Arrays.copyOf(tree, capacity + 1);
+            }
+            int slot = size++;
+            members[slot] = index;
+            weights[slot] = weight;
+            // A node covers (i - lowbit(i), i]; every node below it is already in place
+            int node = slot + 1;
+            tree[node] = weight + prefix(node - 1) - prefix(node - (node & -node));
+            total = prefix(size);
+            page(index).locations.set(index & (PAGE_SIZE - 1), location(number, slot));
+        }
+
+        synchronized void set(int slot, int index, double weight) {
+            if (slot < size && members[slot] == index) {
+                update(slot, weight);
+            }
+        }
+
+        synchronized void remove(int slot, int index) {
+            if (slot < size && members[slot] == index) {
+                update(slot, 0);
+                members[slot] = -1;
+                if (++dead >= MIN_COMPACTION && dead > size / 2) {
+                    compact();
+                }
+            }
+        }
+
+        /**
+         * Draw a question in proportion to its weight
+         * @param u uniform random number in [0, 1)
+         * @return store index, or -1 if the band is empty
+         */
+        synchronized int sample(double u) {
+            double remaining = u * prefix(size);
+            int node = 0;
+            for (int step = Integer.highestOneBit(Math.max(size, 1)); step > 0; step >>= 1) {
+                int next = node + step;
+                if (next <= size && tree[next] <= remaining) {
+                    node = next;
+                    remaining -= tree[next];
+                }
+            }
+            // Rounding can step past the last positive weight; fall back to its left
+            for (int slot = Math.min(node, size - 1); slot >= 0; slot--) {
+                if (weights[slot] > 0) {
+                    return members[slot];
+                }
+            }
+            return -1;
+        }
+
+        synchronized int firstUnused(Set<Integer> used) {
+            for (int slot = 0; slot < size; slot++) {
+                if (members[slot] >= 0 && !used.contains(members[slot])) {
+                    return members[slot];
+                }
+            }
+            return -1;
+        }
+
+        private void update(int slot, double weight) {
+            double delta = weight - weights[slot];
+            weights[slot] = weight;
+            for (int node = slot + 1; node <= size; node += node & -node) {
+                tree[node] += delta;
+            }
+            total = Math.max(0, prefix(size));
+        }
+
+        private double prefix(int node) {
+            double sum = 0;
+            for (; node > 0; node -= node & -node) {
+                sum += tree[node];
+            }
+            return sum;
+        }
+
+        /**
+         * Drop removed slots and rebuild the tree in O(n). Members that are being
+         * moved out concurrently are dropped too; their mover finds them gone.
+         */
+        private void compact() {
+            int kept = 0;
+            for (int slot = 0; slot < size; slot++) {
+                int index = members[slot];
+                if (index < 0) {
+                    continue;
+                }
+                AtomicIntegerArray locations = page(index).locations;
+                int offset = index & (PAGE_SIZE - 1);
+                if (locations.compareAndSet(offset, location(number, slot), location(number, kept))) {
+                    members[kept] = index;
+                    weights[kept] = weights[slot];
+                    kept++;
+                }
+            }
+            Arrays.fill(members, kept, size, -1);
+            Arrays.fill(weights, kept, size, 0);
+            Arrays.fill(tree, 0);
+            size = kept;
+            dead = 0;
+            for (int node = 1; node <= size; node++) {
+                tree[node] += weights[node - 1];
+                int parent = node + (node & -node);
+                if (parent <= size) {
+                    tree[parent] += tree[node];
+                }
+            }
+            total = prefix(size);
+        }
+    }
+
+    /**
+     * One session's ability estimate and the questions it has had
+     */
+    private final class Selector implements QuestionSelector {
+        private final Set<Integer> used = new HashSet<>();
+        private double ability;
+        private int answered;
+        private int current = -1;
+
+        @Override
+        public Question first() {
+            return serve();
+        }
+
+        @Override
+        public Question next(Question answeredQuestion, int answer, boolean correct) {
+            if (current >= 0 && answer != QuizSession.SKIPPED) {
+                // A timeout counts as a wrong answer
+                double difficulty = Float.intBitsToFloat(page(current).ratings.get(current & (PAGE_SIZE - 1)));
+                double surprise = (correct ? 1 : 0) - sigmoid(ability - difficulty);
+                answered++;
+                ability += ABILITY_K / Math.sqrt(answered) * surprise;
+                ability = Math.max(MIN_RATING, Math.min(MAX_RATING, ability));
+                rate(current, surprise);
+            }
+            return serve();
+        }
+
+        private Question serve() {
+            current = draw(ability, used);
+            if (current < 0) {
+                return null;
+            }
+            served(current);
+            return store.get(current);
+        }
+
+        @Override
+        public String toString() {
+            return "Selector{ability=" + ability + ", answered=" + answered + '}';
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.quizgenerator.service;
+
+import com.quizgenerator.model.MappedQuestionBank;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+
+/**
+ * Compiles a JSONL or CSV question bank into a {@link MappedQuestionBank} image.
+ *
+ * Usage: {@code BankImageCompiler --bank=bank.jsonl --out=bank.qbi}. The bank is
+ * parsed and validated once, the image is written and its checksum verified, and
+ * from then on the image can be passed wherever a bank file is accepted.
+ */
+public class BankImageCompiler {
+    public static void main(String[] args) throws IOException {
+        String bank = null;
+        String out = null;
+        for (String arg : args) {
+            if (arg.startsWith("--bank=")) {
+                bank = arg.substring("--bank=".length());
+            } else if (arg.startsWith("--out=")) {
+                out = arg.substring("--out=".length());
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (bank == null || out == null) {
+            throw new IllegalArgumentException("Usage: BankImageCompiler --bank=<bank file> --out=<image file>");
+        }
+
+        long start = System.nanoTime();
+        QuestionService questionService = new QuestionService(Collections.emptyList());
+        QuestionBankLoader.LoadResult result = new QuestionBankLoader().load(Paths.get(bank), questionService);
+        System.out.println("Loaded " + result.getQuestionsLoaded() + " questions, skipped "
+                + result.getLinesRejected() + " malformed lines");
+        BankValidator.Report report = new BankValidator().validate(questionService.getQuestionBank(), null);
+        System.out.println("Validation: " + report);
+
+        Path image = Paths.get(out);
+        MappedQuestionBank.write(questionService.getQuestionBank(), image);
+        MappedQuestionBank.open(image).verify();
+        System.out.println("Wrote " + image + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
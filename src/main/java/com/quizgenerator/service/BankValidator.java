@@ -0,0 +1,555 @@
+package com.quizgenerator.service;
+
+import com.quizgenerator.model.QuestionBank;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Checks a question bank for structural errors and near-duplicate questions.
+ *
+ * Validation runs on a {@link ForkJoinPool} in two passes, each split into
+ * independent tasks so it scales with the number of cores. The first pass
+ * checks every question on its own (text, options, answer index, time limit,
+ * id) and computes a MinHash signature of its word shingles. The second pass
+ * finds near duplicates with locality-sensitive hashing: the signature is cut
+ * into bands, questions whose band hashes collide become candidate pairs, and
+ * each candidate pair is confirmed by computing the exact Jaccard similarity
+ * of the two shingle sets. Issues are streamed to an {@link IssueListener} as
+ * soon as they are found.
+ */
+public class BankValidator {
+    public static final int DEFAULT_MAX_TIME_LIMIT = 600;
+    public static final double DEFAULT_SIMILARITY = 0.8;
+
+    private static final int RANGE_THRESHOLD = 2048;
+    private static final int BANDS = 8;
+    private static final int ROWS = 4;
+    private static final int MAX_BUCKET_COMPARISONS = 64;
+    private static final long[] SEEDS = new long[BANDS * ROWS];
+
+    static {
+        long seed = 0x2545F4914F6CDD1DL;
+        for (int i = 0; i < SEEDS.length; i++) {
+            seed = mix(seed + 0x9E3779B97F4A7C15L);
+            SEEDS[i] = seed;
+        }
+    }
+
+    /**
+     * Kinds of problems the validator reports
+     */
+    public enum IssueType {
+        EMPTY_TEXT,
+        TOO_FEW_OPTIONS,
+        EMPTY_OPTION,
+        DUPLICATE_OPTION,
+        ANSWER_OUT_OF_BOUNDS,
+        INVALID_TIME_LIMIT,
+        DUPLICATE_ID,
+        NEAR_DUPLICATE
+    }
+
+    /**
+     * One problem found in one question
+     */
+    public static class Issue {
+        private final IssueType type;
+        private final int questionId;
+        private final int otherQuestionId;
+        private final String detail;
+
+        Issue(IssueType type, int questionId, int otherQuestionId, String detail) {
+            this.type = type;
+            this.questionId = questionId;
+            this.otherQuestionId = otherQuestionId;
+            this.detail = detail;
+        }
+
+        public IssueType getType() {
+            return type;
+        }
+
+        public int getQuestionId() {
+            return questionId;
+        }
+
+        /**
+         * Get the earlier question this one duplicates
+         * @return question id, or -1 for issues that concern a single question
+         */
+        public int getOtherQuestionId() {
+            return otherQuestionId;
+        }
+
+        public String getDetail() {
+            return detail;
+        }
+
+        @Override
+        public String toString() {
+            return "Question " + questionId + ": " + type + " - " + detail;
+        }
+    }
+
+    /**
+     * Receives issues while a bank is being validated. Calls come from pool
+     * threads, one at a time, in no particular order.
+     */
+    public interface IssueListener {
+        void onIssue(Issue issue);
+    }
+
+    /**
+     * Summary of a completed validation
+     */
+    public static class Report {
+        private final int questionsChecked;
+        private final int[] issueCounts;
+        private final long elapsedMillis;
+
+        Report(int questionsChecked, int[] issueCounts, long elapsedMillis) {
+            this.questionsChecked = questionsChecked;
+            this.issueCounts = issueCounts;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public int getQuestionsChecked() {
+            return questionsChecked;
+        }
+
+        public int getIssueCount(IssueType type) {
+            return issueCounts[type.ordinal()];
+        }
+
+        /**
+         * Get the number of issues of all types
+         * @return total issue count
+         */
+        public int getIssueCount() {
+            int total = 0;
+            for (int count : issueCounts) {
+                total += count;
+            }
+            return total;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(getIssueCount()).append(" issues in ").append(questionsChecked).append(" questions");
+            String separator = " (";
+            for (IssueType type : IssueType.values()) {
+                if (issueCounts[type.ordinal()] > 0) {
+                    sb.append(separator).append(type.name().toLowerCase(Locale.ROOT).replace('_', ' '))
+                            .append(": ").append(issueCounts[type.ordinal()]);
+                    separator = ", ";
+                }
+            }
+            return sb.append(separator.equals(", ") ? ")" : "").toString();
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final int maxTimeLimit;
+    private final double similarityThreshold;
+
+    public BankValidator() {
+        this(ForkJoinPool.commonPool(), DEFAULT_MAX_TIME_LIMIT, DEFAULT_SIMILARITY);
+    }
+
+    /**
+     * @param pool pool the validation tasks run on
+     * @param maxTimeLimit largest accepted time limit in seconds
+     * @param similarityThreshold Jaccard similarity of word shingles from which two
+     *                            questions are reported as near duplicates, in (0, 1]
+     */
+    public BankValidator(ForkJoinPool pool, int maxTimeLimit, double similarityThreshold) {
+        if (maxTimeLimit <= 0) {
+            throw new IllegalArgumentException("Maximum time limit must be positive: " + maxTimeLimit);
+        }
+        if (!(similarityThreshold > 0 && similarityThreshold <= 1)) {
+            throw new IllegalArgumentException("Similarity threshold must be in (0, 1]: " + similarityThreshold);
+        }
+        this.pool = pool;
+        this.maxTimeLimit = maxTimeLimit;
+        this.similarityThreshold = similarityThreshold;
+    }
+
+    /**
+     * Validate every question currently in the store
+     * @param store questions to check
+     * @param listener receives each issue as it is found, may be null
+     * @return issue counts per type
+     */
+    public Report validate(QuestionBank store, IssueListener listener) {
+        long startNanos = System.nanoTime();
+        Run run = new Run(store, listener);
+        pool.invoke(new QuestionTask(run, 0, run.size));
+
+        int partitionBits = Math.max(1, 32 - Integer.numberOfLeadingZeros(pool.getParallelism() - 1));
+        List<BandTask> bands = new ArrayList<>();
+        for (int band = 0; band < BANDS; band++) {
+            bands.add(new BandTask(run, band, partitionBits));
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(bands);
+            }
+        });
+
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        synchronized (run) {
+            return new Report(run.size, run.issueCounts.clone(), elapsedMillis);
+        }
+    }
+
+    /**
+     * State shared by the tasks of one validation
+     */
+    private final class Run {
+        final QuestionBank store;
+        final IssueListener listener;
+        final int size;
+        final int[][] bandHashes;
+        final boolean[] unhashed;
+        final int[] issueCounts = new int[IssueType.values().length];
+
+        Run(QuestionBank store, IssueListener listener) {
+            this.store = store;
+            this.listener = listener;
+            this.size = store.size();
+            this.bandHashes = new int[BANDS][size];
+            this.unhashed = new boolean[size];
+        }
+
+        synchronized void report(IssueType type, int index, int otherIndex, String detail) {
+            issueCounts[type.ordinal()]++;
+            if (listener != null) {
+                listener.onIssue(new Issue(type, store.getId(index),
+                        otherIndex >= 0 ? store.getId(otherIndex) : -1, detail));
+            }
+        }
+
+        void checkQuestion(int index) {
+            String text = store.getQuestionText(index);
+            if (text == null || text.trim().isEmpty()) {
+                report(IssueType.EMPTY_TEXT, index, -1, "question text is empty");
+            }
+
+            int optionCount = store.getOptionCount(index);
+            if (optionCount < 2) {
+                report(IssueType.TOO_FEW_OPTIONS, index, -1, optionCount + " options");
+            }
+            String[] options = new String[optionCount];
+            for (int i = 0; i < optionCount; i++) {
+                String option = store.getOption(index, i);
+                options[i] = option == null ? "" : option.trim().toLowerCase(Locale.ROOT);
+                if (options[i].isEmpty()) {
+                    report(IssueType.EMPTY_OPTION, index, -1, "option " + (i + 1) + " is empty");
+                    continue;
+                }
+                for (int j = 0; j < i; j++) {
+                    if (options[i].equals(options[j])) {
+                        report(IssueType.DUPLICATE_OPTION, index, -1, "option " + (i + 1) + " repeats option "
+                                + (j + 1) + " \"" + option.trim() + "\"");
+                        break;
+                    }
+                }
+            }
+
+            int correctAnswer = store.getCorrectAnswer(index);
+            if (correctAnswer < 0 || correctAnswer >= optionCount) {
+                report(IssueType.ANSWER_OUT_OF_BOUNDS, index, -1,
+                        "correct answer " + correctAnswer + " with " + optionCount + " options");
+            }
+            int timeLimit = store.getTimeLimit(index);
+            if (timeLimit <= 0 || timeLimit > maxTimeLimit) {
+                report(IssueType.INVALID_TIME_LIMIT, index, -1,
+                        "time limit " + timeLimit + "s outside 1.." + maxTimeLimit + "s");
+            }
+            int first = store.indexOfId(store.getId(index));
+            if (first != index) {
+                report(IssueType.DUPLICATE_ID, index, first, "id already used by an earlier question");
+            }
+
+            long[] shingles = shingles(store, index);
+            if (shingles.length == 0) {
+                unhashed[index] = true;
+                return;
+            }
+            for (int band = 0; band < BANDS; band++) {
+                long bandHash = 0;
+                for (int row = 0; row < ROWS; row++) {
+                    long seed = SEEDS[band * ROWS + row];
+                    long min = Long.MAX_VALUE;
+                    for (long shingle : shingles) {
+                        min = Math.min(min, mix(shingle ^ seed));
+                    }
+                    bandHash = mix(bandHash ^ min);
+                }
+                bandHashes[band][index] = (int) (bandHash >>> 32);
+            }
+        }
+
+        /**
+         * Compare each question of a colliding band bucket with the earlier
+         * questions of the bucket and report the first near duplicate
+         */
+        void checkBucket(long[] keys, int from, int to, int band) {
+            for (int j = from + 1; j < to; j++) {
+                int later = (int) keys[j];
+                long[] laterShingles = null;
+                for (int i = Math.max(from, j - MAX_BUCKET_COMPARISONS); i < j; i++) {
+                    int earlier = (int) keys[i];
+                    if (collidedBefore(earlier, later, band)) {
+                        continue;
+                    }
+                    if (laterShingles == null) {
+                        laterShingles = shingles(store, later);
+                    }
+                    double similarity = jaccard(shingles(store, earlier), laterShingles);
+                    if (similarity >= similarityThreshold) {
+                        report(IssueType.NEAR_DUPLICATE, later, earlier,
+                                String.format(Locale.ROOT, "%.0f%% similar to question %d",
+                                        similarity * 100, store.getId(earlier)));
+                        break;
+                    }
+                }
+            }
+        }
+
+        /**
+         * A pair that shares an earlier band was already checked in that band
+         */
+        private boolean collidedBefore(int a, int b, int band) {
+            for (int earlierBand = 0; earlierBand < band; earlierBand++) {
+                if (bandHashes[earlierBand][a] == bandHashes[earlierBand][b]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Checks a range of questions, splitting it while it is large
+     */
+    private static final class QuestionTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Run run;
+        private final int from;
+        private final int to;
+
+        QuestionTask(Run run, int from, int to) {
+            this.run = run;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= RANGE_THRESHOLD) {
+                for (int index = from; index < to; index++) {
+                    run.checkQuestion(index);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new QuestionTask(run, from, mid), new QuestionTask(run, mid, to));
+        }
+    }
+
+    /**
+     * Groups the questions of one band by hash and checks the groups that
+     * collide. The keys are first distributed by the top bits of the hash, then
+     * each partition is sorted and scanned by its own subtask.
+     */
+    private static final class BandTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Run run;
+        private final int band;
+        private final int partitionBits;
+
+        BandTask(Run run, int band, int partitionBits) {
+            this.run = run;
+            this.band = band;
+            this.partitionBits = partitionBits;
+        }
+
+        @Override
+        protected void compute() {
+            int[] hashes = run.bandHashes[band];
+            int shift = 32 - partitionBits;
+            int[] starts = new int[(1 << partitionBits) + 1];
+            for (int index = 0; index < run.size; index++) {
+                if (!run.unhashed[index]) {
+                    starts[(hashes[index] >>> shift) + 1]++;
+                }
+            }
+            for (int p = 0; p < 1 << partitionBits; p++) {
+                starts[p + 1] += starts[p];
+            }
+            // Hash in the high half, index in the low half: sorting groups each bucket in index order
+            long[] keys = new long[starts[1 << partitionBits]];
+            int[] next = Arrays.copyOf(starts, 1 << partitionBits);
+            for (int index = 0; index < run.size; index++) {
+                if (!run.unhashed[index]) {
+                    keys[next[hashes[index] >>> shift]++] = (long) hashes[index] << 32 | index;
+                }
+            }
+            List<RecursiveAction> partitions = new ArrayList<>();
+            for (int p = 0; p < 1 << partitionBits; p++) {
+                int from = starts[p];
+                int to = starts[p + 1];
+                partitions.add(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        scan(keys, from, to);
+                    }
+                });
+            }
+            invokeAll(partitions);
+        }
+
+        private void scan(long[] keys, int from, int to) {
+            Arrays.sort(keys, from, to);
+            int start = from;
+            for (int i = from + 1; i <= to; i++) {
+                if (i == to || keys[i] >>> 32 != keys[start] >>> 32) {
+                    if (i - start > 1) {
+                        run.checkBucket(keys, start, i, band);
+                    }
+                    start = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * Hash the word bigrams of the question text, and each whole option, into a
+     * sorted set. A single-word question contributes its word.
+     */
+    static long[] shingles(QuestionBank store, int index) {
+        long[] hashes = new long[16];
+        int count = 0;
+        String text = store.getQuestionText(index);
+        if (text != null) {
+            long previous = 0;
+            int words = 0;
+            int length = text.length();
+            int i = 0;
+            while (i < length) {
+                while (i < length && !Character.isLetterOrDigit(text.charAt(i))) {
+                    i++;
+                }
+                if (i == length) {
+                    break;
+                }
+                long word = 0x84222325CBF29CE4L;
+                while (i < length && Character.isLetterOrDigit(text.charAt(i))) {
+                    word = (word ^ Character.toLowerCase(text.charAt(i++))) * 0x100000001B3L;
+                }
+                if (words++ > 0) {
+                    if (count == hashes.length) {
+                        hashes = Arrays.copyOf(hashes, count * 2);
+                    }
+                    hashes[count++] = mix(previous * 31 + word);
+                }
+                previous = word;
+            }
+            if (words == 1) {
+                hashes[count++] = mix(previous * 31);
+            }
+        }
+        int options = store.getOptionCount(index);
+        for (int option = 0; option < options; option++) {
+            String value = store.getOption(index, option);
+            if (value != null && !value.trim().isEmpty()) {
+                if (count == hashes.length) {
+                    hashes = Arrays.copyOf(hashes, count * 2);
+                }
+                hashes[count++] = mix(value.trim().toLowerCase(Locale.ROOT).hashCode() ^ 0x5DEECE66DL);
+            }
+        }
+        Arrays.sort(hashes, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || hashes[i] != hashes[i - 1]) {
+                hashes[distinct++] = hashes[i];
+            }
+        }
+        return Arrays.copyOf(hashes, distinct);
+    }
+
+    private static double jaccard(long[] a, long[] b) {
+        int shared = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                shared++;
+                i++;
+                j++;
+            }
+        }
+        return (double) shared / (a.length + b.length - shared);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Validate a bank file, or the bundled bank, and print every issue as it is found
+     */
+    public static void main(String[] args) throws IOException {
+        String bank = null;
+        int maxTimeLimit = DEFAULT_MAX_TIME_LIMIT;
+        double similarity = DEFAULT_SIMILARITY;
+        for (String arg : args) {
+            if (arg.startsWith("--bank=")) {
+                bank = arg.substring("--bank=".length());
+            } else if (arg.startsWith("--max-time-limit=")) {
+                maxTimeLimit = Integer.parseInt(arg.substring("--max-time-limit=".length()));
+            } else if (arg.startsWith("--similarity=")) {
+                similarity = Double.parseDouble(arg.substring("--similarity=".length()));
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        QuestionService questionService;
+        if (bank != null) {
+            questionService = new QuestionService(Collections.emptyList());
+            QuestionBankLoader.LoadResult result = new QuestionBankLoader().load(Paths.get(bank), questionService);
+            System.out.println("Loaded " + result.getQuestionsLoaded() + " questions, skipped "
+                    + result.getLinesRejected() + " malformed lines");
+        } else {
+            questionService = new QuestionService();
+        }
+        BankValidator validator = new BankValidator(ForkJoinPool.commonPool(), maxTimeLimit, similarity);
+        Report report = validator.validate(questionService.getQuestionBank(), System.out::println);
+        System.out.println(report + " in " + report.getElapsedMillis() + " ms");
+    }
+}
@@ -0,0 +1,99 @@
+package com.quizgenerator.service;
+
+import com.quizgenerator.metrics.QuizMetrics;
+import com.quizgenerator.model.Question;
+import com.quizgenerator.model.QuizSession;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives per-question time limits for all sessions from one shared
+ * {@link HierarchicalTimingWheel}.
+ *
+ * Scheduling a deadline costs one small timer entry; there is no thread or
+ * executor per question or per session. When a deadline passes before the
+ * question was answered, the question is marked as timed out on the session and
+ * the session's callback is invoked on the ticker thread.
+ */
+public class DeadlineService implements AutoCloseable {
+    /**
+     * Callback for questions whose time limit passed without an answer
+     */
+    public interface TimeoutListener {
+        /**
+         * Called after the question has been marked as timed out
+         * @param session the session
+         * @param position position of the timed-out question
+         */
+        void onTimeout(QuizSession session, int position);
+    }
+
+    private final HierarchicalTimingWheel wheel;
+    private final QuizMetrics metrics;
+
+    public DeadlineService() {
+        this(new HierarchicalTimingWheel());
+    }
+
+    public DeadlineService(HierarchicalTimingWheel wheel) {
+        this(wheel, null);
+    }
+
+    /**
+     * @param wheel timing wheel driving the deadlines
+     * @param metrics metrics to record how late timeouts are handled, may be null
+     */
+    public DeadlineService(HierarchicalTimingWheel wheel, QuizMetrics metrics) {
+        this.wheel = wheel;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Start the clock for the session's current question
+     * @param session session whose current question is being shown
+     * @param listener callback when the question times out, may be null
+     * @return handle to cancel the deadline once the question is answered, or null if
+     *         the session has no current question
+     */
+    public HierarchicalTimingWheel.Timeout scheduleCurrentQuestion(QuizSession session, TimeoutListener listener) {
+        return scheduleQuestion(session, session.getCurrentQuestionIndex(), listener);
+    }
+
+    /**
+     * Start the clock for a question the session has reached
+     * @param session session whose question is being shown
+     * @param position position of the question
+     * @param listener callback when the question times out, may be null
+     * @return handle to cancel the deadline once the question is answered, or null if
+     *         the session is not at that position
+     */
+    public HierarchicalTimingWheel.Timeout scheduleQuestion(QuizSession session, int position,
+                                                            TimeoutListener listener) {
+        if (position != session.getCurrentQuestionIndex() || position >= session.getTotalQuestions()
+                || session.isCompleted()) {
+            return null;
+        }
+        Question question = session.getQuestions().get(position);
+        // Count from when the session served the question, not from this call
+        long deadlineNanos = session.getServedNanos(position) + TimeUnit.SECONDS.toNanos(question.getTimeLimit());
+        long delayNanos = Math.max(0, deadlineNanos - System.nanoTime());
+        return wheel.schedule(() -> {
+            if (session.timeOutQuestion(position)) {
+                if (listener != null) {
+                    listener.onTimeout(session, position);
+                }
+                if (metrics != null) {
+                    metrics.recordTimerExpiry(deadlineNanos);
+                }
+            }
+        }, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stop the shared ticker thread
+     */
+    @Override
+    public void close() {
+        wheel.close();
+    }
+}
@@ -0,0 +1,308 @@
+package com.quizgenerator.service;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hierarchical timing wheel driven by a single ticker thread.
+ *
+ * Timers are kept in {@value #LEVELS} wheels of {@value #WHEEL_SIZE} slots each. Level 0
+ * slots are one tick wide, level 1 slots are {@value #WHEEL_SIZE} ticks wide, and so on;
+ * when a lower wheel wraps around, the matching slot of the wheel above is cascaded
+ * down. With the default 10 ms tick this covers about 46 hours before timers have
+ * to be parked in the top wheel and re-evaluated.
+ *
+ * {@link #schedule} and {@link Timeout#cancel()} are O(1) and lock-free: new timers
+ * are handed to the ticker through a concurrent queue, and cancellation is a single
+ * CAS on the timer state followed by an O(1) unlink on the ticker thread. Timer
+ * tasks run on the ticker thread and must be short; long work should be handed off.
+ */
+public class HierarchicalTimingWheel implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(HierarchicalTimingWheel.class.getName());
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+
+    /**
+     * Handle for a scheduled task
+     */
+    public interface Timeout {
+        /**
+         * Cancel the task if it has not started yet
+         * @return true if cancelled, false if it already expired or was cancelled
+         */
+        boolean cancel();
+
+        boolean isExpired();
+
+        boolean isCancelled();
+    }
+
+    private final long tickNanos;
+    private final LongSupplier clock;
+    private final long startNanos;
+    private final Bucket[][] wheels = new Bucket[LEVELS][WHEEL_SIZE];
+    private final ConcurrentLinkedQueue<TimerEntry> additions = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<TimerEntry> cancellations = new ConcurrentLinkedQueue<>();
+    private final Thread ticker;
+
+    // Owned by the ticker thread
+    private long currentTick;
+    private int activeTimers;
+
+    private volatile boolean idle;
+    private volatile boolean closed;
+
+    /**
+     * Create a wheel with a 10 millisecond tick
+     */
+    public HierarchicalTimingWheel() {
+        this(10, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Create a wheel
+     * @param tickDuration resolution of the wheel
+     * @param unit unit of tickDuration
+     */
+    public HierarchicalTimingWheel(long tickDuration, TimeUnit unit) {
+        this(tickDuration, unit, System::nanoTime);
+    }
+
+    /**
+     * Create a wheel that reads time from the given clock, e.g. a manual one in tests
+     * @param tickDuration resolution of the wheel
+     * @param unit unit of tickDuration
+     * @param clock monotonic time in nanoseconds, like {@link System#nanoTime()}
+     */
+    HierarchicalTimingWheel(long tickDuration, TimeUnit unit, LongSupplier clock) {
+        this.tickNanos = Math.max(1, unit.toNanos(tickDuration));
+        this.clock = clock;
+        for (Bucket[] wheel : wheels) {
+            for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+                wheel[slot] = new Bucket();
+            }
+        }
+        this.startNanos = clock.getAsLong();
+        this.ticker = new Thread(this::run, "timing-wheel-ticker");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    /**
+     * Schedule a task to run once after the given delay
+     * @param task task to run on the ticker thread
+     * @param delay delay before running
+     * @param unit unit of delay
+     * @return handle that can cancel the task
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (closed) {
+            throw new IllegalStateException("Timing wheel is closed");
+        }
+        long deadlineNanos = clock.getAsLong() - startNanos + Math.max(0, unit.toNanos(delay));
+        TimerEntry entry = new TimerEntry(this, task, (deadlineNanos + tickNanos - 1) / tickNanos);
+        additions.add(entry);
+        if (idle) {
+            LockSupport.unpark(ticker);
+        }
+        return entry;
+    }
+
+    /**
+     * Stop the ticker thread. Pending tasks are dropped.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(ticker);
+    }
+
+    private void run() {
+        while (!closed) {
+            long nextTickNanos = startNanos + (currentTick + 1) * tickNanos;
+            long waitNanos = nextTickNanos - clock.getAsLong();
+            if (waitNanos > 0) {
+                if (activeTimers == 0 && additions.isEmpty()) {
+                    idle = true;
+                    if (additions.isEmpty()) {
+                        LockSupport.park(this);
+                    }
+                    idle = false;
+                    // Nothing was pending, so skip the ticks spent idle, and take the new
+                    // timers now so any already due do not wait for the next tick
+                    currentTick = Math.max(currentTick, (clock.getAsLong() - startNanos) / tickNanos);
+                    drainAdditions();
+                } else {
+                    LockSupport.parkNanos(this, waitNanos);
+                }
+                continue;
+            }
+
+            drainCancellations();
+            drainAdditions();
+            advance();
+        }
+    }
+
+    private void drainAdditions() {
+        TimerEntry entry;
+        while ((entry = additions.poll()) != null) {
+            if (entry.state == TimerEntry.PENDING) {
+                activeTimers++;
+                insert(entry);
+            }
+        }
+    }
+
+    private void drainCancellations() {
+        TimerEntry entry;
+        while ((entry = cancellations.poll()) != null) {
+            if (entry.bucket != null) {
+                entry.bucket.unlink(entry);
+                activeTimers--;
+            }
+        }
+    }
+
+    private void advance() {
+        currentTick++;
+        // Cascade from the highest wheel that wrapped down to level 1
+        int level = 0;
+        while (level < LEVELS - 1 && ((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK) == 0) {
+            level++;
+        }
+        for (; level > 0; level--) {
+            Bucket bucket = wheels[level][(int) ((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK)];
+            TimerEntry entry;
+            while ((entry = bucket.poll()) != null) {
+                insert(entry);
+            }
+        }
+
+        Bucket due = wheels[0][(int) (currentTick & WHEEL_MASK)];
+        TimerEntry entry;
+        while ((entry = due.poll()) != null) {
+            expire(entry);
+        }
+    }
+
+    private void insert(TimerEntry entry) {
+        long delta = entry.deadlineTick - currentTick;
+        if (delta <= 0) {
+            expire(entry);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = WHEEL_BITS * level;
+            if (delta < (1L << (shift + WHEEL_BITS))) {
+                wheels[level][(int) ((entry.deadlineTick >>> shift) & WHEEL_MASK)].add(entry);
+                return;
+            }
+        }
+        // Beyond the top wheel: park in the furthest top slot and re-evaluate on cascade
+        int topShift = WHEEL_BITS * (LEVELS - 1);
+        wheels[LEVELS - 1][(int) (((currentTick >>> topShift) + WHEEL_MASK) & WHEEL_MASK)].add(entry);
+    }
+
+    private void expire(TimerEntry entry) {
+        activeTimers--;
+        if (!TimerEntry.STATE.compareAndSet(entry, TimerEntry.PENDING, TimerEntry.EXPIRED)) {
+            return;
+        }
+        try {
+            entry.task.run();
+        } catch (Throwable e) {
+            // This is the only ticker thread; if it died every deadline would stop firing
+            LOG.log(Level.WARNING, "Timer task failed", e);
+        }
+    }
+
+    /**
+     * Intrusive doubly linked list of timers in one slot. Only touched by the ticker.
+     */
+    private static final class Bucket {
+        private TimerEntry head;
+
+        void add(TimerEntry entry) {
+            entry.bucket = this;
+            entry.prev = null;
+            entry.next = head;
+            if (head != null) {
+                head.prev = entry;
+            }
+            head = entry;
+        }
+
+        void unlink(TimerEntry entry) {
+            if (entry.prev != null) {
+                entry.prev.next = entry.next;
+            } else {
+                head = entry.next;
+            }
+            if (entry.next != null) {
+                entry.next.prev = entry.prev;
+            }
+            entry.prev = null;
+            entry.next = null;
+            entry.bucket = null;
+        }
+
+        TimerEntry poll() {
+            TimerEntry entry = head;
+            if (entry != null) {
+                unlink(entry);
+            }
+            return entry;
+        }
+    }
+
+    private static final class TimerEntry implements Timeout {
+        static final int PENDING = 0;
+        static final int CANCELLED = 1;
+        static final int EXPIRED = 2;
+        static final AtomicIntegerFieldUpdater<TimerEntry> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(TimerEntry.class, "state");
+
+        final HierarchicalTimingWheel wheel;
+        final Runnable task;
+        final long deadlineTick;
+        volatile int state;
+
+        // Owned by the ticker thread
+        Bucket bucket;
+        TimerEntry prev;
+        TimerEntry next;
+
+        TimerEntry(HierarchicalTimingWheel wheel, Runnable task, long deadlineTick) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                return false;
+            }
+            wheel.cancellations.add(this);
+            return true;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+    }
+}
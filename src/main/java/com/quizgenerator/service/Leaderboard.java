@@ -0,0 +1,219 @@
+package com.quizgenerator.service;
+
+import com.quizgenerator.model.QuizSession;
+import com.quizgenerator.model.SessionListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ranks completed sessions globally and per quiz size.
+ *
+ * Each board is a {@link ConcurrentSkipListSet} ordered by score (highest
+ * first), then duration (shortest first), then completion order, so sessions
+ * completing at the same moment are inserted without a shared lock. Boards
+ * keep only their best {@code capacity} entries: once full, a session that
+ * would rank last is not added, and every insert past the capacity drops the
+ * worst entry. Top-K walks the head of the set, and a rank counts the entries
+ * ahead of the session, which is bounded by the capacity.
+ *
+ * Register the leaderboard as a {@link SessionListener}, e.g. with
+ * {@link QuizService#setLeaderboard(Leaderboard)}; sessions are added when
+ * they complete.
+ */
+public class Leaderboard implements SessionListener {
+    public static final int DEFAULT_CAPACITY = 10_000;
+
+    private static final Comparator<Entry> ORDER = (a, b) -> {
+        if (a.score != b.score) {
+            return Integer.compare(b.score, a.score);
+        }
+        if (a.durationSeconds != b.durationSeconds) {
+            return Long.compare(a.durationSeconds, b.durationSeconds);
+        }
+        return Long.compare(a.sequence, b.sequence);
+    };
+
+    /**
+     * A completed session on the leaderboard
+     */
+    public static class Entry {
+        private final String sessionId;
+        private final int score;
+        private final int totalQuestions;
+        private final int correctAnswers;
+        private final long durationSeconds;
+        private final long sequence;
+
+        Entry(String sessionId, int score, int totalQuestions, int correctAnswers, long durationSeconds,
+              long sequence) {
+            this.sessionId = sessionId;
+            this.score = score;
+            this.totalQuestions = totalQuestions;
+            this.correctAnswers = correctAnswers;
+            this.durationSeconds = durationSeconds;
+            this.sequence = sequence;
+        }
+
+        public String getSessionId() {
+            return sessionId;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public int getTotalQuestions() {
+            return totalQuestions;
+        }
+
+        public int getCorrectAnswers() {
+            return correctAnswers;
+        }
+
+        public long getDurationInSeconds() {
+            return durationSeconds;
+        }
+
+        @Override
+        public String toString() {
+            return "Entry{" +
+                    "sessionId='" + sessionId + '\'' +
+                    ", score=" + score +
+                    ", totalQuestions=" + totalQuestions +
+                    ", correctAnswers=" + correctAnswers +
+                    ", durationSeconds=" + durationSeconds +
+                    '}';
+        }
+    }
+
+    private final int capacity;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Board global = new Board();
+    private final ConcurrentHashMap<Integer, Board> bySize = new ConcurrentHashMap<>();
+
+    public Leaderboard() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity number of entries each board keeps
+     */
+    public Leaderboard(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void onSessionCompleted(QuizSession session) {
+        Entry entry = new Entry(session.getSessionId(), session.getScore(), session.getTotalQuestions(),
+                session.getCorrectAnswersCount(), session.getDurationInSeconds(), sequence.incrementAndGet());
+        global.add(entry);
+        bySize.computeIfAbsent(entry.totalQuestions, size -> new Board()).add(entry);
+    }
+
+    /**
+     * Get the best sessions across all quiz sizes
+     * @param limit maximum number of entries
+     * @return entries, best first
+     */
+    public List<Entry> getTop(int limit) {
+        return global.top(limit);
+    }
+
+    /**
+     * Get the best sessions of a quiz size
+     * @param quizSize number of questions in the quiz
+     * @param limit maximum number of entries
+     * @return entries, best first
+     */
+    public List<Entry> getTop(int quizSize, int limit) {
+        Board board = bySize.get(quizSize);
+        return board != null ? board.top(limit) : Collections.emptyList();
+    }
+
+    /**
+     * Get the position of a session across all quiz sizes
+     * @param sessionId session id
+     * @return 1-based rank, or -1 if the session is not on the board
+     */
+    public int getRank(String sessionId) {
+        return global.rank(sessionId);
+    }
+
+    /**
+     * Get the position of a session among quizzes of its size
+     * @param quizSize number of questions in the session's quiz
+     * @param sessionId session id
+     * @return 1-based rank, or -1 if the session is not on the board
+     */
+    public int getRank(int quizSize, String sessionId) {
+        Board board = bySize.get(quizSize);
+        return board != null ? board.rank(sessionId) : -1;
+    }
+
+    /**
+     * Get the number of sessions on the global board
+     * @return entry count, at most the capacity
+     */
+    public int getEntryCount() {
+        return global.count.get();
+    }
+
+    /**
+     * One bounded ranking with an index from session id to entry
+     */
+    private final class Board {
+        final ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>(ORDER);
+        final ConcurrentHashMap<String, Entry> bySession = new ConcurrentHashMap<>();
+        final AtomicInteger count = new AtomicInteger();
+
+        void add(Entry entry) {
+            if (count.get() >= capacity) {
+                try {
+                    if (ORDER.compare(entry, entries.last()) > 0) {
+                        return;
+                    }
+                } catch (NoSuchElementException e) {
+                    // Emptied concurrently; insert as usual
+                }
+            }
+            bySession.put(entry.sessionId, entry);
+            entries.add(entry);
+            if (count.incrementAndGet() > capacity) {
+                Entry dropped = entries.pollLast();
+                if (dropped != null) {
+                    bySession.remove(dropped.sessionId, dropped);
+                    count.decrementAndGet();
+                }
+            }
+        }
+
+        List<Entry> top(int limit) {
+            List<Entry> result = new ArrayList<>(Math.min(Math.max(limit, 0), capacity));
+            Iterator<Entry> iterator = entries.iterator();
+            while (result.size() < limit && iterator.hasNext()) {
+                result.add(iterator.next());
+            }
+            return result;
+        }
+
+        int rank(String sessionId) {
+            Entry entry = bySession.get(sessionId);
+            if (entry == null || !entries.contains(entry)) {
+                return -1;
+            }
+            return entries.headSet(entry).size() + 1;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.quizgenerator.service;
+
+import com.quizgenerator.model.Question;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Streams an external question bank (JSONL or CSV) into a {@link QuestionService}.
+ *
+ * The file is read through a fixed-size buffer over a {@link FileChannel} and split
+ * into lines at the byte level, so only the current line is ever decoded and the
+ * raw file is never held in memory. Parsed questions are published to the service
+ * in batches, which means sessions can be created from the questions already loaded
+ * while the rest of the file is still being read. Once the whole file is in, the
+ * service's text search index is built in parallel.
+ */
+public class QuestionBankLoader {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int BATCH_SIZE = 1024;
+    private static final int PROGRESS_INTERVAL_LINES = 100_000;
+
+    /**
+     * Supported bank file formats
+     */
+    public enum Format {
+        JSONL,
+        CSV;
+
+        /**
+         * Pick the format from the file extension (.csv, otherwise JSONL)
+         * @param path bank file
+         * @return detected format
+         */
+        public static Format fromPath(Path path) {
+            String name = path.getFileName().toString().toLowerCase();
+            return name.endsWith(".csv") ? CSV : JSONL;
+        }
+    }
+
+    /**
+     * Receives progress updates while a bank is being loaded
+     */
+    public interface ProgressListener {
+        /**
+         * Called periodically and once more when loading has finished
+         * @param bytesRead bytes consumed so far
+         * @param totalBytes file size in bytes
+         * @param questionsLoaded questions published to the service so far
+         * @param linesRejected lines that could not be parsed
+         */
+        void onProgress(long bytesRead, long totalBytes, int questionsLoaded, int linesRejected);
+    }
+
+    /**
+     * Summary of a completed load
+     */
+    public static class LoadResult {
+        private final int questionsLoaded;
+        private final int linesRejected;
+        private final long bytesRead;
+        private final long elapsedMillis;
+
+        LoadResult(int questionsLoaded, int linesRejected, long bytesRead, long elapsedMillis) {
+            this.questionsLoaded = questionsLoaded;
+            this.linesRejected = linesRejected;
+            this.bytesRead = bytesRead;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public int getQuestionsLoaded() {
+            return questionsLoaded;
+        }
+
+        public int getLinesRejected() {
+            return linesRejected;
+        }
+
+        public long getBytesRead() {
+            return bytesRead;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+
+    private final ProgressListener progressListener;
+
+    public QuestionBankLoader() {
+        this(null);
+    }
+
+    public QuestionBankLoader(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Load a bank on a background thread
+     * @param path bank file
+     * @param target service that receives the questions
+     * @return future completed with the load summary
+     */
+    public CompletableFuture<LoadResult> loadAsync(Path path, QuestionService target) {
+        CompletableFuture<LoadResult> future = new CompletableFuture<>();
+        Thread loader = new Thread(() -> {
+            try {
+                future.complete(load(path, target));
+            } catch (IOException e) {
+                future.completeExceptionally(new CompletionException(e));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }, "question-bank-loader");
+        loader.setDaemon(true);
+        loader.start();
+        return future;
+    }
+
+    /**
+     * Load a bank on the calling thread, then build its text search index
+     * @param path bank file
+     * @param target service that receives the questions
+     * @return load summary
+     * @throws IOException if the file cannot be read
+     */
+    public LoadResult load(Path path, QuestionService target) throws IOException {
+        Format format = Format.fromPath(path);
+        long startNanos = System.nanoTime();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            LineSink sink = new LineSink(format, target, channel.size());
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            byte[] chunk = buffer.array();
+            byte[] carry = new byte[256];
+            int carryLength = 0;
+            long bytesRead = 0;
+
+            int read;
+            while ((read = channel.read(buffer)) != -1) {
+                bytesRead += read;
+                int lineStart = 0;
+                int limit = buffer.position();
+                for (int i = 0; i < limit; i++) {
+                    if (chunk[i] != '\n') {
+                        continue;
+                    }
+                    if (carryLength > 0) {
+                        carry = append(carry, carryLength, chunk, lineStart, i - lineStart);
+                        carryLength += i - lineStart;
+                        sink.accept(carry, 0, carryLength, bytesRead);
+                        carryLength = 0;
+                    } else {
+                        sink.accept(chunk, lineStart, i - lineStart, bytesRead);
+                    }
+                    lineStart = i + 1;
+                }
+                // Keep the partial last line for the next read
+                carry = append(carry, carryLength, chunk, lineStart, limit - lineStart);
+                carryLength += limit - lineStart;
+                buffer.clear();
+            }
+            if (carryLength > 0) {
+                sink.accept(carry, 0, carryLength, bytesRead);
+            }
+            sink.finish(bytesRead);
+            target.buildSearchIndex();
+
+            long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            return new LoadResult(sink.loaded, sink.rejected, bytesRead, elapsedMillis);
+        }
+    }
+
+    private static byte[] append(byte[] carry, int carryLength, byte[] src, int offset, int length) {
+        if (length == 0) {
+            return carry;
+        }
+        if (carryLength + length > carry.length) {
+            carry = Arrays.copyOf(carry, Math.max(carry.length * 2, carryLength + length));
+        }
+        System.arraycopy(src, offset, carry, carryLength, length);
+        return carry;
+    }
+
+    /**
+     * Decodes, parses and batches lines for a single load
+     */
+    private final class LineSink {
+        private final Format format;
+        private final QuestionService target;
+        private final long totalBytes;
+        private final List<Question> batch = new ArrayList<>(BATCH_SIZE);
+        private int lines;
+        private int loaded;
+        private int rejected;
+
+        LineSink(Format format, QuestionService target, long totalBytes) {
+            this.format = format;
+            this.target = target;
+            this.totalBytes = totalBytes;
+        }
+
+        void accept(byte[] bytes, int offset, int length, long bytesRead) {
+            if (length > 0 && bytes[offset + length - 1] == '\r') {
+                length--;
+            }
+            lines++;
+            String line = new String(bytes, offset, length, StandardCharsets.UTF_8);
+            if (!line.isBlank() && !(format == Format.CSV && lines == 1 && QuestionLineParser.isCsvHeader(line))) {
+                try {
+                    batch.add(format == Format.CSV
+                            ? QuestionLineParser.parseCsv(line)
+                            : QuestionLineParser.parseJson(line, lines));
+                } catch (IllegalArgumentException e) {
+                    rejected++;
+                }
+                if (batch.size() == BATCH_SIZE) {
+                    flush();
+                }
+            }
+            if (progressListener != null && lines % PROGRESS_INTERVAL_LINES == 0) {
+                progressListener.onProgress(bytesRead, totalBytes, loaded, rejected);
+            }
+        }
+
+        void finish(long bytesRead) {
+            flush();
+            if (progressListener != null) {
+                progressListener.onProgress(bytesRead, totalBytes, loaded, rejected);
+            }
+        }
+
+        private void flush() {
+            if (!batch.isEmpty()) {
+                target.addQuestions(batch);
+                loaded += batch.size();
+                batch.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.quizgenerator.service;
+
+/**
+ * Tag constraints for selecting questions. A null tag matches any value; tags
+ * are compared case-insensitively.
+ */
+public class QuestionFilter {
+    /** Filter that matches every question */
+    public static final QuestionFilter ANY = new QuestionFilter(null, null, null);
+
+    private final String category;
+    private final String difficulty;
+    private final String language;
+
+    public QuestionFilter(String category, String difficulty, String language) {
+        this.category = category;
+        this.difficulty = difficulty;
+        this.language = language;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public String getDifficulty() {
+        return difficulty;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    /**
+     * Check whether the filter constrains anything
+     * @return true if every question matches
+     */
+    public boolean isAny() {
+        return category == null && difficulty == null && language == null;
+    }
+
+    @Override
+    public String toString() {
+        return "QuestionFilter{" +
+                "category=" + category +
+                ", difficulty=" + difficulty +
+                ", language=" + language +
+                '}';
+    }
+}
@@ -0,0 +1,319 @@
+package com.quizgenerator.service;
+
+import com.quizgenerator.model.Question;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses a single line of an external question bank into a {@link Question}.
+ *
+ * Two line formats are understood:
+ * <ul>
+ *   <li>JSONL: one flat object per line, e.g.
+ *   {@code {"id":1,"question":"...","options":["a","b"],"correctAnswer":0,"timeLimit":30}},
+ *   optionally with "category", "difficulty" and "language" tags</li>
+ *   <li>CSV: {@code id,question,correctAnswer,timeLimit,option1,option2,...} with
+ *   RFC 4180 quoting</li>
+ * </ul>
+ * Malformed lines are reported with an {@link IllegalArgumentException}.
+ */
+class QuestionLineParser {
+    static final int DEFAULT_TIME_LIMIT = 30;
+
+    private QuestionLineParser() {}
+
+    /**
+     * Parse a JSONL line
+     * @param line the raw line (without the line terminator)
+     * @param defaultId id to use when the line has no "id" field
+     * @return parsed question
+     */
+    static Question parseJson(String line, int defaultId) {
+        JsonCursor cursor = new JsonCursor(line);
+        Integer id = null;
+        String text = null;
+        List<String> options = null;
+        Integer correctAnswer = null;
+        int timeLimit = DEFAULT_TIME_LIMIT;
+        String category = null;
+        String difficulty = null;
+        String language = null;
+
+        cursor.expect('{');
+        if (!cursor.tryConsume('}')) {
+            do {
+                String key = cursor.readString();
+                cursor.expect(':');
+                switch (key) {
+                    case "id":
+                        id = cursor.readInt();
+                        break;
+                    case "question":
+                    case "text":
+                        text = cursor.readString();
+                        break;
+                    case "options":
+                        options = cursor.readStringArray();
+                        break;
+                    case "correctAnswer":
+                        correctAnswer = cursor.readInt();
+                        break;
+                    case "timeLimit":
+                        timeLimit = cursor.readInt();
+                        break;
+                    case "category":
+                        category = cursor.readString();
+                        break;
+                    case "difficulty":
+                        difficulty = cursor.readString();
+                        break;
+                    case "language":
+                        language = cursor.readString();
+                        break;
+                    default:
+                        cursor.skipValue();
+                }
+            } while (cursor.tryConsume(','));
+            cursor.expect('}');
+        }
+        cursor.expectEnd();
+
+        if (text == null || options == null || correctAnswer == null) {
+            throw new IllegalArgumentException("Missing question, options or correctAnswer");
+        }
+        return new Question(id != null ? id : defaultId, text, options, correctAnswer, timeLimit,
+                category, difficulty, language);
+    }
+
+    /**
+     * Parse a CSV line
+     * @param line the raw line (without the line terminator)
+     * @return parsed question
+     */
+    static Question parseCsv(String line) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() < 5) {
+            throw new IllegalArgumentException("Expected at least 5 CSV fields but got " + fields.size());
+        }
+        int id = parseInt(fields.get(0));
+        String text = fields.get(1);
+        int correctAnswer = parseInt(fields.get(2));
+        String timeLimitField = fields.get(3).trim();
+        int timeLimit = timeLimitField.isEmpty() ? DEFAULT_TIME_LIMIT : parseInt(timeLimitField);
+        List<String> options = new ArrayList<>(fields.subList(4, fields.size()));
+        return new Question(id, text, options, correctAnswer, timeLimit);
+    }
+
+    /**
+     * Check whether a CSV line is a header row rather than data
+     * @param line the raw line
+     * @return true if the first field is not an integer id
+     */
+    static boolean isCsvHeader(String line) {
+        int comma = line.indexOf(',');
+        String first = (comma < 0 ? line : line.substring(0, comma)).trim();
+        try {
+            Integer.parseInt(first);
+            return false;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private static int parseInt(String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not an integer: " + value);
+        }
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c != '\r') {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted CSV field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Minimal cursor over a single-line JSON object. Only what question banks
+     * need is supported: strings, integers, string arrays, and skipping of
+     * any other value.
+     */
+    private static final class JsonCursor {
+        private final String s;
+        private int pos;
+
+        JsonCursor(String s) {
+            this.s = s;
+        }
+
+        void expect(char c) {
+            skipWhitespace();
+            if (pos >= s.length() || s.charAt(pos) != c) {
+                throw error("Expected '" + c + "'");
+            }
+            pos++;
+        }
+
+        boolean tryConsume(char c) {
+            skipWhitespace();
+            if (pos < s.length() && s.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        void expectEnd() {
+            skipWhitespace();
+            if (pos != s.length()) {
+                throw error("Trailing characters");
+            }
+        }
+
+        String readString() {
+            expect('"');
+            StringBuilder sb = null;
+            int start = pos;
+            while (pos < s.length()) {
+                char c = s.charAt(pos);
+                if (c == '"') {
+                    String result = sb == null ? s.substring(start, pos) : sb.append(s, start, pos).toString();
+                    pos++;
+                    return result;
+                }
+                if (c == '\\') {
+                    if (sb == null) {
+                        sb = new StringBuilder();
+                    }
+                    sb.append(s, start, pos);
+                    sb.append(readEscape());
+                    start = pos;
+                } else {
+                    pos++;
+                }
+            }
+            throw error("Unterminated string");
+        }
+
+        int readInt() {
+            skipWhitespace();
+            int start = pos;
+            if (pos < s.length() && s.charAt(pos) == '-') {
+                pos++;
+            }
+            while (pos < s.length() && Character.isDigit(s.charAt(pos))) {
+                pos++;
+            }
+            try {
+                return Integer.parseInt(s.substring(start, pos));
+            } catch (NumberFormatException e) {
+                throw error("Expected integer");
+            }
+        }
+
+        List<String> readStringArray() {
+            expect('[');
+            List<String> values = new ArrayList<>(4);
+            if (tryConsume(']')) {
+                return values;
+            }
+            do {
+                values.add(readString());
+            } while (tryConsume(','));
+            expect(']');
+            return values;
+        }
+
+        void skipValue() {
+            skipWhitespace();
+            if (pos >= s.length()) {
+                throw error("Expected value");
+            }
+            char c = s.charAt(pos);
+            if (c == '"') {
+                readString();
+            } else if (c == '[' || c == '{') {
+                char close = c == '[' ? ']' : '}';
+                pos++;
+                if (tryConsume(close)) {
+                    return;
+                }
+                do {
+                    if (close == '}') {
+                        readString();
+                        expect(':');
+                    }
+                    skipValue();
+                } while (tryConsume(','));
+                expect(close);
+            } else {
+                while (pos < s.length() && ",}] \t".indexOf(s.charAt(pos)) < 0) {
+                    pos++;
+                }
+            }
+        }
+
+        private char readEscape() {
+            pos++; // backslash
+            if (pos >= s.length()) {
+                throw error("Unterminated escape");
+            }
+            char c = s.charAt(pos++);
+            switch (c) {
+                case 'n': return '\n';
+                case 't': return '\t';
+                case 'r': return '\r';
+                case 'b': return '\b';
+                case 'f': return '\f';
+                case 'u':
+                    if (pos + 4 > s.length()) {
+                        throw error("Bad unicode escape");
+                    }
+                    char decoded = (char) Integer.parseInt(s.substring(pos, pos + 4), 16);
+                    pos += 4;
+                    return decoded;
+                default:
+                    return c; // covers \" \\ and \/
+            }
+        }
+
+        private void skipWhitespace() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at column " + pos);
+        }
+    }
+}
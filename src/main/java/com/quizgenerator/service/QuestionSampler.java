@@ -0,0 +1,105 @@
+package com.quizgenerator.service;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Draws random samples of distinct indices in O(k) time and memory.
+ *
+ * Uses Floyd's algorithm over an open-addressing int set sized for the sample,
+ * followed by a Fisher-Yates shuffle of the k results so the order is uniform too.
+ * The population is never copied, so the cost does not depend on the bank size.
+ *
+ * Unseeded samples use {@link ThreadLocalRandom}, so concurrent callers never
+ * contend on a shared generator. Seeded samples use a fresh {@link SplittableRandom}
+ * and are reproducible for the same population size, count and seed.
+ */
+public final class QuestionSampler {
+    private QuestionSampler() {}
+
+    /**
+     * Sample distinct indices from {@code [0, populationSize)}
+     * @param populationSize number of candidates
+     * @param count number of indices wanted (capped at populationSize)
+     * @return indices in random order
+     */
+    public static int[] sample(int populationSize, int count) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return sample(populationSize, count, random::nextInt);
+    }
+
+    /**
+     * Sample distinct indices from {@code [0, populationSize)} reproducibly
+     * @param populationSize number of candidates
+     * @param count number of indices wanted (capped at populationSize)
+     * @param seed random seed
+     * @return indices in random order
+     */
+    public static int[] sample(int populationSize, int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        return sample(populationSize, count, random::nextInt);
+    }
+
+    private static int[] sample(int n, int k, IntUnaryOperator nextInt) {
+        if (n < 0 || k < 0) {
+            throw new IllegalArgumentException("Population size and count must not be negative");
+        }
+        k = Math.min(k, n);
+        int[] result = new int[k];
+        if (k == 0) {
+            return result;
+        }
+
+        // Floyd: for j in [n - k, n), pick t in [0, j]; take t unless already chosen, else j
+        int[] table = newSet(k);
+        int mask = table.length - 1;
+        int chosen = 0;
+        for (int j = n - k; j < n; j++) {
+            int t = nextInt.applyAsInt(j + 1);
+            int pick = insert(table, mask, t) ? t : j;
+            if (pick == j && t != j) {
+                insert(table, mask, j);
+            }
+            result[chosen++] = pick;
+        }
+
+        for (int i = k - 1; i > 0; i--) {
+            int j = nextInt.applyAsInt(i + 1);
+            int tmp = result[i];
+            result[i] = result[j];
+            result[j] = tmp;
+        }
+        return result;
+    }
+
+    /**
+     * Create an empty open-addressing set with room for the given number of values
+     * @param capacity number of values the set will hold
+     * @return table whose length is a power of two, for {@link #insert}
+     */
+    static int[] newSet(int capacity) {
+        return new int[Integer.highestOneBit(Math.max(1, capacity * 2 - 1)) << 1];
+    }
+
+    /**
+     * Insert a value into the set; slots store value + 1 so that 0 means empty
+     * @return true if the value was not yet present
+     */
+    static boolean insert(int[] table, int mask, int value) {
+        int slot = mix(value) & mask;
+        while (table[slot] != 0) {
+            if (table[slot] == value + 1) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = value + 1;
+        return true;
+    }
+
+    private static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
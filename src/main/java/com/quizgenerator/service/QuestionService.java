@@ -1,16 +1,60 @@
 package com.quizgenerator.service;
 
+import com.quizgenerator.model.MappedQuestionBank;
 import com.quizgenerator.model.Question;
+import com.quizgenerator.model.QuestionBank;
+import com.quizgenerator.model.QuestionStore;
+import com.quizgenerator.util.RoaringBitmap;
+
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Service for managing quiz questions
+ * Service for managing quiz questions.
+ *
+ * The bank is append-only: questions may be added by a {@link QuestionBankLoader}
+ * while sessions are already being created from the questions loaded so far.
+ * Questions are kept in a columnar {@link QuestionStore} and handed out as
+ * read-only views. Category, difficulty and language tags are indexed in
+ * compressed bitmaps, so filtered draws never scan the bank. Question and
+ * option text is searchable through a trigram index that is built when a bank
+ * finishes loading, or on the first search.
+ *
+ * A service can instead serve a precompiled {@link MappedQuestionBank} image,
+ * which is read in place and cannot be added to. Its tag index is built from
+ * the lists stored in the image on the first filtered draw.
  */
 public class QuestionService {
-    private final List<Question> questions;
+    private static final int REINDEX_MIN_UNINDEXED = 4096;
+
+    private final QuestionBank questions;
+    private volatile TagIndex tags;
+    private final Object tagsLock = new Object();
+    private volatile TextSearchIndex textIndex = TextSearchIndex.EMPTY;
+    private final Object textIndexLock = new Object();
 
     public QuestionService() {
-        this.questions = initializeQuestions();
+        this((List<Question>) null);
+    }
+
+    /**
+     * Create a service with the given initial questions instead of the bundled bank
+     * @param initialQuestions initial questions, or null for the bundled bank
+     */
+    public QuestionService(List<Question> initialQuestions) {
+        List<Question> source = initialQuestions != null ? initialQuestions : initializeQuestions();
+        QuestionStore store = new QuestionStore(source.size());
+        store.addAll(source);
+        this.questions = store;
+        this.tags = TagIndex.EMPTY.withQuestions(0, source);
+    }
+
+    /**
+     * Create a service over a mapped bank image, without reading its questions
+     * @param image bank image
+     */
+    public QuestionService(MappedQuestionBank image) {
+        this.questions = image;
     }
 
     private List<Question> initializeQuestions() {
@@ -22,7 +66,8 @@ public class QuestionService {
             "What is the capital of France?",
             Arrays.asList("London", "Berlin", "Paris", "Madrid"),
             2, // Paris is correct (index 2)
-            30
+            30,
+            "geography", "easy", "en"
         ));
         
         questionList.add(new Question(
@@ -30,7 +75,8 @@ public class QuestionService {
             "Which planet is known as the Red Planet?",
             Arrays.asList("Venus", "Mars", "Jupiter", "Saturn"),
             1, // Mars is correct (index 1)
-            30
+            30,
+            "science", "easy", "en"
         ));
         
         questionList.add(new Question(
@@ -38,7 +84,8 @@ public class QuestionService {
             "What is the largest ocean on Earth?",
             Arrays.asList("Atlantic Ocean", "Indian Ocean", "Arctic Ocean", "Pacific Ocean"),
             3, // Pacific Ocean is correct (index 3)
-            30
+            30,
+            "geography", "easy", "en"
         ));
         
         questionList.add(new Question(
@@ -46,7 +93,8 @@ public class QuestionService {
             "Who wrote 'Romeo and Juliet'?",
             Arrays.asList("Charles Dickens", "William Shakespeare", "Jane Austen", "Mark Twain"),
             1, // William Shakespeare is correct (index 1)
-            30
+            30,
+            "literature", "easy", "en"
         ));
         
         questionList.add(new Question(
@@ -54,7 +102,8 @@ public class QuestionService {
             "What is the chemical symbol for gold?",
             Arrays.asList("Ag", "Au", "Fe", "Cu"),
             1, // Au is correct (index 1)
-            30
+            30,
+            "science", "medium", "en"
         ));
         
         questionList.add(new Question(
@@ -62,7 +111,8 @@ public class QuestionService {
             "Which year did World War II end?",
             Arrays.asList("1943", "1944", "1945", "1946"),
             2, // 1945 is correct (index 2)
-            30
+            30,
+            "history", "easy", "en"
         ));
         
         questionList.add(new Question(
@@ -70,7 +120,8 @@ public class QuestionService {
             "What is the largest mammal in the world?",
             Arrays.asList("African Elephant", "Blue Whale", "Giraffe", "Hippopotamus"),
             1, // Blue Whale is correct (index 1)
-            30
+            30,
+            "science", "easy", "en"
         ));
         
         questionList.add(new Question(
@@ -78,7 +129,8 @@ public class QuestionService {
             "Which programming language was created by James Gosling?",
             Arrays.asList("Python", "Java", "C++", "JavaScript"),
             1, // Java is correct (index 1)
-            30
+            30,
+            "technology", "medium", "en"
         ));
         
         questionList.add(new Question(
@@ -86,7 +138,8 @@ public class QuestionService {
             "What is the square root of 144?",
             Arrays.asList("10", "11", "12", "13"),
             2, // 12 is correct (index 2)
-            30
+            30,
+            "math", "easy", "en"
         ));
         
         questionList.add(new Question(
@@ -94,7 +147,8 @@ public class QuestionService {
             "Which country is home to the kangaroo?",
             Arrays.asList("New Zealand", "South Africa", "Australia", "India"),
             2, // Australia is correct (index 2)
-            30
+            30,
+            "geography", "easy", "en"
         ));
         
         questionList.add(new Question(
@@ -102,7 +156,8 @@ public class QuestionService {
             "What is the main component of the sun?",
             Arrays.asList("Liquid Lava", "Molten Iron", "Hydrogen Gas", "Solid Rock"),
             2, // Hydrogen Gas is correct (index 2)
-            30
+            30,
+            "science", "medium", "en"
         ));
         
         questionList.add(new Question(
@@ -110,15 +165,17 @@ public class QuestionService {
             "How many sides does a hexagon have?",
             Arrays.asList("5", "6", "7", "8"),
             1, // 6 is correct (index 1)
-            30
+            30,
+            "math", "easy", "en"
         ));
         
         questionList.add(new Question(
             13,
             "Which element has the chemical symbol 'O'?",
-            Arrays.asList("Osmium", "Oxygen", "Oganesson", "Osmium"),
+            Arrays.asList("Osmium", "Oxygen", "Oganesson", "Gold"),
             1, // Oxygen is correct (index 1)
-            30
+            30,
+            "science", "easy", "en"
         ));
         
         questionList.add(new Question(
@@ -126,7 +183,8 @@ public class QuestionService {
             "What is the largest desert in the world?",
             Arrays.asList("Sahara Desert", "Arabian Desert", "Gobi Desert", "Antarctic Desert"),
             0, // Sahara Desert is correct (index 0)
-            30
+            30,
+            "geography", "hard", "en"
         ));
         
         questionList.add(new Question(
@@ -134,7 +192,8 @@ public class QuestionService {
             "Who painted the Mona Lisa?",
             Arrays.asList("Vincent van Gogh", "Pablo Picasso", "Leonardo da Vinci", "Michelangelo"),
             2, // Leonardo da Vinci is correct (index 2)
-            30
+            30,
+            "art", "easy", "en"
         ));
         
         questionList.add(new Question(
@@ -142,7 +201,8 @@ public class QuestionService {
             "What is the speed of light in vacuum?",
             Arrays.asList("299,792 km/s", "199,792 km/s", "399,792 km/s", "499,792 km/s"),
             0, // 299,792 km/s is correct (index 0)
-            30
+            30,
+            "science", "hard", "en"
         ));
         
         questionList.add(new Question(
@@ -150,7 +210,8 @@ public class QuestionService {
             "Which country has the largest population in the world?",
             Arrays.asList("India", "China", "United States", "Russia"),
             1, // China is correct (index 1)
-            30
+            30,
+            "geography", "medium", "en"
         ));
         
         questionList.add(new Question(
@@ -158,7 +219,8 @@ public class QuestionService {
             "What is the smallest prime number?",
             Arrays.asList("0", "1", "2", "3"),
             2, // 2 is correct (index 2)
-            30
+            30,
+            "math", "medium", "en"
         ));
         
         questionList.add(new Question(
@@ -166,7 +228,8 @@ public class QuestionService {
             "Which planet is closest to the Sun?",
             Arrays.asList("Venus", "Mercury", "Earth", "Mars"),
             1, // Mercury is correct (index 1)
-            30
+            30,
+            "science", "easy", "en"
         ));
         
         questionList.add(new Question(
@@ -174,7 +237,8 @@ public class QuestionService {
             "What is the capital of Japan?",
             Arrays.asList("Seoul", "Beijing", "Tokyo", "Bangkok"),
             2, // Tokyo is correct (index 2)
-            30
+            30,
+            "geography", "easy", "en"
         ));
         
         questionList.add(new Question(
@@ -182,7 +246,8 @@ public class QuestionService {
             "How many bones are in the human body?",
             Arrays.asList("206", "186", "226", "246"),
             0, // 206 is correct (index 0)
-            30
+            30,
+            "science", "hard", "en"
         ));
         
         questionList.add(new Question(
@@ -190,7 +255,8 @@ public class QuestionService {
             "What is the largest organ in the human body?",
             Arrays.asList("Heart", "Brain", "Liver", "Skin"),
             3, // Skin is correct (index 3)
-            30
+            30,
+            "science", "medium", "en"
         ));
         
         questionList.add(new Question(
@@ -198,7 +264,8 @@ public class QuestionService {
             "Which year did the first moon landing occur?",
             Arrays.asList("1967", "1968", "1969", "1970"),
             2, // 1969 is correct (index 2)
-            30
+            30,
+            "history", "medium", "en"
         ));
         
         questionList.add(new Question(
@@ -206,7 +273,8 @@ public class QuestionService {
             "What is the currency of Japan?",
             Arrays.asList("Yuan", "Won", "Yen", "Ringgit"),
             2, // Yen is correct (index 2)
-            30
+            30,
+            "geography", "medium", "en"
         ));
         
         questionList.add(new Question(
@@ -214,23 +282,210 @@ public class QuestionService {
             "How many continents are there on Earth?",
             Arrays.asList("5", "6", "7", "8"),
             2, // 7 is correct (index 2)
-            30
+            30,
+            "geography", "easy", "en"
         ));
         
         return questionList;
     }
 
+    /**
+     * Draw distinct random questions from the bank in O(count)
+     * @param count number of questions (capped at the bank size)
+     * @return questions in random order
+     */
     public List<Question> getRandomQuestions(int count) {
-        if (count > questions.size()) {
-            count = questions.size();
+        return toQuestions(QuestionSampler.sample(questions.size(), count));
+    }
+
+    /**
+     * Draw distinct random questions reproducibly
+     * @param count number of questions (capped at the bank size)
+     * @param seed random seed; the same seed over the same bank gives the same questions
+     * @return questions in random order
+     */
+    public List<Question> getRandomQuestions(int count, long seed) {
+        return toQuestions(QuestionSampler.sample(questions.size(), count, seed));
+    }
+
+    /**
+     * Draw distinct random questions matching the filter's tags, using the tag
+     * bitmaps rather than scanning the bank
+     * @param filter tag constraints, or null for the whole bank
+     * @param count number of questions (capped at the number of matches)
+     * @return questions in random order
+     */
+    public List<Question> getRandomQuestions(QuestionFilter filter, int count) {
+        int[] picks = tags().sample(filter, count);
+        return picks == null ? getRandomQuestions(count) : toQuestions(picks);
+    }
+
+    /**
+     * Check whether any question matches a filter, without counting them all
+     * @param filter tag constraints, or null for the whole bank
+     * @return true if at least one question matches
+     */
+    public boolean hasQuestions(QuestionFilter filter) {
+        int[] picks = tags().sample(filter, 1);
+        return picks == null ? questions.size() > 0 : picks.length > 0;
+    }
+
+    /**
+     * Count the questions matching a filter
+     * @param filter tag constraints, or null for the whole bank
+     * @return number of matching questions
+     */
+    public int countQuestions(QuestionFilter filter) {
+        RoaringBitmap matches = tags().match(filter);
+        return matches == null ? questions.size() : matches.getCardinality();
+    }
+
+    /**
+     * Get the category tags present in the bank, lower-cased
+     * @return category names
+     */
+    public Set<String> getCategories() {
+        return tags().getCategories();
+    }
+
+    public Set<String> getDifficulties() {
+        return tags().getDifficulties();
+    }
+
+    public Set<String> getLanguages() {
+        return tags().getLanguages();
+    }
+
+    /**
+     * Find the questions whose text or options contain a query, case-insensitively
+     * @param query text to look for
+     * @param limit maximum number of results
+     * @return ids of the matching questions, best matches first
+     */
+    public int[] search(String query, int limit) {
+        return search(query, SearchMode.SUBSTRING, limit);
+    }
+
+    /**
+     * Find the questions whose text or options match a query, case-insensitively.
+     * Matches in the question text rank above matches in an option, and matches at
+     * the start of a word above matches inside one.
+     * @param query text to look for
+     * @param mode whether the query may match anywhere or only at the start of a word
+     * @param limit maximum number of results
+     * @return ids of the matching questions, best matches first
+     */
+    public int[] search(String query, SearchMode mode, int limit) {
+        if (query == null || mode == null) {
+            throw new IllegalArgumentException("Query and search mode are required");
         }
-        
-        List<Question> shuffledQuestions = new ArrayList<>(questions);
-        Collections.shuffle(shuffledQuestions);
-        return shuffledQuestions.subList(0, count);
+        TextSearchIndex index = textIndex;
+        int unindexed = questions.size() - index.size();
+        if (unindexed > Math.max(REINDEX_MIN_UNINDEXED, index.size() / 4)) {
+            index = indexText();
+        }
+        return index.search(questions, query, mode, limit);
+    }
+
+    /**
+     * Index the text of every question added so far, in parallel. Questions added
+     * afterwards are still found by searches, by a scan, until the next rebuild.
+     */
+    public void buildSearchIndex() {
+        indexText();
+    }
+
+    private TextSearchIndex indexText() {
+        synchronized (textIndexLock) {
+            TextSearchIndex index = textIndex;
+            if (index.size() != questions.size()) {
+                index = TextSearchIndex.build(questions);
+                textIndex = index;
+            }
+            return index;
+        }
+    }
+
+    private TagIndex tags() {
+        TagIndex index = tags;
+        if (index == null) {
+            synchronized (tagsLock) {
+                index = tags;
+                if (index == null) {
+                    index = TagIndex.of((MappedQuestionBank) questions);
+                    tags = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    private List<Question> toQuestions(int[] indices) {
+        List<Question> selected = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            selected.add(questions.get(index));
+        }
+        return selected;
+    }
+
+    /**
+     * Look up a question by id
+     * @param id question id
+     * @return the question, or null if the bank has no question with that id
+     */
+    public Question getQuestionById(int id) {
+        int index = questions.indexOfId(id);
+        return index < 0 ? null : questions.get(index);
     }
 
     public int getTotalQuestionCount() {
         return questions.size();
     }
+
+    /**
+     * Get the underlying question bank
+     * @return columnar question store, or the mapped image
+     */
+    public QuestionBank getQuestionBank() {
+        return questions;
+    }
+
+    /**
+     * Append a batch of questions and wake up threads waiting for them
+     * @param batch questions to add
+     * @throws IllegalStateException if the service serves a read-only bank image
+     */
+    public void addQuestions(Collection<Question> batch) {
+        if (!(questions instanceof QuestionStore)) {
+            throw new IllegalStateException("Questions cannot be added to a bank image");
+        }
+        synchronized (questions) {
+            int firstIndex = questions.size();
+            ((QuestionStore) questions).addAll(batch);
+            tags = tags.withQuestions(firstIndex, batch);
+            questions.notifyAll();
+        }
+    }
+
+    /**
+     * Wait until at least the given number of questions is available
+     * @param minimum number of questions to wait for
+     * @param timeout maximum time to wait
+     * @param unit unit of the timeout
+     * @return the number of questions available when returning
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public int awaitQuestionCount(int minimum, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (questions) {
+            while (questions.size() < minimum) {
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis <= 0) {
+                    break;
+                }
+                questions.wait(remainingMillis);
+            }
+            return questions.size();
+        }
+    }
 }
@@ -1,19 +1,50 @@
 package com.quizgenerator.service;
 
+import com.quizgenerator.metrics.QuestionAnalytics;
+import com.quizgenerator.metrics.QuizMetrics;
 import com.quizgenerator.model.Question;
+import com.quizgenerator.model.QuestionSelector;
 import com.quizgenerator.model.QuizSession;
+import com.quizgenerator.model.QuizTemplate;
+import com.quizgenerator.model.SessionListener;
 
+import java.util.Arrays;
 import java.util.List;
-import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 /**
  * Service for managing quiz sessions
  */
 public class QuizService {
+    private static final int DEFAULT_MAX_SESSIONS = 1_000_000;
+    private static final long DEFAULT_SESSION_TTL_MINUTES = 4 * 60;
+    private static final long DEFAULT_SESSION_IDLE_MINUTES = 30;
+
     private final QuestionService questionService;
+    private final SessionRegistry sessions;
+    private final SessionListener dispatcher = new Dispatcher();
+    private volatile SessionListener[] listeners = new SessionListener[0];
+    private volatile SessionRecovery recovery;
+    private volatile QuizMetrics metrics;
+    private volatile Leaderboard leaderboard;
+    private volatile QuestionAnalytics analytics;
+    private volatile AdaptiveSelectionEngine adaptiveEngine;
+    private volatile SessionPool sessionPool;
+    private final ConcurrentHashMap<String, QuizTemplate> templates = new ConcurrentHashMap<>();
 
     public QuizService(QuestionService questionService) {
+        this(questionService, new SessionRegistry(DEFAULT_MAX_SESSIONS,
+                DEFAULT_SESSION_TTL_MINUTES, DEFAULT_SESSION_IDLE_MINUTES, TimeUnit.MINUTES));
+    }
+
+    public QuizService(QuestionService questionService, SessionRegistry sessions) {
         this.questionService = questionService;
+        this.sessions = sessions;
+        sessions.setEvictionListener(this::sessionRemoved);
     }
 
     /**
@@ -22,20 +53,449 @@ public class QuizService {
      * @return new quiz session
      */
     public QuizSession createQuizSession(int questionCount) {
-        String sessionId = UUID.randomUUID().toString();
-        List<Question> questions = questionService.getRandomQuestions(questionCount);
-        return new QuizSession(sessionId, questions);
+        return createQuizSession(null, questionCount);
+    }
+
+    /**
+     * Create a new quiz session from questions matching a tag filter
+     * @param filter tag constraints, or null for the whole bank
+     * @param questionCount number of questions in the quiz (capped at the number of matches)
+     * @return new quiz session
+     */
+    public QuizSession createQuizSession(QuestionFilter filter, int questionCount) {
+        return createQuizSession(filter, questionCount, false);
+    }
+
+    /**
+     * Create a new quiz session from questions matching a tag filter
+     * @param filter tag constraints, or null for the whole bank
+     * @param questionCount number of questions in the quiz (capped at the number of matches)
+     * @param shuffleOptions whether each question shows its options in a random order
+     * @return new quiz session
+     */
+    public QuizSession createQuizSession(QuestionFilter filter, int questionCount, boolean shuffleOptions) {
+        QuizMetrics recorder = metrics;
+        long start = recorder != null ? System.nanoTime() : 0;
+        SessionPool pool = sessionPool;
+        QuizSession session = null;
+        if (pool != null && (filter == null || filter.isAny()) && questionCount == pool.getQuestionCount()) {
+            session = pool.poll();
+        }
+        if (session != null) {
+            session.restartClock();
+        } else {
+            List<Question> questions = questionService.getRandomQuestions(filter, questionCount);
+            if (recorder != null) {
+                recorder.recordRandomQuestions(start);
+            }
+            session = new QuizSession(SessionIds.next(), questions);
+        }
+        register(session, shuffleOptions);
+        if (recorder != null) {
+            recorder.recordCreateSession(start);
+        }
+        return session;
+    }
+
+    /**
+     * Create many quiz sessions at once, e.g. for a cohort about to start an exam.
+     * Questions are drawn and sessions registered in parallel on a pool of this
+     * service's own, so a batch does not compete with index builds or bank
+     * validation on the common pool.
+     * @param sessionCount number of sessions to create
+     * @param questionCount number of questions in each quiz
+     * @return new quiz sessions
+     */
+    public List<QuizSession> createQuizSessions(int sessionCount, int questionCount) {
+        return createQuizSessions(null, sessionCount, questionCount);
+    }
+
+    /**
+     * Create many quiz sessions at once from questions matching a tag filter
+     * @param filter tag constraints, or null for the whole bank
+     * @param sessionCount number of sessions to create
+     * @param questionCount number of questions in each quiz (capped at the number of matches)
+     * @return new quiz sessions
+     */
+    public List<QuizSession> createQuizSessions(QuestionFilter filter, int sessionCount, int questionCount) {
+        if (sessionCount < 0) {
+            throw new IllegalArgumentException("Session count must not be negative: " + sessionCount);
+        }
+        QuizMetrics recorder = metrics;
+        long start = recorder != null ? System.nanoTime() : 0;
+        QuizSession[] created = new QuizSession[sessionCount];
+        // A parallel stream started from a worker runs its tasks in that worker's pool
+        BatchPool.POOL.submit(() -> IntStream.range(0, sessionCount).parallel().forEach(i -> {
+            long drawStart = recorder != null ? System.nanoTime() : 0;
+            List<Question> questions = questionService.getRandomQuestions(filter, questionCount);
+            if (recorder != null) {
+                recorder.recordRandomQuestions(drawStart);
+            }
+            QuizSession session = new QuizSession(SessionIds.next(), questions);
+            register(session, false);
+            created[i] = session;
+        })).join();
+        if (recorder != null) {
+            recorder.recordCreateSessions(start);
+        }
+        return Arrays.asList(created);
+    }
+
+    /**
+     * Keep sessions over the whole bank built ahead of time on a background thread,
+     * replacing any pool already running. Creating a session with this question
+     * count and no tag filter then takes a pooled session when one is ready.
+     * @param questionCount number of questions in the pooled sessions
+     * @param capacity number of sessions to keep ready
+     */
+    public synchronized void startSessionPool(int questionCount, int capacity) {
+        stopSessionPool();
+        sessionPool = new SessionPool(() -> new QuizSession(SessionIds.next(),
+                questionService.getRandomQuestions(questionCount)), questionCount, capacity);
+    }
+
+    /**
+     * Stop the session pool, if any, and drop its sessions
+     */
+    public synchronized void stopSessionPool() {
+        SessionPool pool = sessionPool;
+        if (pool != null) {
+            sessionPool = null;
+            pool.close();
+        }
+    }
+
+    /**
+     * Get the running session pool
+     * @return session pool, or null if none is running
+     */
+    public SessionPool getSessionPool() {
+        return sessionPool;
+    }
+
+    private static final class BatchPool {
+        static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("session-batch-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    private void register(QuizSession session, boolean shuffleOptions) {
+        // Shuffle while the session is still private to this thread
+        if (shuffleOptions) {
+            session.shuffleOptions();
+        }
+        session.setListener(dispatcher);
+        sessions.put(session);
+        dispatcher.onSessionCreated(session);
+    }
+
+    /**
+     * Draw the questions of a cohort quiz once and keep them as a template that
+     * sessions can share
+     * @param filter tag constraints, or null for the whole bank
+     * @param questionCount number of questions in the quiz (capped at the number of matches)
+     * @return new template, registered under its id
+     */
+    public QuizTemplate createQuizTemplate(QuestionFilter filter, int questionCount) {
+        QuizTemplate template = new QuizTemplate(SessionIds.next(),
+                questionService.getRandomQuestions(filter, questionCount));
+        templates.put(template.getTemplateId(), template);
+        return template;
+    }
+
+    /**
+     * Look up a registered template
+     * @param templateId template id
+     * @return the template, or null if there is none with that id
+     */
+    public QuizTemplate getQuizTemplate(String templateId) {
+        return templates.get(templateId);
+    }
+
+    /**
+     * Forget a template. Sessions already created from it keep working.
+     * @param templateId template id
+     * @return the removed template, or null if there was none
+     */
+    public QuizTemplate removeQuizTemplate(String templateId) {
+        return templates.remove(templateId);
+    }
+
+    /**
+     * Create a session sharing a template's questions
+     * @param template questions of the quiz
+     * @param shuffle whether this session gets its own random question order
+     * @return new quiz session
+     */
+    public QuizSession createQuizSession(QuizTemplate template, boolean shuffle) {
+        return createQuizSession(template, shuffle, false);
+    }
+
+    /**
+     * Create a session sharing a template's questions
+     * @param template questions of the quiz
+     * @param shuffle whether this session gets its own random question order
+     * @param shuffleOptions whether each question shows its options in a random order
+     * @return new quiz session
+     */
+    public QuizSession createQuizSession(QuizTemplate template, boolean shuffle, boolean shuffleOptions) {
+        QuizMetrics recorder = metrics;
+        long start = recorder != null ? System.nanoTime() : 0;
+        QuizSession session = new QuizSession(SessionIds.next(), template,
+                shuffle ? template.randomOrder() : null);
+        register(session, shuffleOptions);
+        if (recorder != null) {
+            recorder.recordCreateSession(start);
+        }
+        return session;
+    }
+
+    /**
+     * Create a new quiz session whose questions are picked one at a time to
+     * match the taker's running ability
+     * @param questionCount number of questions in the quiz (capped at the bank size)
+     * @return new adaptive quiz session
+     */
+    public QuizSession createAdaptiveQuizSession(int questionCount) {
+        return createAdaptiveQuizSession(questionCount, false);
+    }
+
+    /**
+     * Create a new quiz session whose questions are picked one at a time to
+     * match the taker's running ability
+     * @param questionCount number of questions in the quiz (capped at the bank size)
+     * @param shuffleOptions whether each question shows its options in a random order
+     * @return new adaptive quiz session
+     */
+    public QuizSession createAdaptiveQuizSession(int questionCount, boolean shuffleOptions) {
+        if (questionCount < 0) {
+            throw new IllegalArgumentException("Question count must not be negative: " + questionCount);
+        }
+        QuizMetrics recorder = metrics;
+        long start = recorder != null ? System.nanoTime() : 0;
+        AdaptiveSelectionEngine engine = getAdaptiveEngine();
+        QuestionSelector selector = engine.newSelector();
+        int count = Math.min(questionCount, engine.getQuestionCount());
+        QuizSession session = new QuizSession(SessionIds.next(), count, selector);
+        register(session, shuffleOptions);
+        if (recorder != null) {
+            recorder.recordCreateSession(start);
+        }
+        return session;
     }
 
     /**
-     * Get a quiz session by ID (for future implementation)
+     * Get the engine behind adaptive sessions, creating it over the bank on first use
+     * @return adaptive selection engine
+     */
+    public AdaptiveSelectionEngine getAdaptiveEngine() {
+        AdaptiveSelectionEngine engine = adaptiveEngine;
+        if (engine == null) {
+            synchronized (this) {
+                engine = adaptiveEngine;
+                if (engine == null) {
+                    engine = new AdaptiveSelectionEngine(questionService.getQuestionBank());
+                    adaptiveEngine = engine;
+                }
+            }
+        }
+        return engine;
+    }
+
+    /**
+     * Submit an answer for a session's current question, timing it if metrics are enabled
+     * @param session session to answer in
+     * @param selectedAnswer the selected answer index (0-based)
+     * @return true if the answer is correct
+     */
+    public boolean submitAnswer(QuizSession session, int selectedAnswer) {
+        QuizMetrics recorder = metrics;
+        if (recorder == null) {
+            return session.submitAnswer(selectedAnswer);
+        }
+        long start = System.nanoTime();
+        boolean correct = session.submitAnswer(selectedAnswer);
+        recorder.recordSubmitAnswer(start);
+        return correct;
+    }
+
+    /**
+     * Submit an answer for the question at a position, timing it if metrics are
+     * enabled. Repeating a submission returns the result recorded first.
+     * @param session session to answer in
+     * @param position position of the question being answered (0-based)
+     * @param selectedAnswer the selected answer index (0-based)
+     * @return true if the answer recorded at the position is correct
+     */
+    public boolean submitAnswer(QuizSession session, int position, int selectedAnswer) {
+        QuizMetrics recorder = metrics;
+        if (recorder == null) {
+            return session.submitAnswer(position, selectedAnswer);
+        }
+        long start = System.nanoTime();
+        boolean correct = session.submitAnswer(position, selectedAnswer);
+        recorder.recordSubmitAnswer(start);
+        return correct;
+    }
+
+    /**
+     * Register a session rebuilt from persisted state. No creation event is fired,
+     * but the session's later answers reach the registered listeners.
+     * @param session recovered session
+     */
+    public void registerRecoveredSession(QuizSession session) {
+        session.setListener(dispatcher);
+        sessions.put(session);
+        QuizMetrics recorder = metrics;
+        if (recorder != null) {
+            recorder.onSessionRecovered(session);
+        }
+    }
+
+    /**
+     * Record latencies and counts of this service's sessions in the given metrics
+     * @param metrics metrics to record into, or null to stop recording
+     */
+    public synchronized void setMetrics(QuizMetrics metrics) {
+        if (this.metrics != null) {
+            removeSessionListener(this.metrics);
+        }
+        this.metrics = metrics;
+        if (metrics != null) {
+            addSessionListener(metrics);
+        }
+    }
+
+    public QuizMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Rank this service's sessions on a leaderboard as they complete
+     * @param leaderboard leaderboard to add completed sessions to, or null to stop ranking
+     */
+    public synchronized void setLeaderboard(Leaderboard leaderboard) {
+        if (this.leaderboard != null) {
+            removeSessionListener(this.leaderboard);
+        }
+        this.leaderboard = leaderboard;
+        if (leaderboard != null) {
+            addSessionListener(leaderboard);
+        }
+    }
+
+    public Leaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    /**
+     * Count serves, answers and response times per question of this service's sessions
+     * @param analytics analytics to record into, or null to stop recording
+     */
+    public synchronized void setAnalytics(QuestionAnalytics analytics) {
+        if (this.analytics != null) {
+            removeSessionListener(this.analytics);
+        }
+        this.analytics = analytics;
+        if (analytics != null) {
+            addSessionListener(analytics);
+        }
+    }
+
+    public QuestionAnalytics getAnalytics() {
+        return analytics;
+    }
+
+    /**
+     * Add a listener for the lifecycle events of every session created by this service
+     * @param listener listener to add
+     */
+    public synchronized void addSessionListener(SessionListener listener) {
+        SessionListener[] current = listeners;
+        SessionListener[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+
+    /**
+     * Remove a previously added session listener
+     * @param listener listener to remove
+     * @return true if the listener was registered
+     */
+    public synchronized boolean removeSessionListener(SessionListener listener) {
+        SessionListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                SessionListener[] updated = new SessionListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners = updated;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get a live quiz session by ID
      * @param sessionId session ID
-     * @return quiz session or null if not found
+     * @return quiz session or null if not found or expired
      */
     public QuizSession getSession(String sessionId) {
-        // For now, return a default session with all questions
-        // This could be enhanced to store sessions in memory or database
-        return new QuizSession(sessionId, questionService.getRandomQuestions(25));
+        SessionRecovery source = recovery;
+        if (source == null || sessionId == null) {
+            return sessions.get(sessionId);
+        }
+        return sessions.computeIfAbsent(sessionId, id -> {
+            QuizSession recovered = source.recover(id);
+            if (recovered != null) {
+                recovered.setListener(dispatcher);
+                QuizMetrics recorder = metrics;
+                if (recorder != null) {
+                    recorder.onSessionRecovered(recovered);
+                }
+            }
+            return recovered;
+        });
+    }
+
+    /**
+     * Set where sessions missing from the registry are looked up, e.g. a checkpoint
+     * restored lazily after a restart
+     * @param recovery session source, or null for none
+     */
+    public void setSessionRecovery(SessionRecovery recovery) {
+        this.recovery = recovery;
+    }
+
+    /**
+     * Remove a quiz session from the registry
+     * @param sessionId session ID
+     * @return the removed session, or null if not found
+     */
+    public QuizSession removeSession(String sessionId) {
+        QuizSession removed = sessions.remove(sessionId);
+        if (removed != null) {
+            sessionRemoved(removed);
+        }
+        return removed;
+    }
+
+    private void sessionRemoved(QuizSession session) {
+        QuizMetrics recorder = metrics;
+        if (recorder != null) {
+            recorder.onSessionRemoved(session);
+        }
+    }
+
+    /**
+     * Get the session registry
+     * @return registry holding the live sessions
+     */
+    public SessionRegistry getSessionRegistry() {
+        return sessions;
     }
 
     /**
@@ -45,4 +505,39 @@ public class QuizService {
     public int getTotalQuestionCount() {
         return questionService.getTotalQuestionCount();
     }
+
+    /**
+     * Check whether any available question matches a tag filter
+     * @param filter tag constraints, or null for the whole bank
+     * @return true if a session with this filter would get questions
+     */
+    public boolean hasQuestions(QuestionFilter filter) {
+        return questionService.hasQuestions(filter);
+    }
+
+    /**
+     * Forwards session events to the listeners registered at the time of the event
+     */
+    private final class Dispatcher implements SessionListener {
+        @Override
+        public void onSessionCreated(QuizSession session) {
+            for (SessionListener listener : listeners) {
+                listener.onSessionCreated(session);
+            }
+        }
+
+        @Override
+        public void onAnswerRecorded(QuizSession session, int position, int answer, boolean correct) {
+            for (SessionListener listener : listeners) {
+                listener.onAnswerRecorded(session, position, answer, correct);
+            }
+        }
+
+        @Override
+        public void onSessionCompleted(QuizSession session) {
+            for (SessionListener listener : listeners) {
+                listener.onSessionCompleted(session);
+            }
+        }
+    }
 }
@@ -0,0 +1,12 @@
+package com.quizgenerator.service;
+
+/**
+ * How a text search query must occur in a question or option. Matching is
+ * case-insensitive in both modes.
+ */
+public enum SearchMode {
+    /** The query may occur anywhere in the text */
+    SUBSTRING,
+    /** The query must occur at the start of a word */
+    PREFIX
+}
@@ -0,0 +1,85 @@
+package com.quizgenerator.service;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * Generates unguessable session ids without contending on a shared generator.
+ *
+ * {@link java.util.UUID#randomUUID()} draws from one process-wide
+ * {@link SecureRandom}, so a burst of session creations serializes on it. Here
+ * ids come from a fixed set of lock-guarded DRBGs, each seeded once from the
+ * system entropy source and drawn from a block of random bytes at a time. A
+ * thread picks its generator by a hash of its id, so concurrent callers mostly
+ * take different locks, and short-lived virtual threads reuse the same warm
+ * generators instead of seeding their own. Ids keep the random UUID format, so
+ * they look the same in logs and snapshots as before.
+ */
+final class SessionIds {
+    private static final int ID_BYTES = 16;
+    private static final int BLOCK_BYTES = ID_BYTES * 32;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final Source[] SOURCES = newSources(Runtime.getRuntime().availableProcessors() * 2);
+
+    private SessionIds() {}
+
+    /**
+     * Generate a new random id
+     * @return version 4 UUID string
+     */
+    static String next() {
+        byte[] random = new byte[ID_BYTES];
+        long threadId = Thread.currentThread().getId();
+        SOURCES[(int) (threadId * 0x9E3779B97F4A7C15L >>> 32) & (SOURCES.length - 1)].nextBytes(random);
+        random[6] = (byte) ((random[6] & 0x0F) | 0x40); // version 4
+        random[8] = (byte) ((random[8] & 0x3F) | 0x80); // IETF variant
+        char[] id = new char[36];
+        int c = 0;
+        for (int i = 0; i < ID_BYTES; i++) {
+            if (i == 4 || i == 6 || i == 8 || i == 10) {
+                id[c++] = '-';
+            }
+            int b = random[i];
+            id[c++] = HEX[(b >> 4) & 0xF];
+            id[c++] = HEX[b & 0xF];
+        }
+        return new String(id);
+    }
+
+    private static Source[] newSources(int minimum) {
+        Source[] sources = new Source[Integer.highestOneBit(Math.max(1, minimum - 1)) << 1];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = new Source();
+        }
+        return sources;
+    }
+
+    private static final class Source {
+        private final SecureRandom random = newRandom();
+        private final byte[] block = new byte[BLOCK_BYTES];
+        private int position = BLOCK_BYTES;
+
+        /**
+         * Copy the next random bytes of the block, refilling it when used up
+         */
+        synchronized void nextBytes(byte[] target) {
+            if (position + target.length > BLOCK_BYTES) {
+                random.nextBytes(block);
+                position = 0;
+            }
+            System.arraycopy(block, position, target, 0, target.length);
+            Arrays.fill(block, position, position + target.length, (byte) 0);
+            position += target.length;
+        }
+
+        private static SecureRandom newRandom() {
+            try {
+                return SecureRandom.getInstance("DRBG");
+            } catch (NoSuchAlgorithmException e) {
+                return new SecureRandom();
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.quizgenerator.service;
+
+import com.quizgenerator.model.QuizSession;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps a stock of ready-made quiz sessions so that creating one during a start
+ * storm is a queue poll rather than an id draw and a bank sample.
+ *
+ * A daemon thread builds sessions until the pool is full and then blocks until
+ * one is taken. Pooled sessions are not registered and fire no events until they
+ * are handed out. When the pool runs dry callers get null and build their own, so
+ * the pool only ever shortens creation. Sessions built before questions are added
+ * to the bank will not include them.
+ */
+public class SessionPool implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(SessionPool.class.getName());
+
+    private final Supplier<QuizSession> factory;
+    private final int questionCount;
+    private final LinkedBlockingQueue<QuizSession> ready;
+    private final Thread refiller;
+    private volatile boolean closed;
+
+    /**
+     * Create a pool and start filling it
+     * @param factory builds an unregistered session
+     * @param questionCount number of questions in the sessions the factory builds
+     * @param capacity number of sessions to keep ready
+     */
+    public SessionPool(Supplier<QuizSession> factory, int questionCount, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.factory = factory;
+        this.questionCount = questionCount;
+        this.ready = new LinkedBlockingQueue<>(capacity);
+        this.refiller = new Thread(this::refill, "session-pool-" + questionCount);
+        this.refiller.setDaemon(true);
+        this.refiller.start();
+    }
+
+    private void refill() {
+        try {
+            while (!closed) {
+                ready.put(factory.get());
+            }
+        } catch (InterruptedException e) {
+            // Closed
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, "Session pool stopped refilling", e);
+        }
+    }
+
+    /**
+     * Take a ready-made session without waiting
+     * @return an unregistered session, or null if the pool is empty or closed
+     */
+    public QuizSession poll() {
+        return closed ? null : ready.poll();
+    }
+
+    /**
+     * Get the number of questions in the pooled sessions
+     * @return question count
+     */
+    public int getQuestionCount() {
+        return questionCount;
+    }
+
+    /**
+     * Get the number of sessions ready to hand out
+     * @return pooled session count
+     */
+    public int size() {
+        return ready.size();
+    }
+
+    /**
+     * Stop refilling and drop the pooled sessions
+     */
+    @Override
+    public void close() {
+        closed = true;
+        refiller.interrupt();
+        ready.clear();
+    }
+}
@@ -0,0 +1,16 @@
+package com.quizgenerator.service;
+
+import com.quizgenerator.model.QuizSession;
+
+/**
+ * Source of sessions that are not in memory yet, such as sessions saved in a
+ * checkpoint before a restart. {@link QuizService} asks it on a registry miss.
+ */
+public interface SessionRecovery {
+    /**
+     * Rebuild a session
+     * @param sessionId session ID
+     * @return the rebuilt session, or null if this source does not have it
+     */
+    QuizSession recover(String sessionId);
+}
@@ -0,0 +1,370 @@
+package com.quizgenerator.service;
+
+import com.quizgenerator.model.QuizSession;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Concurrent in-memory registry of live quiz sessions.
+ *
+ * Sessions are spread over lock-striped segments by session id, so lookups are
+ * O(1) and threads only contend when they hit the same segment. Each segment keeps
+ * its entries in access order, which makes idle expiry and size-capped eviction
+ * a matter of trimming from the least recently used end.
+ *
+ * Sessions are evicted when they are older than the time-to-live, when they have
+ * not been accessed for the idle timeout, or when a segment exceeds its share of
+ * the maximum size. Expired entries are dropped lazily on access, trimmed on
+ * every insert, and a full sweep of one segment is amortized over inserts, so
+ * the registry needs no background thread.
+ */
+public class SessionRegistry {
+    private static final int SWEEP_INTERVAL = 64;
+
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final int maxPerSegment;
+    private final long ttlNanos;
+    private final long idleNanos;
+
+    private final AtomicInteger insertCounter = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private volatile Consumer<QuizSession> evictionListener;
+
+    /**
+     * Create a registry
+     * @param maximumSize maximum number of live sessions
+     * @param timeToLive maximum age of a session
+     * @param idleTimeout maximum time since a session was last accessed
+     * @param unit unit of timeToLive and idleTimeout
+     */
+    public SessionRegistry(int maximumSize, long timeToLive, long idleTimeout, TimeUnit unit) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+        int segmentCount = Math.min(segmentCountFor(Runtime.getRuntime().availableProcessors()),
+                Integer.highestOneBit(maximumSize));
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment();
+        }
+        this.segmentMask = segmentCount - 1;
+        this.maxPerSegment = Math.max(1, maximumSize / segmentCount);
+        this.ttlNanos = unit.toNanos(timeToLive);
+        this.idleNanos = unit.toNanos(idleTimeout);
+    }
+
+    /**
+     * Register a session, replacing any session with the same id
+     * @param session session to register
+     */
+    public void put(QuizSession session) {
+        Segment segment = segmentFor(session.getSessionId());
+        long now = System.nanoTime();
+        segment.lock();
+        try {
+            insert(segment, session, now);
+        } finally {
+            segment.unlock();
+        }
+        afterInsert();
+    }
+
+    /**
+     * Look up a live session, or load and register it if it is missing. The loader
+     * runs under the segment lock, so it is called at most once per missing id at a
+     * time and must be quick.
+     * @param sessionId session ID
+     * @param loader builds the session, returning null if it does not exist
+     * @return the registered or loaded session, or null
+     */
+    public QuizSession computeIfAbsent(String sessionId, Function<String, QuizSession> loader) {
+        Segment segment = segmentFor(sessionId);
+        long now = System.nanoTime();
+        QuizSession loaded;
+        segment.lock();
+        try {
+            Entry entry = segment.entries.get(sessionId);
+            if (entry != null && !isExpired(entry, now)) {
+                entry.lastAccessNanos = now;
+                hits.increment();
+                return entry.session;
+            }
+            if (entry != null) {
+                segment.entries.remove(sessionId);
+                evicted(entry);
+            }
+            misses.increment();
+            loaded = loader.apply(sessionId);
+            if (loaded == null) {
+                return null;
+            }
+            insert(segment, loaded, now);
+        } finally {
+            segment.unlock();
+        }
+        afterInsert();
+        return loaded;
+    }
+
+    private void insert(Segment segment, QuizSession session, long now) {
+        segment.entries.put(session.getSessionId(), new Entry(session, now));
+        trimExpiredHead(segment, now);
+        while (segment.entries.size() > maxPerSegment) {
+            removeEldest(segment);
+        }
+    }
+
+    private void afterInsert() {
+        int inserts = insertCounter.incrementAndGet();
+        if ((inserts & (SWEEP_INTERVAL - 1)) == 0) {
+            sweep(segments[(inserts / SWEEP_INTERVAL) & segmentMask], System.nanoTime());
+        }
+    }
+
+    /**
+     * Look up a live session and mark it as accessed
+     * @param sessionId session ID
+     * @return the session, or null if unknown or expired
+     */
+    public QuizSession get(String sessionId) {
+        if (sessionId == null) {
+            misses.increment();
+            return null;
+        }
+        Segment segment = segmentFor(sessionId);
+        long now = System.nanoTime();
+        segment.lock();
+        try {
+            Entry entry = segment.entries.get(sessionId);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (isExpired(entry, now)) {
+                segment.entries.remove(sessionId);
+                evicted(entry);
+                misses.increment();
+                return null;
+            }
+            entry.lastAccessNanos = now;
+            hits.increment();
+            return entry.session;
+        } finally {
+            segment.unlock();
+        }
+    }
+
+    /**
+     * Remove a session
+     * @param sessionId session ID
+     * @return the removed session, or null if it was not registered
+     */
+    public QuizSession remove(String sessionId) {
+        Segment segment = segmentFor(sessionId);
+        segment.lock();
+        try {
+            Entry entry = segment.entries.remove(sessionId);
+            return entry != null ? entry.session : null;
+        } finally {
+            segment.unlock();
+        }
+    }
+
+    /**
+     * Get the number of registered sessions, including expired ones not yet swept
+     * @return session count
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            segment.lock();
+            try {
+                size += segment.entries.size();
+            } finally {
+                segment.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Evict all expired sessions now
+     */
+    public void cleanUp() {
+        long now = System.nanoTime();
+        for (Segment segment : segments) {
+            sweep(segment, now);
+        }
+    }
+
+    /**
+     * Visit every live session. Segments are copied one at a time, so the
+     * registry is never locked as a whole and the view is weakly consistent.
+     * @param action callback for each session
+     */
+    public void forEach(Consumer<QuizSession> action) {
+        List<QuizSession> batch = new ArrayList<>();
+        for (Segment segment : segments) {
+            batch.clear();
+            segment.lock();
+            try {
+                for (Entry entry : segment.entries.values()) {
+                    batch.add(entry.session);
+                }
+            } finally {
+                segment.unlock();
+            }
+            batch.forEach(action);
+        }
+    }
+
+    /**
+     * Set the callback told about each session evicted for its age, idleness or
+     * the size cap. It runs under a segment lock, so it must be quick.
+     * @param listener eviction callback, or null for none
+     */
+    public void setEvictionListener(Consumer<QuizSession> listener) {
+        this.evictionListener = listener;
+    }
+
+    /**
+     * Get a snapshot of the registry statistics
+     * @return hit, miss and eviction counts
+     */
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size());
+    }
+
+    private Segment segmentFor(String sessionId) {
+        int h = sessionId.hashCode();
+        return segments[(h ^ (h >>> 16)) & segmentMask];
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.createdNanos >= ttlNanos || now - entry.lastAccessNanos >= idleNanos;
+    }
+
+    /**
+     * Drop expired entries from the least recently used end. Must hold the segment lock.
+     */
+    private void trimExpiredHead(Segment segment, long now) {
+        Iterator<Entry> it = segment.entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (!isExpired(entry, now)) {
+                break;
+            }
+            it.remove();
+            evicted(entry);
+        }
+    }
+
+    private void evicted(Entry entry) {
+        evictions.increment();
+        Consumer<QuizSession> listener = evictionListener;
+        if (listener != null) {
+            listener.accept(entry.session);
+        }
+    }
+
+    private void removeEldest(Segment segment) {
+        Iterator<Entry> it = segment.entries.values().iterator();
+        Entry entry = it.next();
+        it.remove();
+        evicted(entry);
+    }
+
+    private void sweep(Segment segment, long now) {
+        segment.lock();
+        try {
+            segment.entries.values().removeIf(entry -> {
+                if (isExpired(entry, now)) {
+                    evicted(entry);
+                    return true;
+                }
+                return false;
+            });
+        } finally {
+            segment.unlock();
+        }
+    }
+
+    private static int segmentCountFor(int processors) {
+        return Integer.highestOneBit(Math.max(1, processors * 4 - 1)) << 1;
+    }
+
+    private static final class Segment extends ReentrantLock {
+        private static final long serialVersionUID = 1L;
+
+        // Access-ordered: iteration starts at the least recently used entry
+        final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    private static final class Entry {
+        final QuizSession session;
+        final long createdNanos;
+        long lastAccessNanos;
+
+        Entry(QuizSession session, long now) {
+            this.session = session;
+            this.createdNanos = now;
+            this.lastAccessNanos = now;
+        }
+    }
+
+    /**
+     * Point-in-time registry statistics
+     */
+    public static class Stats {
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final int size;
+
+        Stats(long hitCount, long missCount, long evictionCount, int size) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.size = size;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{" +
+                    "hitCount=" + hitCount +
+                    ", missCount=" + missCount +
+                    ", evictionCount=" + evictionCount +
+                    ", size=" + size +
+                    '}';
+        }
+    }
+}
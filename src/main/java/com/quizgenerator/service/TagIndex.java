@@ -0,0 +1,253 @@
+package com.quizgenerator.service;
+
+import com.quizgenerator.model.MappedQuestionBank;
+import com.quizgenerator.model.MappedQuestionBank.TagType;
+import com.quizgenerator.model.Question;
+import com.quizgenerator.util.RoaringBitmap;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Immutable index from tag values to the store indices of the questions
+ * carrying them, one {@link RoaringBitmap} per value.
+ *
+ * The bank only grows at the end, so indexing a batch appends to the bitmaps
+ * of the tag values it contains and shares everything else with the previous
+ * index. Readers holding an older index are unaffected.
+ */
+final class TagIndex {
+    private static final int REJECTION_ATTEMPTS_PER_PICK = 32;
+
+    static final TagIndex EMPTY = new TagIndex(Collections.emptyMap(), Collections.emptyMap(),
+            Collections.emptyMap());
+
+    private final Map<String, RoaringBitmap> categories;
+    private final Map<String, RoaringBitmap> difficulties;
+    private final Map<String, RoaringBitmap> languages;
+
+    private TagIndex(Map<String, RoaringBitmap> categories, Map<String, RoaringBitmap> difficulties,
+                     Map<String, RoaringBitmap> languages) {
+        this.categories = categories;
+        this.difficulties = difficulties;
+        this.languages = languages;
+    }
+
+    /**
+     * Index a batch of questions stored consecutively from a given store index
+     * @param firstIndex store index of the first question in the batch
+     * @param batch questions in store order
+     * @return index covering this index's questions and the batch
+     */
+    TagIndex withQuestions(int firstIndex, Collection<Question> batch) {
+        Map<String, IndexList> newCategories = new HashMap<>();
+        Map<String, IndexList> newDifficulties = new HashMap<>();
+        Map<String, IndexList> newLanguages = new HashMap<>();
+        int index = firstIndex;
+        for (Question question : batch) {
+            collect(newCategories, question.getCategory(), index);
+            collect(newDifficulties, question.getDifficulty(), index);
+            collect(newLanguages, question.getLanguage(), index);
+            index++;
+        }
+        if (newCategories.isEmpty() && newDifficulties.isEmpty() && newLanguages.isEmpty()) {
+            return this;
+        }
+        return new TagIndex(merge(categories, newCategories), merge(difficulties, newDifficulties),
+                merge(languages, newLanguages));
+    }
+
+    /**
+     * Index the tags of a bank image from the question lists stored in it,
+     * without reading any question records
+     * @param bank mapped bank
+     * @return index covering the whole image
+     */
+    static TagIndex of(MappedQuestionBank bank) {
+        return new TagIndex(bitmaps(bank, TagType.CATEGORY), bitmaps(bank, TagType.DIFFICULTY),
+                bitmaps(bank, TagType.LANGUAGE));
+    }
+
+    private static Map<String, RoaringBitmap> bitmaps(MappedQuestionBank bank, TagType type) {
+        // Values written with different case or padding share one bitmap
+        Map<String, int[]> lists = new HashMap<>();
+        for (String value : bank.getTagValues(type)) {
+            if (value.trim().isEmpty()) {
+                continue;
+            }
+            int[] indices = bank.getTaggedIndices(type, value);
+            lists.merge(normalize(value), indices, (a, b) -> {
+                int[] merged = Arrays.copyOf(a, a.length + b.length);
+                System.arraycopy(b, 0, merged, a.length, b.length);
+                Arrays.sort(merged);
+                return merged;
+            });
+        }
+        Map<String, RoaringBitmap> bitmaps = new HashMap<>();
+        for (Map.Entry<String, int[]> entry : lists.entrySet()) {
+            int[] indices = entry.getValue();
+            bitmaps.put(entry.getKey(), RoaringBitmap.empty().append(indices, 0, indices.length));
+        }
+        return bitmaps;
+    }
+
+    /**
+     * Find the questions matching a filter
+     * @param filter tag constraints
+     * @return matching store indices, or null if the filter matches every question
+     */
+    RoaringBitmap match(QuestionFilter filter) {
+        RoaringBitmap[] constraints = constraints(filter);
+        if (constraints == null) {
+            return null;
+        }
+        RoaringBitmap result = constraints[0];
+        for (int i = 1; i < constraints.length; i++) {
+            result = result.and(constraints[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Draw distinct random questions matching a filter.
+     *
+     * With several tags, candidates are drawn from the smallest tag bitmap and
+     * kept if every other bitmap contains them, which costs a few lookups per
+     * question when the tags overlap well. Only when too many candidates are
+     * rejected is the full intersection built and sampled by rank.
+     * @param filter tag constraints
+     * @param count number of questions wanted
+     * @return store indices in random order, or null if the filter matches every question
+     */
+    int[] sample(QuestionFilter filter, int count) {
+        RoaringBitmap[] constraints = constraints(filter);
+        if (constraints == null) {
+            return null;
+        }
+        RoaringBitmap smallest = constraints[0];
+        if (constraints.length == 1) {
+            return sampleByRank(smallest, count);
+        }
+
+        int wanted = Math.min(count, smallest.getCardinality());
+        int[] picks = new int[wanted];
+        int[] picked = QuestionSampler.newSet(wanted);
+        int mask = picked.length - 1;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int budget = REJECTION_ATTEMPTS_PER_PICK * wanted;
+        int found = 0;
+        for (int attempt = 0; found < wanted && attempt < budget; attempt++) {
+            int candidate = smallest.select(random.nextInt(smallest.getCardinality()));
+            if (matchesAll(constraints, candidate) && QuestionSampler.insert(picked, mask, candidate)) {
+                picks[found++] = candidate;
+            }
+        }
+        if (found == wanted) {
+            return picks;
+        }
+        return sampleByRank(match(filter), count);
+    }
+
+    private static int[] sampleByRank(RoaringBitmap matches, int count) {
+        int[] picks = QuestionSampler.sample(matches.getCardinality(), count);
+        for (int i = 0; i < picks.length; i++) {
+            picks[i] = matches.select(picks[i]);
+        }
+        return picks;
+    }
+
+    private static boolean matchesAll(RoaringBitmap[] constraints, int candidate) {
+        for (int i = 1; i < constraints.length; i++) {
+            if (!constraints[i].contains(candidate)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the bitmaps a filter constrains, most selective first
+     * @return constraint bitmaps, or null if the filter matches every question
+     */
+    private RoaringBitmap[] constraints(QuestionFilter filter) {
+        if (filter == null || filter.isAny()) {
+            return null;
+        }
+        RoaringBitmap[] constraints = new RoaringBitmap[3];
+        int count = 0;
+        if (filter.getCategory() != null) {
+            constraints[count++] = lookup(categories, filter.getCategory());
+        }
+        if (filter.getDifficulty() != null) {
+            constraints[count++] = lookup(difficulties, filter.getDifficulty());
+        }
+        if (filter.getLanguage() != null) {
+            constraints[count++] = lookup(languages, filter.getLanguage());
+        }
+        constraints = Arrays.copyOf(constraints, count);
+        Arrays.sort(constraints, (a, b) -> Integer.compare(a.getCardinality(), b.getCardinality()));
+        return constraints;
+    }
+
+    Set<String> getCategories() {
+        return Collections.unmodifiableSet(categories.keySet());
+    }
+
+    Set<String> getDifficulties() {
+        return Collections.unmodifiableSet(difficulties.keySet());
+    }
+
+    Set<String> getLanguages() {
+        return Collections.unmodifiableSet(languages.keySet());
+    }
+
+    static String normalize(String tag) {
+        return tag.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static RoaringBitmap lookup(Map<String, RoaringBitmap> bitmaps, String tag) {
+        RoaringBitmap bitmap = bitmaps.get(normalize(tag));
+        return bitmap != null ? bitmap : RoaringBitmap.empty();
+    }
+
+    private static void collect(Map<String, IndexList> lists, String tag, int index) {
+        if (tag != null && !tag.trim().isEmpty()) {
+            lists.computeIfAbsent(normalize(tag), key -> new IndexList()).add(index);
+        }
+    }
+
+    private static Map<String, RoaringBitmap> merge(Map<String, RoaringBitmap> current,
+                                                    Map<String, IndexList> additions) {
+        if (additions.isEmpty()) {
+            return current;
+        }
+        Map<String, RoaringBitmap> merged = new HashMap<>(current);
+        for (Map.Entry<String, IndexList> entry : additions.entrySet()) {
+            IndexList list = entry.getValue();
+            RoaringBitmap existing = merged.getOrDefault(entry.getKey(), RoaringBitmap.empty());
+            merged.put(entry.getKey(), existing.append(list.values, 0, list.size));
+        }
+        return merged;
+    }
+
+    /**
+     * Growable list of increasing store indices
+     */
+    private static final class IndexList {
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
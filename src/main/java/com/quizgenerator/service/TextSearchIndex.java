@@ -0,0 +1,596 @@
+package com.quizgenerator.service;
+
+import com.quizgenerator.model.QuestionBank;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable trigram inverted index over question and option text.
+ *
+ * Every run of three characters inside the question text or one of its
+ * options, lower-cased, is a trigram packed into a long. Each trigram maps to
+ * the sorted store indices of the questions containing it, stored as varint
+ * deltas in a {@code byte[]}, so a trigram shared by most of the bank costs
+ * about one byte per question. Every {@value #SKIP_INTERVAL} values a skip
+ * entry records the value reached and its byte offset. A query intersects the
+ * posting lists of its own trigrams, smallest first, jumping over the blocks of
+ * a long list that cannot hold the next candidate, and only the surviving
+ * candidates are checked
+ * against the text, since a question can contain every trigram of a query
+ * without containing the query itself.
+ *
+ * The index covers the questions in the store when it was built. It is built
+ * on the common fork/join pool: each task indexes a chunk of consecutive
+ * questions, then the chunk postings are merged per range of trigrams, also in
+ * parallel. Questions added later are checked by a scan until the index is
+ * rebuilt.
+ */
+final class TextSearchIndex {
+    static final int GRAM_LENGTH = 3;
+    static final TextSearchIndex EMPTY = new TextSearchIndex(0, new long[0], new byte[0][], new int[0],
+            new int[0][]);
+
+    private static final int CHUNK_SIZE = 1 << 14;
+    private static final int MIN_GRAMS_PER_PARTITION = 1 << 10;
+    private static final long GRAM_MASK = (1L << 48) - 1;
+    private static final int SKIP_INTERVAL = 64;
+    private static final int[] NO_SKIPS = {0, 0};
+    private static final int MAX_VERIFIED = 20_000;
+    private static final int QUESTION_WEIGHT = 2000;
+    private static final int OPTION_WEIGHT = 1000;
+    private static final int WORD_START_BONUS = 400;
+    private static final int FIELD_START_BONUS = 200;
+    private static final int COVERAGE_BONUS = 100;
+
+    private final int size;
+    private final long[] grams;
+    private final byte[][] postings;
+    private final int[] counts;
+    private final int[][] skips; // per block: value before the block, byte offset of the block
+
+    private TextSearchIndex(int size, long[] grams, byte[][] postings, int[] counts, int[][] skips) {
+        this.size = size;
+        this.grams = grams;
+        this.postings = postings;
+        this.counts = counts;
+        this.skips = skips;
+    }
+
+    /**
+     * Index every question currently in the store
+     * @param store question store
+     * @return index covering the first {@link QuestionBank#size()} questions
+     */
+    static TextSearchIndex build(QuestionBank store) {
+        int size = store.size();
+        if (size == 0) {
+            return EMPTY;
+        }
+        int chunkCount = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        Chunk[] chunks = new Chunk[chunkCount];
+        IntStream.range(0, chunkCount).parallel().forEach(c ->
+                chunks[c] = Chunk.build(store, c * CHUNK_SIZE, Math.min(size, (c + 1) * CHUNK_SIZE)));
+
+        long[] grams = distinctGrams(chunks);
+        byte[][] postings = new byte[grams.length][];
+        int[] counts = new int[grams.length];
+        int[][] skips = new int[grams.length][];
+        int partitions = Math.max(1, Math.min(grams.length / MIN_GRAMS_PER_PARTITION,
+                ForkJoinPool.getCommonPoolParallelism() * 4));
+        IntStream.range(0, partitions).parallel().forEach(p -> merge(chunks, grams,
+                (int) ((long) grams.length * p / partitions), (int) ((long) grams.length * (p + 1) / partitions),
+                postings, counts, skips));
+        return new TextSearchIndex(size, grams, postings, counts, skips);
+    }
+
+    /**
+     * Get the number of questions covered by the index
+     * @return indexed question count
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Get the number of distinct trigrams
+     * @return trigram count
+     */
+    int getGramCount() {
+        return grams.length;
+    }
+
+    /**
+     * Get the size of the compressed posting lists
+     * @return posting bytes
+     */
+    long getPostingBytes() {
+        long bytes = 0;
+        for (byte[] posting : postings) {
+            bytes += posting.length;
+        }
+        return bytes;
+    }
+
+    /**
+     * Find the questions whose text or options contain a query, best matches first.
+     * Matches in the question text rank above matches in an option, matches at the
+     * start of a word above matches inside one, and then matches covering more of
+     * the text rank higher; ties keep store order. At most {@value #MAX_VERIFIED}
+     * candidates are checked per query, so a very common query returns the best of
+     * the first ones. Queries shorter than {@value #GRAM_LENGTH} characters have no
+     * trigram and fall back to a scan.
+     * @param store store this index was built from
+     * @param query text to look for
+     * @param mode whether the query may match anywhere or only at a word start
+     * @param limit maximum number of results
+     * @return question ids in rank order
+     */
+    int[] search(QuestionBank store, String query, SearchMode mode, int limit) {
+        String needle = normalize(query);
+        if (needle.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+        Matches matches = new Matches();
+        int end = store.size();
+        int scanFrom = 0;
+        if (needle.length() >= GRAM_LENGTH) {
+            for (int index : candidates(needle)) {
+                if (!matches.check(store, index, needle, mode)) {
+                    break;
+                }
+            }
+            scanFrom = size;
+        }
+        for (int index = scanFrom; index < end; index++) {
+            if (!matches.check(store, index, needle, mode)) {
+                break;
+            }
+        }
+        return matches.ranked(store, limit);
+    }
+
+    /**
+     * Intersect the posting lists of the needle's trigrams
+     */
+    private int[] candidates(String needle) {
+        long[] queryGrams = new long[needle.length() - GRAM_LENGTH + 1];
+        long gram = 0;
+        for (int i = 0; i < needle.length(); i++) {
+            gram = (gram << 16 | needle.charAt(i)) & GRAM_MASK;
+            if (i >= GRAM_LENGTH - 1) {
+                queryGrams[i - GRAM_LENGTH + 1] = gram;
+            }
+        }
+        int[] slots = new int[queryGrams.length];
+        for (int i = 0; i < queryGrams.length; i++) {
+            slots[i] = Arrays.binarySearch(grams, queryGrams[i]);
+            if (slots[i] < 0) {
+                return new int[0];
+            }
+        }
+        // Smallest posting list first so each intersection only shrinks the candidates
+        Integer[] order = new Integer[slots.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = slots[i];
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(counts[a], counts[b]));
+
+        int[] result = decode(postings[order[0]], counts[order[0]]);
+        int length = result.length;
+        int previous = order[0];
+        for (int i = 1; i < order.length && length > 0; i++) {
+            if (order[i] != previous) {
+                length = intersect(result, length, postings[order[i]], counts[order[i]], skips[order[i]]);
+                previous = order[i];
+            }
+        }
+        return length == result.length ? result : Arrays.copyOf(result, length);
+    }
+
+    private static int[] decode(byte[] posting, int count) {
+        int[] values = new int[count];
+        int value = 0;
+        int offset = 0;
+        for (int i = 0; i < count; i++) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = posting[offset++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            value += delta;
+            values[i] = value;
+        }
+        return values;
+    }
+
+    /**
+     * Keep the values that also occur in a posting list, decoding it on the fly
+     * and skipping whole blocks that end before the next value
+     * @return number of values kept at the front of the array
+     */
+    private static int intersect(int[] values, int length, byte[] posting, int count, int[] skips) {
+        int blocks = skips.length / 2;
+        int block = 0;
+        int decoded = 0;
+        int value = 0;
+        int current = -1;
+        int offset = 0;
+        int kept = 0;
+        for (int i = 0; i < length; i++) {
+            int target = values[i];
+            if (current < target) {
+                if (block + 1 < blocks && skips[2 * (block + 1)] < target) {
+                    int low = block + 1;
+                    int high = blocks - 1;
+                    while (low < high) {
+                        int mid = (low + high + 1) >>> 1;
+                        if (skips[2 * mid] < target) {
+                            low = mid;
+                        } else {
+                            high = mid - 1;
+                        }
+                    }
+                    block = low;
+                    value = current = skips[2 * block];
+                    offset = skips[2 * block + 1];
+                    decoded = block * SKIP_INTERVAL;
+                }
+                while (current < target && decoded < count) {
+                    int delta = 0;
+                    int shift = 0;
+                    byte b;
+                    do {
+                        b = posting[offset++];
+                        delta |= (b & 0x7F) << shift;
+                        shift += 7;
+                    } while (b < 0);
+                    value += delta;
+                    current = value;
+                    decoded++;
+                    if (decoded % SKIP_INTERVAL == 0) {
+                        block = decoded / SKIP_INTERVAL;
+                    }
+                }
+                if (current < target) {
+                    break;
+                }
+            }
+            if (current == target) {
+                values[kept++] = target;
+            }
+        }
+        return kept;
+    }
+
+    private static long[] distinctGrams(Chunk[] chunks) {
+        int total = 0;
+        for (Chunk chunk : chunks) {
+            total += chunk.grams.length;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (Chunk chunk : chunks) {
+            System.arraycopy(chunk.grams, 0, all, offset, chunk.grams.length);
+            offset += chunk.grams.length;
+        }
+        Arrays.parallelSort(all);
+        int distinct = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (i == 0 || all[i] != all[i - 1]) {
+                all[distinct++] = all[i];
+            }
+        }
+        return Arrays.copyOf(all, distinct);
+    }
+
+    /**
+     * Concatenate the chunk postings of the trigrams in [from, to). Chunks cover
+     * increasing index ranges, so appending them in chunk order keeps each list sorted.
+     */
+    private static void merge(Chunk[] chunks, long[] grams, int from, int to, byte[][] postings, int[] counts,
+                              int[][] skips) {
+        if (from >= to) {
+            return;
+        }
+        int[] cursors = new int[chunks.length];
+        for (int c = 0; c < chunks.length; c++) {
+            int position = Arrays.binarySearch(chunks[c].grams, grams[from]);
+            cursors[c] = position >= 0 ? position : -position - 1;
+        }
+        PostingWriter writer = new PostingWriter();
+        for (int g = from; g < to; g++) {
+            long gram = grams[g];
+            writer.reset();
+            for (int c = 0; c < chunks.length; c++) {
+                Chunk chunk = chunks[c];
+                int cursor = cursors[c];
+                if (cursor < chunk.grams.length && chunk.grams[cursor] == gram) {
+                    writer.addAll(chunk.lists[cursor], chunk.sizes[cursor]);
+                    cursors[c] = cursor + 1;
+                }
+            }
+            postings[g] = writer.toByteArray();
+            counts[g] = writer.count;
+            skips[g] = writer.skips();
+        }
+    }
+
+    static String normalize(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    private static void addGrams(String text, GramTable table, int index) {
+        int length = text.length();
+        long gram = 0;
+        for (int i = 0; i < length; i++) {
+            gram = (gram << 16 | Character.toLowerCase(text.charAt(i))) & GRAM_MASK;
+            if (i >= GRAM_LENGTH - 1) {
+                table.add(gram, index);
+            }
+        }
+    }
+
+    /**
+     * Score the best match of a normalized needle in a question
+     * @return score, or -1 if the question does not match
+     */
+    private static int score(QuestionBank store, int index, String needle, SearchMode mode) {
+        int best = fieldScore(store.getQuestionText(index), needle, mode, QUESTION_WEIGHT);
+        int options = store.getOptionCount(index);
+        for (int option = 0; option < options; option++) {
+            best = Math.max(best, fieldScore(store.getOption(index, option), needle, mode, OPTION_WEIGHT));
+        }
+        return best;
+    }
+
+    private static int fieldScore(String text, String needle, SearchMode mode, int weight) {
+        int position = find(text, needle, 0, mode == SearchMode.PREFIX);
+        if (position < 0) {
+            return -1;
+        }
+        if (!isWordStart(text, position)) {
+            int wordStart = find(text, needle, position + 1, true);
+            position = wordStart >= 0 ? wordStart : position;
+        }
+        int score = weight + COVERAGE_BONUS * needle.length() / text.length();
+        if (isWordStart(text, position)) {
+            score += WORD_START_BONUS;
+        }
+        if (position == 0) {
+            score += FIELD_START_BONUS;
+        }
+        return score;
+    }
+
+    private static int find(String text, String needle, int from, boolean wordStartOnly) {
+        int last = text.length() - needle.length();
+        for (int i = from; i <= last; i++) {
+            if (wordStartOnly && !isWordStart(text, i)) {
+                continue;
+            }
+            int k = 0;
+            while (k < needle.length() && Character.toLowerCase(text.charAt(i + k)) == needle.charAt(k)) {
+                k++;
+            }
+            if (k == needle.length()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isWordStart(String text, int position) {
+        return position == 0 || !Character.isLetterOrDigit(text.charAt(position - 1));
+    }
+
+    /**
+     * Scored matches of one query, packed as score in the high half and the
+     * inverted store index in the low half so sorting ranks ties in store order
+     */
+    private static final class Matches {
+        private long[] keys = new long[16];
+        private int count;
+        private int verified;
+
+        /**
+         * @return false once the verification budget is spent
+         */
+        boolean check(QuestionBank store, int index, String needle, SearchMode mode) {
+            if (verified++ >= MAX_VERIFIED) {
+                return false;
+            }
+            int score = score(store, index, needle, mode);
+            if (score >= 0) {
+                if (count == keys.length) {
+                    keys = Arrays.copyOf(keys, count * 2);
+                }
+                keys[count++] = (long) score << 32 | (Integer.MAX_VALUE - index);
+            }
+            return true;
+        }
+
+        int[] ranked(QuestionBank store, int limit) {
+            Arrays.sort(keys, 0, count);
+            int[] ids = new int[Math.min(limit, count)];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = store.getId(Integer.MAX_VALUE - (int) keys[count - 1 - i]);
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * Sorted distinct trigrams of a chunk of questions with their store indices
+     */
+    private static final class Chunk {
+        final long[] grams;
+        final int[][] lists;
+        final int[] sizes;
+
+        private Chunk(long[] grams, int[][] lists, int[] sizes) {
+            this.grams = grams;
+            this.lists = lists;
+            this.sizes = sizes;
+        }
+
+        static Chunk build(QuestionBank store, int from, int to) {
+            GramTable table = new GramTable();
+            for (int index = from; index < to; index++) {
+                addGrams(store.getQuestionText(index), table, index);
+                int options = store.getOptionCount(index);
+                for (int option = 0; option < options; option++) {
+                    addGrams(store.getOption(index, option), table, index);
+                }
+            }
+
+            long[] grams = Arrays.copyOf(table.grams, table.count);
+            Arrays.sort(grams);
+            int[][] lists = new int[grams.length][];
+            int[] sizes = new int[grams.length];
+            for (int i = 0; i < grams.length; i++) {
+                int list = table.find(grams[i]);
+                lists[i] = table.lists[list];
+                sizes[i] = table.sizes[list];
+            }
+            return new Chunk(grams, lists, sizes);
+        }
+    }
+
+    /**
+     * Open-addressing map from trigram to a growable list of store indices.
+     * Questions are added in index order, so a repeated trigram within one
+     * question is dropped by comparing with the last index in its list.
+     */
+    private static final class GramTable {
+        long[] keys = new long[1 << 12];
+        int[] slots = new int[1 << 12]; // list number + 1, 0 when the slot is free
+        long[] grams = new long[1 << 11];
+        int[][] lists = new int[1 << 11][];
+        int[] sizes = new int[1 << 11];
+        int count;
+
+        void add(long gram, int index) {
+            int list = find(gram);
+            if (list < 0) {
+                list = insert(gram);
+            }
+            int[] values = lists[list];
+            int size = sizes[list];
+            if (size > 0 && values[size - 1] == index) {
+                return;
+            }
+            if (size == values.length) {
+                values = lists[list] = Arrays.copyOf(values, values.length * 2);
+            }
+            values[sizes[list]++] = index;
+        }
+
+        int find(long gram) {
+            int mask = keys.length - 1;
+            for (int slot = mix(gram) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == gram) {
+                    return slots[slot] - 1;
+                }
+            }
+            return -1;
+        }
+
+        private int insert(long gram) {
+            if (count == grams.length) {
+                grams = Arrays.copyOf(grams, count * 2);
+                lists = Arrays.copyOf(lists, count * 2);
+                sizes = Arrays.copyOf(sizes, count * 2);
+            }
+            if ((count + 1) * 2 > keys.length) {
+                rehash(keys.length * 2);
+            }
+            int list = count++;
+            grams[list] = gram;
+            lists[list] = new int[4];
+            place(gram, list);
+            return list;
+        }
+
+        private void rehash(int capacity) {
+            keys = new long[capacity];
+            slots = new int[capacity];
+            for (int list = 0; list < count; list++) {
+                place(grams[list], list);
+            }
+        }
+
+        private void place(long gram, int list) {
+            int mask = keys.length - 1;
+            int slot = mix(gram) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = gram;
+            slots[slot] = list + 1;
+        }
+
+        private static int mix(long gram) {
+            long h = gram * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    /**
+     * Varint delta encoder for one posting list at a time
+     */
+    private static final class PostingWriter {
+        private byte[] bytes = new byte[256];
+        private int[] skipEntries = new int[16];
+        private int length;
+        private int last;
+        int count;
+
+        void reset() {
+            length = 0;
+            last = 0;
+            count = 0;
+        }
+
+        void addAll(int[] values, int size) {
+            for (int i = 0; i < size; i++) {
+                if (count % SKIP_INTERVAL == 0) {
+                    int block = count / SKIP_INTERVAL;
+                    if (2 * block + 2 > skipEntries.length) {
+                        skipEntries = Arrays.copyOf(skipEntries, skipEntries.length * 2);
+                    }
+                    skipEntries[2 * block] = last;
+                    skipEntries[2 * block + 1] = length;
+                }
+                if (length + 5 > bytes.length) {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
+                int delta = values[i] - last;
+                last = values[i];
+                while ((delta & ~0x7F) != 0) {
+                    bytes[length++] = (byte) (delta & 0x7F | 0x80);
+                    delta >>>= 7;
+                }
+                bytes[length++] = (byte) delta;
+                count++;
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+
+        int[] skips() {
+            return count <= SKIP_INTERVAL ? NO_SKIPS
+                    : Arrays.copyOf(skipEntries, 2 * ((count + SKIP_INTERVAL - 1) / SKIP_INTERVAL));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.quizgenerator.simulation;
+
+import java.util.SplittableRandom;
+
+/**
+ * How likely simulated takers are to answer correctly
+ */
+@FunctionalInterface
+public interface AccuracyProfile {
+    /**
+     * Pick the probability of a correct answer for a new taker
+     * @param random per-taker random source
+     * @return probability in the range 0-1
+     */
+    double nextTakerAccuracy(SplittableRandom random);
+
+    /**
+     * Parse a profile specification:
+     * <ul>
+     *   <li>{@code P}: every taker answers correctly with probability P, e.g. {@code 0.7}</li>
+     *   <li>{@code uniform:MIN:MAX}: each taker's accuracy is uniform between MIN and MAX</li>
+     *   <li>{@code mixed}: 20% novices (0.4), 60% average takers (0.7), 20% experts (0.95)</li>
+     * </ul>
+     * @param spec profile specification
+     * @return accuracy profile
+     */
+    static AccuracyProfile parse(String spec) {
+        String[] parts = spec.split(":");
+        switch (parts[0]) {
+            case "uniform": {
+                double min = Double.parseDouble(parts[1]);
+                double max = Double.parseDouble(parts[2]);
+                return random -> min + (max - min) * random.nextDouble();
+            }
+            case "mixed":
+                return random -> {
+                    double roll = random.nextDouble();
+                    return roll < 0.2 ? 0.4 : roll < 0.8 ? 0.7 : 0.95;
+                };
+            default: {
+                double probability = Double.parseDouble(spec);
+                if (probability < 0 || probability > 1) {
+                    throw new IllegalArgumentException("Accuracy must be between 0 and 1: " + spec);
+                }
+                return random -> probability;
+            }
+        }
+    }
+}
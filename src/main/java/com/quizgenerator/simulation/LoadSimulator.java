@@ -0,0 +1,233 @@
+package com.quizgenerator.simulation;
+
+import com.quizgenerator.metrics.LatencyHistogram;
+import com.quizgenerator.metrics.QuizMetrics;
+import com.quizgenerator.model.Question;
+import com.quizgenerator.model.QuizSession;
+import com.quizgenerator.service.QuestionBankLoader;
+import com.quizgenerator.service.QuestionService;
+import com.quizgenerator.service.QuizService;
+import com.quizgenerator.util.VirtualThreads;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Headless load simulation of many concurrent quiz takers.
+ *
+ * Each simulated taker runs on its own virtual thread (or on a platform thread
+ * pool on runtimes without virtual threads). It creates a session, looks the
+ * session up and answers every question after a think time, then reads its
+ * results. The run reports throughput, per-operation latency percentiles and
+ * the heap held by the sessions at the end.
+ *
+ * Usage: {@code LoadSimulator [--takers=N] [--questions=N] [--think=SPEC]
+ * [--accuracy=SPEC] [--bank=FILE] [--seed=N] [--fallback-threads=N]}.
+ * See {@link ThinkTime#parse(String)} and {@link AccuracyProfile#parse(String)}
+ * for the distribution formats.
+ */
+public class LoadSimulator {
+    private final QuizService quizService;
+    private final int takers;
+    private final int questionsPerQuiz;
+    private final ThinkTime thinkTime;
+    private final AccuracyProfile accuracyProfile;
+    private final long seed;
+    private final int fallbackThreads;
+
+    private final LatencyHistogram createLatency = new LatencyHistogram();
+    private final LatencyHistogram lookupLatency = new LatencyHistogram();
+    private final LatencyHistogram submitLatency = new LatencyHistogram();
+    private final LatencyHistogram resultsLatency = new LatencyHistogram();
+    private final LongAdder completedSessions = new LongAdder();
+    private final LongAdder lostSessions = new LongAdder();
+
+    public LoadSimulator(QuizService quizService, int takers, int questionsPerQuiz, ThinkTime thinkTime,
+                         AccuracyProfile accuracyProfile, long seed, int fallbackThreads) {
+        this.quizService = quizService;
+        this.takers = takers;
+        this.questionsPerQuiz = questionsPerQuiz;
+        this.thinkTime = thinkTime;
+        this.accuracyProfile = accuracyProfile;
+        this.seed = seed;
+        this.fallbackThreads = fallbackThreads;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int takers = 10_000;
+        int questions = 10;
+        String think = "exp:200";
+        String accuracy = "mixed";
+        String bank = null;
+        long seed = System.nanoTime();
+        int fallbackThreads = 512;
+
+        for (String arg : args) {
+            String[] kv = arg.split("=", 2);
+            if (kv.length != 2 || !kv[0].startsWith("--")) {
+                throw new IllegalArgumentException("Expected --key=value but got: " + arg);
+            }
+            switch (kv[0]) {
+                case "--takers": takers = Integer.parseInt(kv[1]); break;
+                case "--questions": questions = Integer.parseInt(kv[1]); break;
+                case "--think": think = kv[1]; break;
+                case "--accuracy": accuracy = kv[1]; break;
+                case "--bank": bank = kv[1]; break;
+                case "--seed": seed = Long.parseLong(kv[1]); break;
+                case "--fallback-threads": fallbackThreads = Integer.parseInt(kv[1]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + kv[0]);
+            }
+        }
+
+        QuestionService questionService;
+        if (bank != null) {
+            questionService = new QuestionService(Collections.emptyList());
+            QuestionBankLoader.LoadResult result = new QuestionBankLoader().load(Paths.get(bank), questionService);
+            System.out.println("Loaded " + result.getQuestionsLoaded() + " questions in "
+                    + result.getElapsedMillis() + " ms");
+        } else {
+            questionService = new QuestionService();
+        }
+
+        System.out.println("Simulating " + takers + " takers x " + questions + " questions, think=" + think
+                + ", accuracy=" + accuracy + ", virtual threads=" + VirtualThreads.isAvailable());
+        QuizService quizService = new QuizService(questionService);
+        quizService.setMetrics(new QuizMetrics());
+        LoadSimulator simulator = new LoadSimulator(quizService, takers, questions,
+                ThinkTime.parse(think), AccuracyProfile.parse(accuracy), seed, fallbackThreads);
+        simulator.run();
+    }
+
+    /**
+     * Run all takers to completion and print the report
+     * @throws InterruptedException if interrupted while waiting for takers
+     */
+    public void run() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long heapBefore = usedHeapAfterGc(memory);
+
+        SplittableRandom root = new SplittableRandom(seed);
+        long start = System.nanoTime();
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor(fallbackThreads, "quiz-taker");
+        for (int i = 0; i < takers; i++) {
+            SplittableRandom random = root.split();
+            executor.execute(() -> takeQuiz(random));
+        }
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        long elapsedNanos = System.nanoTime() - start;
+
+        long heapAfter = usedHeapAfterGc(memory);
+        printReport(elapsedNanos, heapAfter - heapBefore);
+    }
+
+    private void takeQuiz(SplittableRandom random) {
+        double accuracy = accuracyProfile.nextTakerAccuracy(random);
+
+        long t = System.nanoTime();
+        String sessionId = quizService.createQuizSession(questionsPerQuiz).getSessionId();
+        createLatency.recordSince(t);
+
+        QuizSession session;
+        while (true) {
+            sleep(thinkTime.nextMillis(random));
+
+            t = System.nanoTime();
+            session = quizService.getSession(sessionId);
+            lookupLatency.recordSince(t);
+            if (session == null) {
+                lostSessions.increment();
+                return;
+            }
+            Question question = session.getCurrentQuestion();
+            if (question == null) {
+                break;
+            }
+
+            int answer = pickAnswer(question, accuracy, random);
+            t = System.nanoTime();
+            quizService.submitAnswer(session, answer);
+            submitLatency.recordSince(t);
+            if (session.isCompleted()) {
+                break;
+            }
+        }
+
+        t = System.nanoTime();
+        session.getScore();
+        session.getCorrectAnswersCount();
+        session.getAccuracyPercentage();
+        session.getDurationInSeconds();
+        resultsLatency.recordSince(t);
+        completedSessions.increment();
+    }
+
+    private static int pickAnswer(Question question, double accuracy, SplittableRandom random) {
+        int correct = question.getCorrectAnswer();
+        int optionCount = question.getOptions().size();
+        if (optionCount < 2 || random.nextDouble() < accuracy) {
+            return correct;
+        }
+        int wrong = random.nextInt(optionCount - 1);
+        return wrong >= correct ? wrong + 1 : wrong;
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private void printReport(long elapsedNanos, long heapGrowth) {
+        double seconds = elapsedNanos / 1e9;
+        long operations = createLatency.getCount() + lookupLatency.getCount()
+                + submitLatency.getCount() + resultsLatency.getCount();
+        long completed = completedSessions.sum();
+
+        System.out.println("=".repeat(78));
+        System.out.printf("Elapsed: %.2f s, sessions completed: %d, lost: %d%n", seconds, completed,
+                lostSessions.sum());
+        System.out.printf("Throughput: %.0f ops/s, %.0f answers/s, %.0f sessions/s%n",
+                operations / seconds, submitLatency.getCount() / seconds, completed / seconds);
+        System.out.printf("Heap growth: %.1f MB (%d bytes per completed session)%n",
+                heapGrowth / (1024.0 * 1024.0), completed == 0 ? 0 : heapGrowth / completed);
+        System.out.println("-".repeat(78));
+        System.out.printf("%-10s %12s %12s %12s %12s %12s%n", "operation", "count", "p50 (us)", "p99 (us)",
+                "p99.9 (us)", "max (us)");
+        printLatency("create", createLatency);
+        printLatency("lookup", lookupLatency);
+        printLatency("submit", submitLatency);
+        printLatency("results", resultsLatency);
+        QuizMetrics metrics = quizService.getMetrics();
+        if (metrics != null) {
+            System.out.println("-".repeat(78));
+            System.out.printf("Service: %d created, %d completed, %d answers; submitAnswer %s%n",
+                    metrics.getSessionsCreated(), metrics.getSessionsCompleted(), metrics.getAnswersSubmitted(),
+                    metrics.getSubmitAnswerLatency());
+        }
+        System.out.println("=".repeat(78));
+    }
+
+    private static void printLatency(String name, LatencyHistogram histogram) {
+        System.out.printf("%-10s %12d %12.1f %12.1f %12.1f %12.1f%n", name, histogram.getCount(),
+                histogram.getValueAtPercentile(50) / 1e3, histogram.getValueAtPercentile(99) / 1e3,
+                histogram.getValueAtPercentile(99.9) / 1e3, histogram.getMax() / 1e3);
+    }
+}
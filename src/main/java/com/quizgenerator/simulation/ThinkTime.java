@@ -0,0 +1,62 @@
+package com.quizgenerator.simulation;
+
+import java.util.SplittableRandom;
+
+/**
+ * Distribution of the time a simulated taker spends on a question
+ */
+@FunctionalInterface
+public interface ThinkTime {
+    /**
+     * Draw the next think time
+     * @param random per-taker random source
+     * @return think time in milliseconds
+     */
+    long nextMillis(SplittableRandom random);
+
+    /**
+     * Parse a distribution specification:
+     * <ul>
+     *   <li>{@code none}: answer immediately</li>
+     *   <li>{@code fixed:MS}: always MS milliseconds</li>
+     *   <li>{@code uniform:MIN:MAX}: uniform between MIN and MAX milliseconds</li>
+     *   <li>{@code exp:MEAN}: exponential with the given mean</li>
+     *   <li>{@code lognormal:MEDIAN:SIGMA}: log-normal, long-tailed like real takers</li>
+     * </ul>
+     * @param spec distribution specification
+     * @return think time distribution
+     */
+    static ThinkTime parse(String spec) {
+        String[] parts = spec.split(":");
+        switch (parts[0]) {
+            case "none":
+                return random -> 0;
+            case "fixed": {
+                long millis = Long.parseLong(parts[1]);
+                return random -> millis;
+            }
+            case "uniform": {
+                long min = Long.parseLong(parts[1]);
+                long max = Long.parseLong(parts[2]);
+                return random -> min + random.nextLong(max - min + 1);
+            }
+            case "exp": {
+                double mean = Double.parseDouble(parts[1]);
+                return random -> (long) (-mean * Math.log(1.0 - random.nextDouble()));
+            }
+            case "lognormal": {
+                double mu = Math.log(Double.parseDouble(parts[1]));
+                double sigma = Double.parseDouble(parts[2]);
+                return random -> {
+                    // Box-Muller; SplittableRandom has no nextGaussian before Java 17
+                    double u1 = 1.0 - random.nextDouble();
+                    double u2 = random.nextDouble();
+                    double gaussian = Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2.0 * Math.PI * u2);
+                    return (long) Math.exp(mu + sigma * gaussian);
+                };
+            }
+            default:
+                throw new IllegalArgumentException("Unknown think time distribution: " + spec);
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package com.quizgenerator.util;
+
+import java.util.Arrays;
+
+/**
+ * Immutable compressed bitmap of non-negative ints in the style of Roaring bitmaps.
+ *
+ * Values are grouped into chunks of 65536 by their high 16 bits. Each chunk is
+ * stored in the smaller of two containers: a sorted {@code char[]} of the low
+ * bits while it holds at most {@value #ARRAY_LIMIT} values, or a 65536-bit
+ * bitmap once it is denser. Intersections work container by container and
+ * skip chunks present in only one operand, and prefix cardinalities per chunk
+ * make {@link #select(int)} (the n-th smallest value) a binary search plus one
+ * container lookup.
+ *
+ * The bitmap is append-only: {@link #append(int[], int, int)} returns a new
+ * bitmap that shares every untouched container with this one, so readers can
+ * keep using an older instance while a writer extends it.
+ */
+public final class RoaringBitmap {
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1 << 10;
+    private static final int BLOCK_WORDS = 64;
+    private static final RoaringBitmap EMPTY = new RoaringBitmap(new char[0], new Container[0]);
+
+    private final char[] keys;
+    private final Container[] containers;
+    private final int[] cumulative; // cumulative[i] = number of values in containers[0..i)
+
+    private RoaringBitmap(char[] keys, Container[] containers) {
+        this.keys = keys;
+        this.containers = containers;
+        this.cumulative = new int[containers.length + 1];
+        for (int i = 0; i < containers.length; i++) {
+            cumulative[i + 1] = cumulative[i] + containers[i].cardinality();
+        }
+    }
+
+    public static RoaringBitmap empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Get the number of values in the bitmap
+     * @return cardinality
+     */
+    public int getCardinality() {
+        return cumulative[containers.length];
+    }
+
+    public boolean isEmpty() {
+        return containers.length == 0;
+    }
+
+    /**
+     * Check whether a value is in the bitmap
+     * @param value value to look up
+     * @return true if present
+     */
+    public boolean contains(int value) {
+        int index = Arrays.binarySearch(keys, (char) (value >>> 16));
+        return value >= 0 && index >= 0 && containers[index].contains((char) value);
+    }
+
+    /**
+     * Get the value of the given rank
+     * @param rank 0-based rank, below {@link #getCardinality()}
+     * @return the rank-th smallest value
+     */
+    public int select(int rank) {
+        if (rank < 0 || rank >= getCardinality()) {
+            throw new IndexOutOfBoundsException("Rank " + rank + " out of bounds for " + getCardinality());
+        }
+        int low = 0;
+        int high = containers.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (cumulative[mid] <= rank) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return keys[low] << 16 | containers[low].select(rank - cumulative[low]);
+    }
+
+    /**
+     * Intersect with another bitmap
+     * @param other bitmap to intersect with
+     * @return values present in both bitmaps
+     */
+    public RoaringBitmap and(RoaringBitmap other) {
+        int capacity = Math.min(containers.length, other.containers.length);
+        char[] resultKeys = new char[capacity];
+        Container[] resultContainers = new Container[capacity];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length && j < other.keys.length) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container intersection = containers[i].and(other.containers[j]);
+                if (intersection.cardinality() > 0) {
+                    resultKeys[count] = keys[i];
+                    resultContainers[count++] = intersection;
+                }
+                i++;
+                j++;
+            }
+        }
+        if (count == 0) {
+            return EMPTY;
+        }
+        return new RoaringBitmap(Arrays.copyOf(resultKeys, count), Arrays.copyOf(resultContainers, count));
+    }
+
+    /**
+     * Return a bitmap with values appended. The values must be strictly increasing
+     * and greater than every value already in the bitmap.
+     * @param values source array
+     * @param from first index in the source array
+     * @param to index after the last value to append
+     * @return extended bitmap; this bitmap is unchanged
+     */
+    public RoaringBitmap append(int[] values, int from, int to) {
+        if (from >= to) {
+            return this;
+        }
+        char[] newKeys = keys;
+        Container[] newContainers = containers;
+        int last = containers.length > 0 ? (keys[keys.length - 1] << 16 | containers[containers.length - 1].last())
+                : -1;
+        int start = from;
+        while (start < to) {
+            int key = values[start] >>> 16;
+            int end = start;
+            while (end < to && values[end] >>> 16 == key) {
+                if (values[end] <= last || values[end] < 0) {
+                    throw new IllegalArgumentException("Values must be non-negative and increasing: " + values[end]);
+                }
+                last = values[end];
+                end++;
+            }
+
+            if (newKeys.length > 0 && newKeys[newKeys.length - 1] == key) {
+                if (newContainers == containers) {
+                    newContainers = containers.clone();
+                }
+                int tail = newContainers.length - 1;
+                newContainers[tail] = newContainers[tail].append(values, start, end);
+            } else {
+                newKeys = Arrays.copyOf(newKeys, newKeys.length + 1);
+                newKeys[newKeys.length - 1] = (char) key;
+                newContainers = Arrays.copyOf(newContainers, newContainers.length + 1);
+                newContainers[newContainers.length - 1] = ArrayContainer.EMPTY.append(values, start, end);
+            }
+            start = end;
+        }
+        return new RoaringBitmap(newKeys, newContainers);
+    }
+
+    /**
+     * Copy the values into an array, in increasing order
+     * @return all values
+     */
+    public int[] toArray() {
+        int[] values = new int[getCardinality()];
+        for (int i = 0; i < containers.length; i++) {
+            containers[i].copyTo(values, cumulative[i], keys[i] << 16);
+        }
+        return values;
+    }
+
+    /**
+     * Get the approximate heap footprint of the containers
+     * @return size in bytes
+     */
+    public long getSizeInBytes() {
+        long bytes = keys.length * 2L + cumulative.length * 4L;
+        for (Container container : containers) {
+            bytes += container.sizeInBytes();
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return "RoaringBitmap{cardinality=" + getCardinality() + ", containers=" + containers.length + '}';
+    }
+
+    private abstract static class Container {
+        abstract int cardinality();
+
+        abstract boolean contains(char low);
+
+        abstract int select(int rank);
+
+        abstract int last();
+
+        abstract Container and(Container other);
+
+        abstract Container append(int[] values, int from, int to);
+
+        abstract void copyTo(int[] target, int offset, int high);
+
+        abstract long sizeInBytes();
+    }
+
+    /**
+     * Sorted low bits of a sparse chunk
+     */
+    private static final class ArrayContainer extends Container {
+        static final ArrayContainer EMPTY = new ArrayContainer(new char[0]);
+
+        final char[] values;
+
+        ArrayContainer(char[] values) {
+            this.values = values;
+        }
+
+        @Override
+        int cardinality() {
+            return values.length;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return Arrays.binarySearch(values, low) >= 0;
+        }
+
+        @Override
+        int select(int rank) {
+            return values[rank];
+        }
+
+        @Override
+        int last() {
+            return values[values.length - 1];
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] result = new char[Math.min(values.length, other.cardinality())];
+            int count = 0;
+            if (other instanceof BitmapContainer) {
+                long[] words = ((BitmapContainer) other).words;
+                for (char value : values) {
+                    if ((words[value >>> 6] & (1L << value)) != 0) {
+                        result[count++] = value;
+                    }
+                }
+            } else {
+                char[] others = ((ArrayContainer) other).values;
+                int i = 0;
+                int j = 0;
+                while (i < values.length && j < others.length) {
+                    if (values[i] < others[j]) {
+                        i++;
+                    } else if (values[i] > others[j]) {
+                        j++;
+                    } else {
+                        result[count++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            }
+            return new ArrayContainer(count == result.length ? result : Arrays.copyOf(result, count));
+        }
+
+        @Override
+        Container append(int[] source, int from, int to) {
+            int total = values.length + (to - from);
+            if (total > ARRAY_LIMIT) {
+                return BitmapContainer.of(this).append(source, from, to);
+            }
+            char[] appended = Arrays.copyOf(values, total);
+            for (int i = from, k = values.length; i < to; i++, k++) {
+                appended[k] = (char) source[i];
+            }
+            return new ArrayContainer(appended);
+        }
+
+        @Override
+        void copyTo(int[] target, int offset, int high) {
+            for (int i = 0; i < values.length; i++) {
+                target[offset + i] = high | values[i];
+            }
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 16 + values.length * 2L;
+        }
+    }
+
+    /**
+     * 65536-bit bitmap of a dense chunk, with running counts per block of
+     * {@value #BLOCK_WORDS} words so select only scans one block
+     */
+    private static final class BitmapContainer extends Container {
+        final long[] words;
+        final int cardinality;
+        final int[] blockCounts; // blockCounts[b] = number of set bits before block b
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+            this.blockCounts = new int[BITMAP_WORDS / BLOCK_WORDS];
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                if ((i & (BLOCK_WORDS - 1)) == 0) {
+                    blockCounts[i / BLOCK_WORDS] = count;
+                }
+                count += Long.bitCount(words[i]);
+            }
+        }
+
+        static BitmapContainer of(ArrayContainer array) {
+            long[] words = new long[BITMAP_WORDS];
+            for (char value : array.values) {
+                words[value >>> 6] |= 1L << value;
+            }
+            return new BitmapContainer(words, array.values.length);
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        int select(int rank) {
+            int block = blockCounts.length - 1;
+            while (blockCounts[block] > rank) {
+                block--;
+            }
+            rank -= blockCounts[block];
+            for (int i = block * BLOCK_WORDS; i < words.length; i++) {
+                int bits = Long.bitCount(words[i]);
+                if (rank < bits) {
+                    long word = words[i];
+                    for (int r = 0; r < rank; r++) {
+                        word &= word - 1;
+                    }
+                    return i << 6 | Long.numberOfTrailingZeros(word);
+                }
+                rank -= bits;
+            }
+            throw new IllegalStateException("Rank beyond cardinality");
+        }
+
+        @Override
+        int last() {
+            for (int i = words.length - 1; i >= 0; i--) {
+                if (words[i] != 0) {
+                    return i << 6 | 63 - Long.numberOfLeadingZeros(words[i]);
+                }
+            }
+            throw new IllegalStateException("Empty bitmap container");
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            long[] others = ((BitmapContainer) other).words;
+            long[] result = new long[BITMAP_WORDS];
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result[i] = words[i] & others[i];
+                count += Long.bitCount(result[i]);
+            }
+            if (count > ARRAY_LIMIT) {
+                return new BitmapContainer(result, count);
+            }
+            char[] values = new char[count];
+            int k = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                for (long word = result[i]; word != 0; word &= word - 1) {
+                    values[k++] = (char) (i << 6 | Long.numberOfTrailingZeros(word));
+                }
+            }
+            return new ArrayContainer(values);
+        }
+
+        @Override
+        Container append(int[] source, int from, int to) {
+            long[] appended = words.clone();
+            for (int i = from; i < to; i++) {
+                int low = source[i] & 0xFFFF;
+                appended[low >>> 6] |= 1L << low;
+            }
+            return new BitmapContainer(appended, cardinality + (to - from));
+        }
+
+        @Override
+        void copyTo(int[] target, int offset, int high) {
+            int k = offset;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    target[k++] = high | i << 6 | Long.numberOfTrailingZeros(word);
+                }
+            }
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 32 + BITMAP_WORDS * 8L + blockCounts.length * 4L;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.quizgenerator.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates virtual-thread-per-task executors when the runtime supports them.
+ *
+ * The project compiles for Java 11, so virtual threads (Java 21+) are looked up
+ * reflectively. On older runtimes a fixed pool of daemon platform threads is
+ * returned instead.
+ */
+public final class VirtualThreads {
+    private static final Method NEW_VIRTUAL_EXECUTOR = findVirtualExecutorFactory();
+
+    private VirtualThreads() {}
+
+    /**
+     * Check whether the runtime supports virtual threads
+     * @return true on Java 21 or later
+     */
+    public static boolean isAvailable() {
+        return NEW_VIRTUAL_EXECUTOR != null;
+    }
+
+    /**
+     * Create an executor that starts a new virtual thread for each task
+     * @param fallbackThreads pool size to use when virtual threads are unavailable
+     * @param name thread name prefix for the fallback pool
+     * @return executor service
+     */
+    public static ExecutorService newThreadPerTaskExecutor(int fallbackThreads, String name) {
+        if (NEW_VIRTUAL_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // Fall through to platform threads
+            }
+        }
+        return Executors.newFixedThreadPool(fallbackThreads, daemonThreads(name));
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static Method findVirtualExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.quizgenerator.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Every Lehmer code must decode to a distinct permutation, with
+ * {@code toDisplayed} the inverse of {@code toCanonical}.
+ */
+class OptionPermutationTest {
+
+    @Test
+    void everyCodeIsADistinctPermutationWithAnInverse() {
+        int factorial = 1;
+        for (int count = 2; count <= OptionPermutation.MAX_OPTIONS; count++) {
+            factorial *= count;
+            List<String> options = options(count);
+            Set<List<Integer>> seen = new HashSet<>();
+            for (int code = 0; code < factorial; code++) {
+                List<Integer> order = new ArrayList<>(count);
+                List<String> view = OptionPermutation.view(options, code);
+                for (int displayed = 0; displayed < count; displayed++) {
+                    int canonical = OptionPermutation.toCanonical(code, count, displayed);
+                    assertEquals(displayed, OptionPermutation.toDisplayed(code, count, canonical));
+                    assertEquals(options.get(canonical), view.get(displayed));
+                    order.add(canonical);
+                }
+                assertEquals(count, new HashSet<>(order).size(), "code " + code + " repeats an option");
+                assertTrue(seen.add(order), "code " + code + " repeats an order");
+            }
+            assertEquals(factorial, seen.size());
+        }
+    }
+
+    @Test
+    void codeZeroAndUnshuffledQuestionsKeepTheCanonicalOrder() {
+        for (int option = 0; option < 4; option++) {
+            assertEquals(option, OptionPermutation.toCanonical(0, 4, option));
+            assertEquals(option, OptionPermutation.toDisplayed(0, 4, option));
+        }
+        int tooMany = OptionPermutation.MAX_OPTIONS + 1;
+        assertEquals(0, OptionPermutation.random(tooMany));
+        assertEquals(0, OptionPermutation.random(1));
+        assertEquals(3, OptionPermutation.toCanonical(5, tooMany, 3));
+        List<String> options = options(4);
+        assertSame(options, OptionPermutation.view(options, 0));
+    }
+
+    @Test
+    void randomCodesStayBelowTheFactorial() {
+        for (int draw = 0; draw < 1_000; draw++) {
+            assertTrue(OptionPermutation.random(4) < 24);
+        }
+    }
+
+    private static List<String> options(int count) {
+        List<String> options = new ArrayList<>(count);
+        for (int option = 0; option < count; option++) {
+            options.add("option " + option);
+        }
+        return options;
+    }
+}
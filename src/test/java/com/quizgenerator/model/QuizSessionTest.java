@@ -0,0 +1,226 @@
+package com.quizgenerator.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Progression of a session through its packed state: answers, skips and timeouts
+ * are each recorded once, in position order, however many threads submit.
+ */
+class QuizSessionTest {
+    private static final int OPTIONS = 4;
+    private static final int THREADS = 8;
+
+    @Test
+    void recordsAnswersSkipsAndTimeouts() {
+        QuizSession session = new QuizSession("s", questions(4));
+
+        assertTrue(session.submitAnswer(0, correctAnswer(0)));
+        assertFalse(session.submitAnswer(1, wrongAnswer(1)));
+        assertTrue(session.skipQuestion());
+        assertFalse(session.timeOutQuestion(2));
+        assertTrue(session.timeOutQuestion(3));
+
+        assertTrue(session.isCompleted());
+        assertNull(session.getCurrentQuestion());
+        assertEquals(4, session.getCurrentQuestionIndex());
+        assertEquals(1, session.getCorrectAnswersCount());
+        assertEquals(1, session.getIncorrectAnswersCount());
+        assertEquals(2, session.getSkippedQuestionsCount());
+        assertEquals(1, session.getTimedOutCount());
+        assertEquals(10, session.getScore());
+        assertEquals(QuizSession.SKIPPED, session.getAnswerAt(2));
+        assertEquals(QuizSession.TIMED_OUT, session.getAnswerAt(3));
+        assertFalse(session.skipQuestion());
+    }
+
+    @Test
+    void repeatedSubmissionReturnsTheFirstResult() {
+        QuizSession session = new QuizSession("s", questions(3));
+
+        assertTrue(session.submitAnswer(0, correctAnswer(0)));
+        assertTrue(session.submitAnswer(0, wrongAnswer(0)));
+        assertEquals(correctAnswer(0), session.getAnswerAt(0));
+        assertEquals(1, session.getCurrentQuestionIndex());
+        assertThrows(IllegalStateException.class, () -> session.submitAnswer(2, 0));
+        assertThrows(IllegalArgumentException.class, () -> session.submitAnswer(3, 0));
+
+        session.submitAnswer(1, wrongAnswer(1));
+        session.submitAnswer(2, wrongAnswer(2));
+        assertFalse(session.submitAnswer(2, correctAnswer(2)));
+        assertEquals(1, session.getCorrectAnswersCount());
+    }
+
+    @Test
+    void racingSubmissionsRecordEachPositionOnceAndInOrder() throws Exception {
+        int total = 2_000;
+        QuizSession session = new QuizSession("s", questions(total));
+        AtomicIntegerArray events = new AtomicIntegerArray(total);
+        AtomicInteger eventCount = new AtomicInteger();
+        AtomicInteger outOfOrder = new AtomicInteger();
+        AtomicInteger completions = new AtomicInteger();
+        session.setListener(new SessionListener() {
+            @Override
+            public void onAnswerRecorded(QuizSession s, int position, int answer, boolean correct) {
+                if (eventCount.getAndIncrement() != position || s.getCurrentQuestionIndex() <= position) {
+                    outOfOrder.incrementAndGet();
+                }
+                events.incrementAndGet(position);
+            }
+
+            @Override
+            public void onSessionCompleted(QuizSession s) {
+                completions.incrementAndGet();
+            }
+        });
+
+        runConcurrently(thread -> {
+            int position;
+            while ((position = session.getCurrentQuestionIndex()) < total) {
+                session.submitAnswer(position, thread % OPTIONS);
+            }
+        });
+
+        assertTrue(session.isCompleted());
+        assertEquals(0, outOfOrder.get());
+        assertEquals(total, eventCount.get());
+        assertEquals(1, completions.get());
+        int correct = 0;
+        for (int position = 0; position < total; position++) {
+            assertEquals(1, events.get(position));
+            if (session.getAnswerAt(position) == correctAnswer(position)) {
+                correct++;
+            }
+        }
+        assertEquals(correct, session.getCorrectAnswersCount());
+        assertEquals(total - correct, session.getIncorrectAnswersCount());
+    }
+
+    @Test
+    void racingClaimsOfOnePositionAgreeOnTheResult() throws Exception {
+        for (int round = 0; round < 200; round++) {
+            QuizSession session = new QuizSession("s", questions(2));
+            boolean[] results = new boolean[THREADS];
+            runConcurrently(thread -> results[thread] = session.submitAnswer(0, thread % OPTIONS));
+
+            boolean recorded = session.isCorrectAt(0);
+            for (boolean result : results) {
+                assertEquals(recorded, result);
+            }
+            assertEquals(1, session.getCurrentQuestionIndex());
+            assertEquals(recorded ? 1 : 0, session.getCorrectAnswersCount());
+        }
+    }
+
+    @Test
+    void failingListenerDoesNotStallTheSession() {
+        Logger logger = Logger.getLogger(QuizSession.class.getName());
+        Level level = logger.getLevel();
+        logger.setLevel(Level.OFF);
+        try {
+            QuizSession session = new QuizSession("s", questions(2));
+            session.setListener(new SessionListener() {
+                @Override
+                public void onAnswerRecorded(QuizSession s, int position, int answer, boolean correct) {
+                    throw new IllegalStateException("listener failure");
+                }
+            });
+            assertTrue(session.submitAnswer(0, correctAnswer(0)));
+            assertTrue(session.submitAnswer(1, correctAnswer(1)));
+            assertTrue(session.isCompleted());
+        } finally {
+            logger.setLevel(level);
+        }
+    }
+
+    @Test
+    void servingStampsFollowFromResponseTimes() {
+        QuizSession session = new QuizSession("s", questions(4));
+        long first = session.getServedNanos(0);
+        assertEquals(-1, session.getResponseNanos(0));
+        assertEquals(0, session.getServedNanos(1));
+
+        for (int position = 0; position < 4; position++) {
+            session.submitAnswer(position, correctAnswer(position));
+        }
+
+        long served = first;
+        for (int position = 0; position < 4; position++) {
+            assertEquals(served, session.getServedNanos(position));
+            assertTrue(session.getResponseNanos(position) >= 0);
+            served += session.getResponseNanos(position);
+        }
+        assertEquals(served - first, session.getTotalResponseNanos());
+        assertEquals(0, session.getServedNanos(4));
+    }
+
+    @Test
+    void retiresOnce() {
+        QuizSession session = new QuizSession("s", questions(1));
+        assertTrue(session.retire());
+        assertFalse(session.retire());
+    }
+
+    private static List<Question> questions(int count) {
+        List<Question> questions = new ArrayList<>(count);
+        for (int id = 0; id < count; id++) {
+            questions.add(new Question(id, "Question " + id, List.of("a", "b", "c", "d"), correctAnswer(id), 30));
+        }
+        return questions;
+    }
+
+    private static int correctAnswer(int position) {
+        return position % OPTIONS;
+    }
+
+    private static int wrongAnswer(int position) {
+        return (position + 1) % OPTIONS;
+    }
+
+    /**
+     * Run a task on {@value #THREADS} threads released together
+     */
+    private static void runConcurrently(ThreadTask task) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Throwable> failures = new ArrayList<>();
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                    task.run(thread);
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (!failures.isEmpty()) {
+            throw new AssertionError(failures.get(0));
+        }
+    }
+
+    private interface ThreadTask {
+        void run(int thread) throws Exception;
+    }
+}
@@ -0,0 +1,83 @@
+package com.quizgenerator.persistence;
+
+import com.quizgenerator.model.QuizSession;
+import com.quizgenerator.model.SessionListener;
+import com.quizgenerator.service.QuestionService;
+import com.quizgenerator.service.QuizService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * A checkpoint taken after an answer reached the log, but before the answering
+ * thread returned, must still let recovery restore that answer.
+ */
+class CheckpointRaceTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void checkpointBetweenLogWriteAndReturnKeepsTheAnswer() throws Exception {
+        QuestionService questionService = new QuestionService();
+        QuizService quizService = new QuizService(questionService);
+        Path logPath = dir.resolve("answers.wal");
+        Path snapshotPath = dir.resolve("sessions.snap");
+        QuizSession session;
+        try (AnswerLog log = new AnswerLog(logPath, 0, TimeUnit.MILLISECONDS);
+             Checkpointer checkpointer = new Checkpointer(quizService.getSessionRegistry(), snapshotPath, log, null)) {
+            quizService.addSessionListener(log);
+            // Runs after the log has enqueued the answer, on the answering thread
+            quizService.addSessionListener(new SessionListener() {
+                @Override
+                public void onAnswerRecorded(QuizSession answered, int position, int answer, boolean correct) {
+                    if (position == 1) {
+                        awaitLogged(logPath, questionService, answered.getSessionId(), position);
+                        try {
+                            checkpointer.checkpoint();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                }
+            });
+            session = quizService.createQuizSession(3);
+            quizService.submitAnswer(session, 0, 1);
+            quizService.submitAnswer(session, 1, 2);
+        }
+
+        try (SessionSnapshot snapshot = SessionSnapshot.open(snapshotPath, questionService)) {
+            Map<String, QuizSession> replayed = AnswerLog.replay(logPath, snapshot.getLogOffset(),
+                    questionService, snapshot);
+            QuizSession recovered = replayed.containsKey(session.getSessionId())
+                    ? replayed.get(session.getSessionId()) : snapshot.recover(session.getSessionId());
+
+            assertNotNull(recovered);
+            assertEquals(2, recovered.getCurrentQuestionIndex());
+            assertEquals(session.getAnswerAt(0), recovered.getAnswerAt(0));
+            assertEquals(session.getAnswerAt(1), recovered.getAnswerAt(1));
+            assertEquals(session.getScore(), recovered.getScore());
+        }
+    }
+
+    private static void awaitLogged(Path logPath, QuestionService questionService, String sessionId, int position) {
+        try {
+            while (true) {
+                QuizSession logged = AnswerLog.replay(logPath, questionService).get(sessionId);
+                if (logged != null && logged.getCurrentQuestionIndex() > position) {
+                    return;
+                }
+                Thread.onSpinWait();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.quizgenerator.persistence;
+
+import com.quizgenerator.model.QuizSession;
+import com.quizgenerator.model.SessionListener;
+import com.quizgenerator.service.QuestionService;
+import com.quizgenerator.service.QuizService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sessions answered by racing threads while checkpoints are taken must come back
+ * from the last snapshot and the log after it exactly as they were left.
+ */
+class ConcurrentRecoveryTest {
+    private static final int SESSIONS = 40;
+    private static final int QUESTIONS = 10;
+    private static final int THREADS = 8;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void snapshotAndLogRestoreConcurrentlyAnsweredSessions() throws Exception {
+        QuestionService questionService = new QuestionService();
+        QuizService quizService = new QuizService(questionService);
+        Path logPath = dir.resolve("answers.wal");
+        Path snapshotPath = dir.resolve("sessions.snap");
+        List<QuizSession> sessions = new ArrayList<>();
+        AtomicInteger checkpoints = new AtomicInteger();
+        try (AnswerLog log = new AnswerLog(logPath, 0, TimeUnit.MILLISECONDS);
+             Checkpointer checkpointer = new Checkpointer(quizService.getSessionRegistry(), snapshotPath, log, null)) {
+            quizService.addSessionListener(log);
+            // Leave a few sessions unfinished, and the last one untouched
+            AtomicInteger remaining = new AtomicInteger(SESSIONS * QUESTIONS - 25);
+            quizService.addSessionListener(new SessionListener() {
+                @Override
+                public void onAnswerRecorded(QuizSession session, int position, int answer, boolean correct) {
+                    remaining.decrementAndGet();
+                }
+            });
+            for (int session = 0; session < SESSIONS; session++) {
+                sessions.add(quizService.createQuizSession(null, QUESTIONS, session % 2 == 0));
+            }
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                threads.add(new Thread(() -> {
+                    try {
+                        start.await();
+                        answerUntilDone(quizService, sessions, remaining);
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }));
+            }
+            Thread checkpointing = new Thread(() -> {
+                try {
+                    start.await();
+                    do {
+                        checkpointer.checkpoint();
+                        checkpoints.incrementAndGet();
+                    } while (remaining.get() > 0);
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            threads.add(checkpointing);
+            threads.forEach(Thread::start);
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertNull(failure.get());
+        }
+        assertTrue(checkpoints.get() > 0);
+
+        try (SessionSnapshot snapshot = SessionSnapshot.open(snapshotPath, questionService)) {
+            Map<String, QuizSession> replayed = AnswerLog.replay(logPath, snapshot.getLogOffset(),
+                    questionService, snapshot);
+            for (QuizSession original : sessions) {
+                String id = original.getSessionId();
+                QuizSession recovered = replayed.containsKey(id) ? replayed.get(id) : snapshot.recover(id);
+
+                assertNotNull(recovered, id);
+                assertEquals(original.getCurrentQuestionIndex(), recovered.getCurrentQuestionIndex(), id);
+                assertEquals(original.isCompleted(), recovered.isCompleted(), id);
+                assertEquals(original.getScore(), recovered.getScore(), id);
+                for (int position = 0; position < QUESTIONS; position++) {
+                    assertEquals(original.getQuestions().get(position).getId(),
+                            recovered.getQuestions().get(position).getId(), id);
+                    assertEquals(original.getOptionOrder(position), recovered.getOptionOrder(position), id);
+                    assertEquals(original.getAnswerAt(position), recovered.getAnswerAt(position), id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Answer the current question of random sessions until the shared budget runs
+     * out; threads often pick the same session, so positions are raced for
+     */
+    private static void answerUntilDone(QuizService quizService, List<QuizSession> sessions, AtomicInteger remaining) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (remaining.get() > 0) {
+            // The last session is never answered
+            QuizSession session = sessions.get(random.nextInt(sessions.size() - 1));
+            int position = session.getCurrentQuestionIndex();
+            if (position >= QUESTIONS) {
+                continue;
+            }
+            quizService.submitAnswer(session, position, random.nextInt(session.getOptionsAt(position).size()));
+        }
+    }
+}
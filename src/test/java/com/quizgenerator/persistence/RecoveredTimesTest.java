@@ -0,0 +1,116 @@
+package com.quizgenerator.persistence;
+
+import com.quizgenerator.model.QuizSession;
+import com.quizgenerator.service.QuestionService;
+import com.quizgenerator.service.QuizService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Recovered sessions must keep the start and end times they had when they were
+ * persisted, not take the time of the restart. The sessions are dated an hour
+ * back instead of waiting for the restart to be later.
+ */
+class RecoveredTimesTest {
+    private static final Instant START = Instant.now().minus(Duration.ofHours(1));
+    private static final Duration QUIZ_DURATION = Duration.ofSeconds(90);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replayedLogKeepsStartAndEndTimes() throws Exception {
+        QuestionService questionService = new QuestionService();
+        QuizService quizService = new QuizService(questionService);
+        Path logPath = dir.resolve("answers.wal");
+        ManualClock clock = new ManualClock(START);
+        QuizSession original;
+        try (AnswerLog log = new AnswerLog(logPath, 0, TimeUnit.MILLISECONDS, clock)) {
+            quizService.addSessionListener(log);
+            original = quizService.createQuizSession(3);
+            clock.advance(QUIZ_DURATION);
+            answerAll(quizService, original);
+        }
+
+        QuizSession recovered = AnswerLog.replay(logPath, questionService).get(original.getSessionId());
+
+        assertNotNull(recovered);
+        assertTrue(recovered.isCompleted());
+        assertEquals(Date.from(START), recovered.getStartTime());
+        assertEquals(Date.from(START.plus(QUIZ_DURATION)), recovered.getEndTime());
+        assertEquals(QUIZ_DURATION.getSeconds(), recovered.getDurationInSeconds());
+    }
+
+    @Test
+    void restoredSnapshotKeepsStartAndEndTimes() throws Exception {
+        QuestionService questionService = new QuestionService();
+        QuizService quizService = new QuizService(questionService);
+        QuizSession original = quizService.createQuizSession(3);
+        answerAll(quizService, original);
+        original.setStartTime(Date.from(START));
+        original.setEndTime(Date.from(START.plus(QUIZ_DURATION)));
+        Path snapshotPath = dir.resolve("sessions.snap");
+        SessionSnapshot.write(snapshotPath, quizService.getSessionRegistry(), 0, null);
+
+        try (SessionSnapshot snapshot = SessionSnapshot.open(snapshotPath, questionService)) {
+            QuizSession recovered = snapshot.recover(original.getSessionId());
+
+            assertNotNull(recovered);
+            assertTrue(recovered.isCompleted());
+            assertEquals(original.getScore(), recovered.getScore());
+            assertEquals(Date.from(START), recovered.getStartTime());
+            assertEquals(Date.from(START.plus(QUIZ_DURATION)), recovered.getEndTime());
+            assertEquals(QUIZ_DURATION.getSeconds(), recovered.getDurationInSeconds());
+        }
+    }
+
+    private static void answerAll(QuizService quizService, QuizSession session) {
+        for (int position = 0; position < session.getTotalQuestions(); position++) {
+            quizService.submitAnswer(session, position, 1);
+        }
+        assertTrue(session.isCompleted());
+    }
+
+    /**
+     * Wall clock that only moves when told to
+     */
+    private static final class ManualClock extends Clock {
+        private volatile Instant now;
+
+        ManualClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.quizgenerator.persistence;
+
+import com.quizgenerator.model.QuizSession;
+import com.quizgenerator.service.QuestionService;
+import com.quizgenerator.service.QuizService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A session that shows shuffled options must come back with the same option
+ * orders and the same canonical answers, so a client still showing the old
+ * order keeps answering what it sees.
+ */
+class ShuffledOptionsRecoveryTest {
+    private static final int QUESTIONS = 8;
+    private static final int ANSWERED = 5;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replayedLogKeepsOptionOrders() throws Exception {
+        QuestionService questionService = new QuestionService();
+        QuizService quizService = new QuizService(questionService);
+        Path logPath = dir.resolve("answers.wal");
+        QuizSession original;
+        try (AnswerLog log = new AnswerLog(logPath, 0, TimeUnit.MILLISECONDS)) {
+            quizService.addSessionListener(log);
+            original = shuffledSession(quizService);
+        }
+
+        QuizSession recovered = AnswerLog.replay(logPath, questionService).get(original.getSessionId());
+
+        assertSameSession(original, recovered);
+    }
+
+    @Test
+    void restoredSnapshotKeepsOptionOrders() throws Exception {
+        QuestionService questionService = new QuestionService();
+        QuizService quizService = new QuizService(questionService);
+        QuizSession original = shuffledSession(quizService);
+        Path snapshotPath = dir.resolve("sessions.snap");
+        SessionSnapshot.write(snapshotPath, quizService.getSessionRegistry(), 0, null);
+
+        try (SessionSnapshot snapshot = SessionSnapshot.open(snapshotPath, questionService)) {
+            assertSameSession(original, snapshot.recover(original.getSessionId()));
+        }
+    }
+
+    private static QuizSession shuffledSession(QuizService quizService) {
+        QuizSession session = quizService.createQuizSession(null, QUESTIONS, true);
+        assertTrue(session.isOptionsShuffled());
+        for (int position = 0; position < ANSWERED; position++) {
+            // Answer the last displayed option, which is rarely the canonical one at the same index
+            int displayed = session.getOptionsAt(position).size() - 1;
+            quizService.submitAnswer(session, position, displayed);
+        }
+        return session;
+    }
+
+    private static void assertSameSession(QuizSession original, QuizSession recovered) {
+        assertNotNull(recovered);
+        assertEquals(ANSWERED, recovered.getCurrentQuestionIndex());
+        assertEquals(original.getScore(), recovered.getScore());
+        for (int position = 0; position < QUESTIONS; position++) {
+            assertEquals(original.getOptionOrder(position), recovered.getOptionOrder(position));
+            assertEquals(original.getOptionsAt(position), recovered.getOptionsAt(position));
+            assertEquals(original.getAnswerAt(position), recovered.getAnswerAt(position));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.quizgenerator.service;
+
+import com.quizgenerator.model.Question;
+import com.quizgenerator.model.QuestionSelector;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Draws from the Fenwick-tree bands must never lose or repeat a question, and
+ * exposure must spread draws over a band.
+ */
+class AdaptiveSelectionEngineTest {
+    private static final String[] DIFFICULTIES = {"easy", "medium", "hard"};
+
+    @Test
+    void sessionDrawsEveryQuestionOnce() {
+        AdaptiveSelectionEngine engine = engine(questions(300, DIFFICULTIES));
+
+        assertEquals(300, drainedIds(engine.newSelector()).size());
+    }
+
+    @Test
+    void exposureSpreadsDrawsOverABand() {
+        int questionCount = 20;
+        int sessions = 2_000;
+        AdaptiveSelectionEngine engine = engine(questions(questionCount, new String[]{"medium"}));
+        int[] draws = new int[questionCount];
+
+        for (int session = 0; session < sessions; session++) {
+            draws[engine.newSelector().first().getId()]++;
+        }
+
+        // Weights shrink with every draw, so counts stay much closer to the mean of
+        // 100 than independent draws would
+        for (int id = 0; id < questionCount; id++) {
+            assertTrue(draws[id] > 50 && draws[id] < 150, "question " + id + " drawn " + draws[id] + " times");
+        }
+    }
+
+    @Test
+    void concurrentRatingKeepsEveryQuestionDrawable() throws Exception {
+        int questionCount = 3_000;
+        AdaptiveSelectionEngine engine = engine(questions(questionCount, new String[]{"medium"}));
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            // Half the takers always fail and half always succeed, so questions
+            // move between bands in both directions and the bands compact
+            boolean correct = t % 2 == 0;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int session = 0; session < 150; session++) {
+                        QuestionSelector selector = engine.newSelector();
+                        Question question = selector.first();
+                        for (int answer = 0; answer < 40 && question != null; answer++) {
+                            question = selector.next(question, 0, correct);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertNull(failure.get());
+
+        int moved = 0;
+        for (int id = 0; id < questionCount; id++) {
+            if (engine.getDifficulty(id) != 0) {
+                moved++;
+            }
+        }
+        assertTrue(moved > questionCount / 2, "only " + moved + " questions were rated");
+        assertEquals(questionCount, drainedIds(engine.newSelector()).size());
+    }
+
+    private static Set<Integer> drainedIds(QuestionSelector selector) {
+        Set<Integer> ids = new HashSet<>();
+        Question question = selector.first();
+        while (question != null) {
+            assertTrue(ids.add(question.getId()), "question " + question.getId() + " drawn twice");
+            question = selector.next(question, 0, ThreadLocalRandom.current().nextBoolean());
+        }
+        return ids;
+    }
+
+    private static AdaptiveSelectionEngine engine(List<Question> questions) {
+        AdaptiveSelectionEngine engine = new AdaptiveSelectionEngine(new QuestionService(questions).getQuestionBank());
+        assertEquals(questions.size(), engine.getQuestionCount());
+        return engine;
+    }
+
+    private static List<Question> questions(int count, String[] difficulties) {
+        List<Question> questions = new ArrayList<>(count);
+        for (int id = 0; id < count; id++) {
+            Question question = new Question(id, "Question " + id, List.of("a", "b", "c", "d"), 0, 30,
+                    "general", difficulties[id % difficulties.length], "en");
+            questions.add(question);
+        }
+        assertNotNull(questions.get(0).getDifficulty());
+        return questions;
+    }
+}
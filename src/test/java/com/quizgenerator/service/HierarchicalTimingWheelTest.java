@@ -0,0 +1,130 @@
+package com.quizgenerator.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Timers must fire on their deadline tick, whichever wheel level they start in.
+ * The wheel runs on a manual clock that the test moves one tick at a time,
+ * waiting at each tick for a probe timer due then. Ticks are processed in order,
+ * so once the probe of a tick has fired every earlier tick is done, and nothing
+ * due later may have fired.
+ */
+class HierarchicalTimingWheelTest {
+    private static final long TICK_NANOS = 1_000;
+    private static final long LAST_TICK = 4_500;
+    private static final long AWAIT_SECONDS = 10;
+
+    private final AtomicLong now = new AtomicLong();
+    private final List<Timer> timers = new ArrayList<>();
+
+    @Test
+    void timersFireOnTheirDeadlineTickAtEveryLevel() throws Exception {
+        try (HierarchicalTimingWheel wheel = newWheel()) {
+            // Level 0 holds 64 ticks, level 1 4096
+            for (long delay : new long[]{1, 2, 63, 64, 65, 127, 128, 1000, 4095, 4096, 4097}) {
+                schedule(wheel, delay);
+            }
+            Timer cancelled = schedule(wheel, 300);
+            for (long tick = 1; tick <= LAST_TICK; tick++) {
+                if (tick == 100) {
+                    // Scheduled off a wheel boundary, so cascades must place them too
+                    schedule(wheel, 28);
+                    schedule(wheel, 70);
+                    schedule(wheel, 3000);
+                }
+                if (tick == 200) {
+                    assertTrue(cancelled.timeout.cancel());
+                }
+                advanceTo(wheel, tick);
+                for (Timer timer : timers) {
+                    if (timer.deadline < tick && timer != cancelled) {
+                        assertTrue(timer.timeout.isExpired(), "timer due at " + timer.deadline + " still pending");
+                    } else if (timer.deadline > tick) {
+                        assertEquals(-1, timer.firedAt.get(), "timer due at " + timer.deadline + " fired early");
+                    }
+                }
+            }
+            for (Timer timer : timers) {
+                if (timer == cancelled) {
+                    assertEquals(-1, timer.firedAt.get());
+                    assertTrue(timer.timeout.isCancelled());
+                } else {
+                    assertTrue(timer.firedAt.get() >= timer.deadline);
+                    assertFalse(timer.timeout.cancel());
+                }
+            }
+        }
+    }
+
+    @Test
+    void failingTaskDoesNotStopTheTicker() throws Exception {
+        Logger logger = Logger.getLogger(HierarchicalTimingWheel.class.getName());
+        Level level = logger.getLevel();
+        logger.setLevel(Level.OFF);
+        try (HierarchicalTimingWheel wheel = newWheel()) {
+            wheel.schedule(() -> {
+                throw new IllegalStateException("task failure");
+            }, TICK_NANOS, TimeUnit.NANOSECONDS);
+            Timer later = schedule(wheel, 2);
+            advanceTo(wheel, 1);
+            advanceTo(wheel, 2);
+            advanceTo(wheel, 3);
+            assertTrue(later.timeout.isExpired());
+        } finally {
+            logger.setLevel(level);
+        }
+    }
+
+    @Test
+    void scheduleOnClosedWheelFails() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK_NANOS, TimeUnit.NANOSECONDS, now::get);
+        wheel.close();
+        assertThrows(IllegalStateException.class, () -> wheel.schedule(() -> { }, 1, TimeUnit.SECONDS));
+    }
+
+    private HierarchicalTimingWheel newWheel() {
+        return new HierarchicalTimingWheel(TICK_NANOS, TimeUnit.NANOSECONDS, now::get);
+    }
+
+    private Timer schedule(HierarchicalTimingWheel wheel, long delayTicks) {
+        Timer timer = new Timer(now.get() / TICK_NANOS + delayTicks);
+        timer.timeout = wheel.schedule(() -> timer.firedAt.set(now.get() / TICK_NANOS),
+                delayTicks * TICK_NANOS, TimeUnit.NANOSECONDS);
+        timers.add(timer);
+        return timer;
+    }
+
+    /**
+     * Move the clock to a tick and wait until the ticker has processed it
+     */
+    private void advanceTo(HierarchicalTimingWheel wheel, long tick) throws InterruptedException {
+        CountDownLatch probe = new CountDownLatch(1);
+        // Scheduled one tick ahead while the clock still shows the previous tick
+        wheel.schedule(probe::countDown, (tick - now.get() / TICK_NANOS) * TICK_NANOS, TimeUnit.NANOSECONDS);
+        now.set(tick * TICK_NANOS);
+        assertTrue(probe.await(AWAIT_SECONDS, TimeUnit.SECONDS), "ticker did not reach tick " + tick);
+    }
+
+    private static final class Timer {
+        final long deadline;
+        final AtomicLong firedAt = new AtomicLong(-1);
+        HierarchicalTimingWheel.Timeout timeout;
+
+        Timer(long deadline) {
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.quizgenerator.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bitmaps must agree with a {@link BitSet} holding the same values, across
+ * sparse chunks kept as arrays and dense chunks kept as bitmaps.
+ */
+class RoaringBitmapTest {
+    private static final int CHUNK = 1 << 16;
+    private static final int ARRAY_LIMIT = 4096;
+
+    @Test
+    void matchesBitSetAcrossSparseAndDenseChunks() {
+        Random random = new Random(42);
+        BitSet expected = new BitSet();
+        // Chunk 0 dense, chunk 1 sparse, chunk 2 empty, chunk 3 just over the array limit
+        fill(expected, random, 0, 0.5);
+        fill(expected, random, CHUNK, 0.01);
+        for (int i = 0; i <= ARRAY_LIMIT; i++) {
+            expected.set(3 * CHUNK + i * 15);
+        }
+        int[] values = expected.stream().toArray();
+
+        RoaringBitmap bitmap = appendInBatches(values, random);
+
+        assertEquals(values.length, bitmap.getCardinality());
+        assertArrayEquals(values, bitmap.toArray());
+        for (int rank = 0; rank < values.length; rank += 7) {
+            assertEquals(values[rank], bitmap.select(rank));
+        }
+        for (int value = 0; value < 4 * CHUNK; value++) {
+            assertEquals(expected.get(value), bitmap.contains(value));
+        }
+        assertFalse(bitmap.contains(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> bitmap.select(values.length));
+    }
+
+    @Test
+    void intersectionMatchesBitSet() {
+        Random random = new Random(7);
+        BitSet left = new BitSet();
+        BitSet right = new BitSet();
+        fill(left, random, 0, 0.6);
+        fill(right, random, 0, 0.02);
+        fill(left, random, CHUNK, 0.02);
+        fill(right, random, CHUNK, 0.02);
+        fill(left, random, 2 * CHUNK, 0.3);
+        fill(right, random, 4 * CHUNK, 0.3);
+
+        RoaringBitmap intersection = appendInBatches(left.stream().toArray(), random)
+                .and(appendInBatches(right.stream().toArray(), random));
+
+        BitSet expected = (BitSet) left.clone();
+        expected.and(right);
+        assertArrayEquals(expected.stream().toArray(), intersection.toArray());
+        assertSame(RoaringBitmap.empty(), intersection.and(RoaringBitmap.empty()));
+    }
+
+    @Test
+    void appendLeavesTheOriginalUnchanged() {
+        int[] values = {1, 5, 9, CHUNK + 3};
+        RoaringBitmap first = RoaringBitmap.empty().append(values, 0, 2);
+        RoaringBitmap second = first.append(values, 2, 4);
+
+        assertArrayEquals(new int[]{1, 5}, first.toArray());
+        assertArrayEquals(values, second.toArray());
+        assertSame(first, first.append(values, 2, 2));
+        assertTrue(RoaringBitmap.empty().isEmpty());
+    }
+
+    @Test
+    void appendRejectsValuesOutOfOrder() {
+        RoaringBitmap bitmap = RoaringBitmap.empty().append(new int[]{10}, 0, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> bitmap.append(new int[]{10}, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> bitmap.append(new int[]{12, 11}, 0, 2));
+        assertThrows(IllegalArgumentException.class, () -> RoaringBitmap.empty().append(new int[]{-1}, 0, 1));
+    }
+
+    private static void fill(BitSet bits, Random random, int from, double density) {
+        for (int value = from; value < from + CHUNK; value++) {
+            if (random.nextDouble() < density) {
+                bits.set(value);
+            }
+        }
+    }
+
+    /**
+     * Build a bitmap with appends of random lengths, as a growing index would
+     */
+    private static RoaringBitmap appendInBatches(int[] values, Random random) {
+        RoaringBitmap bitmap = RoaringBitmap.empty();
+        int from = 0;
+        while (from < values.length) {
+            int to = Math.min(values.length, from + 1 + random.nextInt(5_000));
+            bitmap = bitmap.append(values, from, to);
+            from = to;
+        }
+        assertEquals(values.length, bitmap.getCardinality());
+        return bitmap;
+    }
+}